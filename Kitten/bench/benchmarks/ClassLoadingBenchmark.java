@@ -0,0 +1,129 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import translation.Program;
+import types.ClassType;
+import types.CompilationContext;
+
+/**
+ * A micro-benchmark for the loading of the classes generated by the Kitten compiler.
+ * It compiles a Kitten program twice, in the old class file format generated by BCEL
+ * and in the format of Java 7 with stack map frames, and measures the time needed to
+ * load, verify and initialise all its classes, through a fresh class loader at each round.
+ * The classes without frames are verified by the type-inferencing verifier of the Java
+ * virtual machine, those with frames by its type-checking verifier. The class files
+ * are left in the current directory, that must contain the Kitten program, as the compiler does.
+ * <br><br>
+ * Usage: {@code java benchmarks.ClassLoadingBenchmark program.kit [rounds]}
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ClassLoadingBenchmark {
+
+	public static void main(String[] args) throws IOException, ClassNotFoundException {
+		if (args.length == 0) {
+			System.out.println("Usage: java benchmarks.ClassLoadingBenchmark program.kit [rounds]");
+			return;
+		}
+
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		ClassType clazz = ClassType.mkFromFileName(new CompilationContext(), args[0]);
+		if (clazz.getErrorMsg() == null || clazz.getErrorMsg().anyErrors()) {
+			System.out.println("The program contains errors");
+			return;
+		}
+
+		Program program = clazz.translate();
+		Map<String, byte[]> classic = compile(program, false);
+		Map<String, byte[]> frames = compile(program, true);
+
+		System.out.println("Class loading benchmark with " + classic.size() + " classes, " + rounds + " rounds");
+
+		// we warm-up the JIT compiler first
+		run(classic, frames, rounds, false);
+		run(classic, frames, rounds, true);
+	}
+
+	/**
+	 * Generates the class files of a program and yields their content, indexed by class name.
+	 */
+
+	private static Map<String, byte[]> compile(Program program, boolean stackMapFrames) throws IOException {
+		program.setStackMapFrames(stackMapFrames);
+		program.generateJavaBytecode();
+
+		Map<String, byte[]> classes = new LinkedHashMap<>();
+		for (ClassType clazz: program.getContext().getClasses())
+			classes.put(clazz.getName(), Files.readAllBytes(Paths.get(clazz.getName() + ".class")));
+
+		return classes;
+	}
+
+	private static void run(Map<String, byte[]> classic, Map<String, byte[]> frames, int rounds, boolean report) throws ClassNotFoundException {
+		long withoutFrames = 0L, withFrames = 0L;
+
+		for (int round = 0; round < rounds; round++) {
+			withoutFrames += load(classic);
+			withFrames += load(frames);
+		}
+
+		if (report) {
+			long loaded = (long) rounds * classic.size();
+			System.out.println("without stack map frames: " + withoutFrames / loaded / 1000 + " us/class");
+			System.out.println("with stack map frames:    " + withFrames / loaded / 1000 + " us/class");
+		}
+	}
+
+	/**
+	 * Loads, verifies and initialises the given classes through a fresh class loader.
+	 *
+	 * @return the time needed, in nanoseconds
+	 */
+
+	private static long load(Map<String, byte[]> classes) throws ClassNotFoundException {
+		long time = System.nanoTime();
+		ClassLoader loader = new BytesClassLoader(classes);
+		for (String name: classes.keySet())
+			Class.forName(name, true, loader);
+
+		return System.nanoTime() - time;
+	}
+
+	/**
+	 * A class loader that defines the given classes by itself, before delegating to its
+	 * parent, so that they are not taken from the class files in the class path.
+	 */
+
+	private static class BytesClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classes;
+
+		private BytesClassLoader(Map<String, byte[]> classes) {
+			super(ClassLoadingBenchmark.class.getClassLoader());
+
+			this.classes = classes;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> result = findLoadedClass(name);
+				if (result == null) {
+					byte[] bytes = classes.get(name);
+					result = bytes != null ? defineClass(name, bytes, 0, bytes.length) : super.loadClass(name, false);
+				}
+
+				if (resolve)
+					resolveClass(result);
+
+				return result;
+			}
+		}
+	}
+}
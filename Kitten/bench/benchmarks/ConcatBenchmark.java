@@ -0,0 +1,86 @@
+package benchmarks;
+
+/**
+ * A micro-benchmark for the repeated concatenation of Kitten strings, as in
+ * {@code s := s.concat(i).concat(",")} inside a loop, followed by a use of the whole
+ * string. It measures the time per concatenation of {@code runTime.String}, whose
+ * concatenations append in place to a shared buffer, and of strings that copy their
+ * characters into a new Java string at each concatenation, as {@code runTime.String}
+ * did before, for comparison.
+ * <br><br>
+ * Usage: {@code java benchmarks.ConcatBenchmark [concatenations] [rounds]}
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class ConcatBenchmark {
+
+	public static void main(String[] args) {
+		int concatenations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		System.out.println("Concatenation benchmark with " + concatenations + " concatenations, " + rounds + " rounds");
+
+		// we warm-up the JIT compiler first
+		run(concatenations, rounds, false);
+		run(concatenations, rounds, true);
+	}
+
+	private static void run(int concatenations, int rounds, boolean report) {
+		long buffered = 0L, copying = 0L, check = 0L;
+		runTime.String comma = new runTime.String(",");
+		Copying copyingComma = new Copying(",");
+
+		for (int round = 0; round < rounds; round++) {
+			long time = System.nanoTime();
+			runTime.String s = new runTime.String("");
+			for (int i = 0; i < concatenations; i++)
+				s = s.concat(i).concat(comma);
+			check += s.length() + (s.equals(s) ? 1 : 0);
+			buffered += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			Copying c = new Copying("");
+			for (int i = 0; i < concatenations; i++)
+				c = c.concat(i).concat(copyingComma);
+			check += c.length() + (c.equals(c) ? 1 : 0);
+			copying += System.nanoTime() - time;
+		}
+
+		if (report) {
+			long ops = 2L * rounds * concatenations;
+			System.out.println("buffered strings: " + buffered / ops + " ns/concatenation");
+			System.out.println("copying strings:  " + copying / ops + " ns/concatenation");
+			System.out.println("(checksum " + check + ")");
+		}
+	}
+
+	/**
+	 * A string that copies its characters at each concatenation,
+	 * as {@code runTime.String} did before it used shared buffers.
+	 */
+
+	private static class Copying {
+		private final String value;
+
+		private Copying(String value) {
+			this.value = value;
+		}
+
+		private Copying concat(int i) {
+			return new Copying(value + i);
+		}
+
+		private Copying concat(Copying s) {
+			return new Copying(value + s.value);
+		}
+
+		private int length() {
+			return value.length();
+		}
+
+		private boolean equals(Copying other) {
+			return value.equals(other.value);
+		}
+	}
+}
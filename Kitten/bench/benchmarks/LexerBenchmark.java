@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java_cup.runtime.Symbol;
+import lexical.Lexer;
+import syntactical.sym;
+
+/**
+ * A micro-benchmark for the lexical analyser of Kitten. It scans a source
+ * file repeatedly, up to its end, and measures the throughput of the analyser,
+ * in megabytes of source per second, and the memory that it allocates per token,
+ * if the Java virtual machine can measure it. Large generated source files
+ * give the most significant figures.
+ * <br><br>
+ * Usage: {@code java benchmarks.LexerBenchmark program.kit [rounds]}
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class LexerBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: java benchmarks.LexerBenchmark program.kit [rounds]");
+			return;
+		}
+
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		long bytes = new File(args[0]).length();
+
+		System.out.println("Lexer benchmark on " + bytes + " bytes, " + rounds + " rounds");
+
+		// we warm-up the JIT compiler first
+		run(args[0], bytes, rounds, false);
+		run(args[0], bytes, rounds, true);
+	}
+
+	private static void run(String fileName, long bytes, int rounds, boolean report) throws IOException {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+		long tokens = 0L, allocated = 0L, time = 0L;
+
+		for (int round = 0; round < rounds; round++) {
+			long before = allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+			long start = System.nanoTime();
+
+			Lexer lexer = new Lexer(fileName);
+			for (Symbol token = lexer.nextToken(); token.sym != sym.EOF; token = lexer.nextToken())
+				tokens++;
+
+			time += System.nanoTime() - start;
+			if (allocations != null)
+				allocated += allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+		}
+
+		if (report) {
+			System.out.println("throughput: " + (bytes * rounds * 1000L) / Math.max(time, 1L) + " MB/s");
+			System.out.println("tokens:     " + tokens * 1000L / Math.max(time / 1000L, 1L) + " tokens/ms");
+			if (allocations != null)
+				System.out.println("allocation: " + allocated / Math.max(tokens, 1L) + " bytes/token");
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import runTime.IO;
+
+/**
+ * A micro-benchmark for the output of Kitten programs. It prints many short lines,
+ * as a Kitten program does through {@code "".concat(i).concat("\n").output()},
+ * and measures the lines printed per second by the runtime, whose output is buffered
+ * through {@link IO}. The same measure is reported for strings that print directly
+ * to {@code System.out} and own a {@code Scanner}, as the runtime did before, for comparison.
+ * The lines go into temporary files, written through a stream configured as the
+ * standard output of Java.
+ * <br><br>
+ * Usage: {@code java benchmarks.OutputBenchmark [lines] [rounds]}
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class OutputBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		System.out.println("Output benchmark with " + lines + " lines, " + rounds + " rounds");
+
+		PrintStream console = System.out;
+		File unbuffered = File.createTempFile("unbuffered", ".txt");
+		File buffered = File.createTempFile("buffered", ".txt");
+		unbuffered.deleteOnExit();
+		buffered.deleteOnExit();
+
+		// the runtime buffers what is printed to the standard output of Java
+		// at the time of its first use, hence we redirect it before that time
+		PrintStream bufferedOut = stdout(buffered);
+		System.setOut(bufferedOut);
+		IO.install();
+		System.setOut(console);
+
+		PrintStream unbufferedOut = stdout(unbuffered);
+
+		// we warm-up the JIT compiler first
+		run(lines, rounds, unbufferedOut, false);
+		run(lines, rounds, unbufferedOut, true);
+
+		unbufferedOut.close();
+		bufferedOut.close();
+	}
+
+	/**
+	 * Yields a stream configured as the standard output of Java, that prints into the given file.
+	 */
+
+	private static PrintStream stdout(File file) throws IOException {
+		return new PrintStream(new BufferedOutputStream(new FileOutputStream(file), 8192), true);
+	}
+
+	private static void run(int lines, int rounds, PrintStream unbufferedOut, boolean report) {
+		long buffered = 0L, unbuffered = 0L;
+
+		for (int round = 0; round < rounds; round++) {
+			long time = System.nanoTime();
+			for (int line = 0; line < lines; line++)
+				new runTime.String("").concat(line).concat(new runTime.String("\n")).output();
+			IO.flush();
+			buffered += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			for (int line = 0; line < lines; line++)
+				new Unbuffered("", unbufferedOut).concat(line).concat(new Unbuffered("\n", unbufferedOut)).output();
+			unbufferedOut.flush();
+			unbuffered += System.nanoTime() - time;
+		}
+
+		if (report) {
+			long total = (long) lines * rounds;
+			System.out.println("buffered runtime:   " + total * 1000000000L / buffered + " lines/s");
+			System.out.println("unbuffered runtime: " + total * 1000000000L / unbuffered + " lines/s");
+		}
+	}
+
+	/**
+	 * A string that prints directly to the standard output and owns a {@code Scanner}
+	 * for the keyboard, as {@code runTime.String} did before {@link IO} was introduced.
+	 */
+
+	private static class Unbuffered {
+		private final String value;
+		private final PrintStream out;
+
+		@SuppressWarnings("unused")
+		private final Scanner keyboard = new Scanner(System.in);
+
+		private Unbuffered(String value, PrintStream out) {
+			this.value = value;
+			this.out = out;
+		}
+
+		private Unbuffered concat(int i) {
+			return new Unbuffered(value + i, out);
+		}
+
+		private Unbuffered concat(Unbuffered s) {
+			return new Unbuffered(value + s.value, out);
+		}
+
+		private void output() {
+			out.print(value);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import semantical.TypeChecker;
+import tables.Table;
+import types.CompilationContext;
+import types.VoidType;
+import errorMsg.ErrorMsg;
+
+/**
+ * A micro-benchmark for the symbol tables used by the type-checker. It
+ * simulates methods declaring many local variables, in lexicographical order,
+ * which is the worst case for an unbalanced binary search tree. It measures
+ * the cost of declaring the variables through {@link TypeChecker#putVar(String, types.Type)}
+ * and of looking them up through {@link TypeChecker#getVarNum(String)}.
+ * The same measures are reported for an unbalanced persistent tree, for comparison.
+ * <br><br>
+ * Usage: {@code java benchmarks.TableBenchmark [locals] [rounds]}
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class TableBenchmark {
+
+	public static void main(String[] args) throws InterruptedException {
+		final int locals = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		// the unbalanced tree degenerates into a list, hence its recursive
+		// insertion needs a stack as deep as the number of locals
+		Thread thread = new Thread(null, new Runnable() {
+
+			@Override
+			public void run() {
+				benchmark(locals, rounds);
+			}
+		}, "benchmark", 1L << 30);
+
+		thread.start();
+		thread.join();
+	}
+
+	private static void benchmark(int locals, int rounds) {
+
+		// the names of the local variables, in lexicographical order
+		String[] names = new String[locals];
+		for (int pos = 0; pos < locals; pos++)
+			names[pos] = String.format("local%07d", pos);
+
+		System.out.println("Symbol table benchmark with " + locals + " locals, " + rounds + " rounds");
+
+		// we warm-up the JIT compiler first
+		run(names, rounds, false);
+		run(names, rounds, true);
+	}
+
+	private static void run(String[] names, int rounds, boolean report) {
+		long insert = 0L, lookup = 0L, unbalancedInsert = 0L, unbalancedLookup = 0L;
+		long check = 0L;
+
+		for (int round = 0; round < rounds; round++) {
+			long time = System.nanoTime();
+			TypeChecker checker = new TypeChecker(VoidType.INSTANCE, new ErrorMsg("benchmark"), new CompilationContext());
+			for (String name: names)
+				checker = checker.putVar(name, VoidType.INSTANCE);
+			insert += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			for (String name: names)
+				check += checker.getVarNum(name);
+			lookup += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			Unbalanced<Integer> unbalanced = new Unbalanced<>(null, null, null, null);
+			for (int pos = 0; pos < names.length; pos++)
+				unbalanced = unbalanced.put(names[pos], pos);
+			unbalancedInsert += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			for (String name: names)
+				check += unbalanced.get(name);
+			unbalancedLookup += System.nanoTime() - time;
+		}
+
+		if (report) {
+			long ops = (long) rounds * names.length;
+			System.out.println("red-black table:  insert " + insert / ops + " ns/op, lookup " + lookup / ops + " ns/op");
+			System.out.println("unbalanced table: insert " + unbalancedInsert / ops + " ns/op, lookup " + unbalancedLookup / ops + " ns/op");
+			System.out.println("(checksum " + check + ")");
+		}
+	}
+
+	/**
+	 * A persistent, unbalanced binary search tree, as the symbol tables
+	 * were implemented before {@link Table} became a red-black tree.
+	 * The empty tree has a {@code null} key.
+	 */
+
+	private static class Unbalanced<E> {
+		private final String key;
+		private final E value;
+		private final Unbalanced<E> left;
+		private final Unbalanced<E> right;
+
+		private Unbalanced(String key, E value, Unbalanced<E> left, Unbalanced<E> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+		}
+
+		private E get(String key) {
+			Unbalanced<E> cursor = this;
+			while (cursor.key != null) {
+				int comp = cursor.key.compareTo(key);
+				if (comp < 0)
+					cursor = cursor.left;
+				else if (comp == 0)
+					return cursor.value;
+				else
+					cursor = cursor.right;
+			}
+
+			return null;
+		}
+
+		private Unbalanced<E> put(String key, E value) {
+			if (this.key == null) {
+				Unbalanced<E> empty = new Unbalanced<>(null, null, null, null);
+				return new Unbalanced<>(key, value, empty, empty);
+			}
+
+			int comp = this.key.compareTo(key);
+			if (comp < 0)
+				return new Unbalanced<>(this.key, this.value, left.put(key, value), right);
+			else if (comp == 0)
+				return new Unbalanced<>(key, value, left, right);
+			else
+				return new Unbalanced<>(this.key, this.value, left, right.put(key, value));
+		}
+	}
+}
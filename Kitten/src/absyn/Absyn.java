@@ -2,6 +2,7 @@ package absyn;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import semantical.TypeChecker;
 
@@ -29,10 +30,10 @@ public abstract class Absyn {
 
 	/**
 	 * A counter used to assign distinct values to the <tt>identifier</tt>
-	 * field.
+	 * field. It is atomic since source files are parsed in parallel.
 	 */
 
-	private static int counter = 0;
+	private final static AtomicInteger counter = new AtomicInteger();
 
 	/**
 	 * A type error that occurred in this node during type-checking.
@@ -52,7 +53,7 @@ public abstract class Absyn {
 		this.pos = pos;
 
 		// we assign a unique identifier to this node of abstract syntax
-		this.identifier = counter++;
+		this.identifier = counter.getAndIncrement();
 
 		// no type-checking error at the beginning
 		this.typeError = null;
@@ -2,8 +2,9 @@ package absyn;
 
 import java.io.FileWriter;
 
-import types.Type;
 import types.ArrayType;
+import types.CompilationContext;
+import types.Type;
 
 /**
  * A node of abstract syntax representing a Kitten array type.
@@ -38,25 +39,27 @@ public class ArrayTypeExpression extends TypeExpression {
 	 * Type-checks this array type expression. It type-checks the elements
 	 * of the array and then returns the array type for such an elements type.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical array type corresponding to this
 	 *         array type expression
 	 */
 
 	@Override
-	protected Type typeCheckAux() {
-		return ArrayType.mk(elementsType.typeCheck());
+	protected Type typeCheckAux(CompilationContext context) {
+		return ArrayType.mk(context, elementsType.typeCheck(context));
 	}
 
 	/**
 	 * Auxiliary method that yields the semantical type corresponding
 	 * to this type expression.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical array type corresponding to this array type expression
 	 */
 
 	@Override
-	protected Type toTypeAux() {
-		return ArrayType.mk(elementsType.toType());
+	protected Type toTypeAux(CompilationContext context) {
+		return ArrayType.mk(context, elementsType.toType(context));
 	}
 
 	/**
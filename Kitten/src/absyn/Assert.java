@@ -56,8 +56,8 @@ public class Assert extends Command {
 		
 		Block failed = new Block(new RETURN(IntType.INSTANCE));
 		failed = new CONST(-1).followedBy(failed);
-		failed = new VIRTUALCALL(ClassType.mkFromFileName("String.kit"),
-			ClassType.mkFromFileName("String.kit").methodLookup("output", TypeList.EMPTY)).followedBy(failed);
+		ClassType string = ClassType.mkFromFileName(getTypeChecker().getContext(), "String.kit");
+		failed = new VIRTUALCALL(string, string.methodLookup("output", TypeList.EMPTY)).followedBy(failed);
 		failed = new NEWSTRING(out).followedBy(failed);
 
 		return asserted.translateAsTest(continuation, failed);
@@ -1,6 +1,7 @@
 package absyn;
 
 import types.BooleanType;
+import types.CompilationContext;
 import types.Type;
 
 /**
@@ -23,12 +24,12 @@ public class BooleanTypeExpression extends TypeExpression {
 	}
 
 	@Override
-	protected Type typeCheckAux() {
+	protected Type typeCheckAux(CompilationContext context) {
 		return BooleanType.INSTANCE;
 	}
 
 	@Override
-	protected Type toTypeAux() {
+	protected Type toTypeAux(CompilationContext context) {
 		return BooleanType.INSTANCE;
 	}
 
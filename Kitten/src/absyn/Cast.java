@@ -100,7 +100,7 @@ public class Cast extends Expression {
     @Override
     protected Type typeCheckAux(TypeChecker checker) {
     	Type fromType = expression.typeCheck(checker);
-    	Type intoType = type.typeCheck();
+    	Type intoType = type.typeCheck(checker.getContext());
 
     	if (fromType == intoType)
     		error("You do not need to cast a " + fromType + " into itself");
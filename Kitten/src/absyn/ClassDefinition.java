@@ -204,6 +204,6 @@ public class ClassDefinition extends Absyn {
     	if (main != null)
     		main.getAbstractSyntax().translate(done);
 
-    	return new Program(done, main);
+    	return new Program(staticType.getContext(), done, main);
     }
 }
\ No newline at end of file
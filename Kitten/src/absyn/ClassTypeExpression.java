@@ -3,6 +3,7 @@ package absyn;
 import java.io.FileWriter;
 
 import types.ClassType;
+import types.CompilationContext;
 import types.Type;
 
 /**
@@ -48,12 +49,13 @@ public class ClassTypeExpression extends TypeExpression {
 	 * with the given name. This might trigger a lexical, syntactical and semantical
 	 * analysis of one (or recursively more) class(es).
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical class type corresponding to this class type expression
 	 */
 
 	@Override
-	protected Type typeCheckAux() {
-		ClassType result = ClassType.mk(name);
+	protected Type typeCheckAux(CompilationContext context) {
+		ClassType result = ClassType.mk(context, name);
 
 		result.typeCheck();
 
@@ -65,12 +67,13 @@ public class ClassTypeExpression extends TypeExpression {
 	 * to this type expression. It builds the class type with the
 	 * given name but does not type-check it.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical class type corresponding to this class type expression
 	 */
 
 	@Override
-	protected Type toTypeAux() {
-		return ClassType.mk(name);
+	protected Type toTypeAux(CompilationContext context) {
+		return ClassType.mk(context, name);
 	}
 
 	/**
@@ -1,9 +1,9 @@
 package absyn;
 
-import java.util.HashSet;
 import java.util.Set;
 
 import translation.Block;
+import translation.BlockGraph;
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.CodeSignature;
@@ -14,7 +14,6 @@ import types.TestSignature;
 
 
 import bytecode.Bytecode;
-import bytecode.BytecodeList;
 import bytecode.CALL;
 import bytecode.GETFIELD;
 import bytecode.PUTFIELD;
@@ -131,7 +130,7 @@ public abstract class CodeDeclaration extends ClassMemberDeclaration {
 
     		// we translate all methods and constructors that are referenced
     		// from the code we have generated
-    		translateReferenced(sig.getCode(), done, new HashSet<Block>());
+    		translateReferenced(sig.getCode(), done);
     	}
     }
 
@@ -141,36 +140,32 @@ public abstract class CodeDeclaration extends ClassMemberDeclaration {
      *
      * @param block the block
      * @param done the class member signatures already translated
-     * @param blocksDone the blocks that have been already processed
      */
 
-    protected void translateReferenced(Block block, Set<ClassMemberSignature> done, Set<Block> blocksDone) {
-    	// if we already processed the block, we return immediately
-    	if (!blocksDone.add(block))
-    		return;
+    protected void translateReferenced(Block block, Set<ClassMemberSignature> done) {
+    	BlockGraph graph = new BlockGraph(block);
 
-    	for (BytecodeList cursor = block.getBytecode(); cursor != null; cursor = cursor.getTail()) {
-    		Bytecode h = cursor.getHead();
-
-    		if (h instanceof GETFIELD) {
-    			done.add(((GETFIELD) h).getField());
-    			translate2(((GETFIELD) h).getField().getDefiningClass(), done);
-    		}
-    		else if (h instanceof PUTFIELD) {
-    			done.add(((PUTFIELD) h).getField());
-    			translate2(((PUTFIELD) h).getField().getDefiningClass(), done);
-    		}
-    		else if (h instanceof CALL) {
-    			for (CodeSignature callee: ((CALL)h).getDynamicTargets()) {
-    				callee.getAbstractSyntax().translate(done);
-    				translate2(callee.getDefiningClass(), done);
+    	for (Block current = graph.next(); current != null; current = graph.next()) {
+    		for (Bytecode h: current.getBytecode()) {
+    			if (h instanceof GETFIELD) {
+    				done.add(((GETFIELD) h).getField());
+    				translate2(((GETFIELD) h).getField().getDefiningClass(), done);
+    			}
+    			else if (h instanceof PUTFIELD) {
+    				done.add(((PUTFIELD) h).getField());
+    				translate2(((PUTFIELD) h).getField().getDefiningClass(), done);
+    			}
+    			else if (h instanceof CALL) {
+    				for (CodeSignature callee: ((CALL)h).getDynamicTargets()) {
+    					callee.getAbstractSyntax().translate(done);
+    					translate2(callee.getDefiningClass(), done);
+    				}
     			}
     		}
-    	}
 
-    	// we continue with the following blocks
-    	for (Block follow: block.getFollows())
-    		translateReferenced(follow, done, blocksDone);
+    		// we continue with the following blocks
+    		graph.pushFollows(current);
+    	}
     }
     
     protected void translate2(ClassType clazz, Set<ClassMemberSignature> done) {
@@ -69,7 +69,7 @@ public class ConstructorDeclaration extends CodeDeclaration {
 	@Override
 	protected void addTo(ClassType clazz) {
 		ConstructorSignature cSig = new ConstructorSignature
-			(clazz, getFormals() != null ? getFormals().toType() : TypeList.EMPTY, this);
+			(clazz, getFormals() != null ? getFormals().toType(clazz.getContext()) : TypeList.EMPTY, this);
 
 		clazz.addConstructor(cSig);
 
@@ -91,7 +91,7 @@ public class ConstructorDeclaration extends CodeDeclaration {
 	protected void typeCheckAux(ClassType clazz) {
 		FormalParameters formals = getFormals();
 
-		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg());
+		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg(), clazz.getContext());
 		checker = checker.putVar("this", clazz);
 		// we enrich the type-checker with the formal parameters
 		if (formals != null)
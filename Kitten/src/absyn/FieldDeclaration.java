@@ -91,7 +91,7 @@ public class FieldDeclaration extends ClassMemberDeclaration {
 
 	@Override
 	protected void addTo(ClassType clazz) {
-		this.sig = new FieldSignature(clazz, type.toType(), name, this);
+		this.sig = new FieldSignature(clazz, type.toType(clazz.getContext()), name, this);
 		clazz.addField(name, this.sig);
 	}
 
@@ -103,7 +103,7 @@ public class FieldDeclaration extends ClassMemberDeclaration {
 
 	@Override
 	protected void typeCheckAux(ClassType currentClass) {
-		type.typeCheck();
+		type.typeCheck(currentClass.getContext());
 	}
 
 	/**
@@ -10,12 +10,10 @@ import types.VoidType;
 
 public class FixtureDeclaration extends CodeDeclaration {
 
-	private static int counter;
 	private String name;
 	
 	public FixtureDeclaration(int pos, Command body, ClassMemberDeclaration next) {
 		super(pos, null, body, next);
-		name = "fixture".concat(String.valueOf(++counter));
 	}
 	
 	/**
@@ -45,6 +43,8 @@ public class FixtureDeclaration extends CodeDeclaration {
 	
 	@Override
 	protected void addTo(ClassType clazz) {
+		// fixtures are numbered inside their class, since classes are parsed in parallel
+		name = "fixture".concat(String.valueOf(clazz.getFixtures().size() + 1));
 		FixtureSignature fSig = new FixtureSignature (clazz, name, this);
 		
 		clazz.addFixture(fSig);
@@ -55,7 +55,7 @@ public class FixtureDeclaration extends CodeDeclaration {
 	
 	@Override
 	protected void typeCheckAux(ClassType clazz) {
-		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg());
+		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg(), clazz.getContext());
 		checker = checker.putVar("this", clazz);
 		
 		// we type-check the body of the constructor in the resulting type-checker
@@ -68,4 +68,4 @@ public class FixtureDeclaration extends CodeDeclaration {
 		// a return statement is always present at the end of every
 		// syntactical execution path in the body of a fixture
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 
 import semantical.TypeChecker;
+import types.CompilationContext;
 import types.TypeList;
 
 /**
@@ -109,13 +110,14 @@ public class FormalParameters extends Absyn {
 	 * Computes the list of semantical types of these parameters.
 	 * It type-checks the first parameter and then, recursively, {@link #next}, if any.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the list of semantical types of these parameteres
 	 */
 
-	public TypeList typeCheck() {
-		TypeList result = next != null ? next.typeCheck() : TypeList.EMPTY;
+	public TypeList typeCheck(CompilationContext context) {
+		TypeList result = next != null ? next.typeCheck(context) : TypeList.EMPTY;
 
-		return result.push(type.typeCheck());
+		return result.push(type.typeCheck(context));
 	}
 
 	/**
@@ -131,7 +133,7 @@ public class FormalParameters extends Absyn {
 	public TypeChecker typeCheck(TypeChecker checker) {
 		// we add this parameter in the symbol table of the type-checker
 		// and then continue recursively with the other parameters
-		checker = checker.putVar(name,type.typeCheck());
+		checker = checker.putVar(name,type.typeCheck(checker.getContext()));
 
 		// we continue with the next parameters, if any
 		if (next != null)
@@ -143,15 +145,16 @@ public class FormalParameters extends Absyn {
 	/**
 	 * Computes the list of semantical types of these parameters.
 	 * It builds the semantical type of the first parameter and then,
-	 * recursively, those of {@link #next}. The difference with {@link #typeCheck()}
+	 * recursively, those of {@link #next}. The difference with {@link #typeCheck(CompilationContext)}
 	 * is that class types occurring in these parameters are not type-checked.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the list of semantical types of these parameteres.
 	 */
 
-	public TypeList toType() {
-		TypeList result = next != null ? next.toType() : TypeList.EMPTY;
+	public TypeList toType(CompilationContext context) {
+		TypeList result = next != null ? next.toType(context) : TypeList.EMPTY;
 
-		return result.push(type.toType());
+		return result.push(type.toType(context));
 	}
 }
\ No newline at end of file
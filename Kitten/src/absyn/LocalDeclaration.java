@@ -122,7 +122,7 @@ public class LocalDeclaration extends Command {
 	@Override
 	protected TypeChecker typeCheckAux(TypeChecker checker) {
 		// we type check the declared type of the variable
-		Type left = type.typeCheck();
+		Type left = type.typeCheck(checker.getContext());
 
 		// we type-check the initialising expression and require
 		// that it can be assigned to the declared type of the variable
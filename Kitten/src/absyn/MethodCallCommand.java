@@ -11,6 +11,7 @@ import types.MethodSignature;
 import types.Type;
 import types.TypeList;
 import types.VoidType;
+import bytecode.OUTPUTBUILDER;
 import bytecode.POP;
 import bytecode.VIRTUALCALL;
 
@@ -209,7 +210,9 @@ public class MethodCallCommand extends Command {
 	 * {@code virtualcall method}<br>
 	 * {@code pop} (if the method does not return {@code void})<br>
 	 * <br>
-	 * and continues with the given {@code continuation}.
+	 * and continues with the given {@code continuation}. If this command prints a chain of
+	 * calls to {@code concat}, the chain is translated into a string builder, whose content
+	 * is printed by an {@code outputbuilder} bytecode.
 	 *
 	 * @param where the method or constructor where this expression occurs
 	 * @param continuation the continuation to be executed after this command
@@ -218,6 +221,12 @@ public class MethodCallCommand extends Command {
 
 	@Override
 	public Block translate(Block continuation) {
+		// a chain of concatenations that is only printed is never turned into a string
+		if (method.getName().equals("output") && method.getDefiningClass().getName().equals("String")
+				&& !method.isOverridden() && MethodCallExpression.isConcatenation(receiver))
+			return ((MethodCallExpression) receiver).translateIntoBuilder
+				(new OUTPUTBUILDER().followedBy(continuation));
+
 		if (method.getReturnType() != VoidType.INSTANCE)
 			// if the method does return a value, we must throw it away
 			continuation = new POP(method.getReturnType()).followedBy(continuation);
@@ -10,6 +10,9 @@ import types.ClassType;
 import types.MethodSignature;
 import types.Type;
 import types.TypeList;
+import bytecode.APPEND;
+import bytecode.BUILDSTRING;
+import bytecode.NEWBUILDER;
 import bytecode.VIRTUALCALL;
 
 /**
@@ -193,7 +196,9 @@ public class MethodCallExpression extends Expression {
 	 * <i>translation of the last actual parameter</i><br>
 	 * {@code virtualcall method}<br>
 	 * <br>
-	 * and continues with the given {@code continuation}.
+	 * and continues with the given {@code continuation}. A chain of two or more calls to
+	 * {@code concat} is translated into a single string builder instead, followed by a
+	 * {@code buildstring} bytecode.
 	 *
 	 * @param where the method or constructor where this expression occurs
 	 * @param continuation the continuation to be executed after this command
@@ -202,6 +207,10 @@ public class MethodCallExpression extends Expression {
 
 	@Override
 	public Block translate(Block continuation) {
+		// a chain of concatenations is translated into a single string builder
+		if (isConcatenation(this) && isConcatenation(receiver))
+			return translateIntoBuilder(new BUILDSTRING().followedBy(continuation));
+
 		// we put an instruction which calls the method
 		continuation = new VIRTUALCALL((ClassType) receiver.getStaticType(), method)
 			.followedBy(continuation);
@@ -213,4 +222,49 @@ public class MethodCallExpression extends Expression {
 		// we translate the receiver of the call
 		return receiver.translate(continuation);
 	}
+
+	/**
+	 * Determines if the given expression is a call to a {@code concat} method of
+	 * {@code String}, that is not redefined in any subclass. Such calls can be
+	 * translated into operations over a string builder.
+	 *
+	 * @param expression the expression
+	 * @return true if and only if {@code expression} is such a call
+	 */
+
+	static boolean isConcatenation(Expression expression) {
+		if (!(expression instanceof MethodCallExpression))
+			return false;
+
+		MethodSignature method = ((MethodCallExpression) expression).method;
+
+		return method.getName().equals("concat") && method.getDefiningClass().getName().equals("String")
+			&& !method.isOverridden();
+	}
+
+	/**
+	 * Translates this call to {@code concat} into intermediate Kitten bytecode
+	 * that appends its actual parameter to a string builder. If the receiver
+	 * of this call is a call to {@code concat} as well, the same builder is used for both.
+	 * Otherwise, the builder is created for the receiver. The resulting code is<br>
+	 * <br>
+	 * <i>code that leaves the builder for {@link #receiver} on the stack</i><br>
+	 * <i>translation of the actual parameter</i><br>
+	 * {@code append type}<br>
+	 * <br>
+	 * and continues with the given {@code continuation}.
+	 *
+	 * @param continuation the continuation to be executed after this call, with the builder on the stack
+	 * @return the code executing this call and then {@code continuation}
+	 */
+
+	Block translateIntoBuilder(Block continuation) {
+		continuation = new APPEND(method.getParameters().getHead()).followedBy(continuation);
+		continuation = actuals.translateAs(method.getParameters(), continuation);
+
+		if (isConcatenation(receiver))
+			return ((MethodCallExpression) receiver).translateIntoBuilder(continuation);
+		else
+			return receiver.translate(new NEWBUILDER().followedBy(continuation));
+	}
 }
\ No newline at end of file
@@ -109,8 +109,8 @@ public class MethodDeclaration extends CodeDeclaration {
 
 	@Override
 	protected void addTo(ClassType clazz) {
-		Type rt = returnType.toType();
-		TypeList pars = getFormals() != null ? getFormals().toType() : TypeList.EMPTY;
+		Type rt = returnType.toType(clazz.getContext());
+		TypeList pars = getFormals() != null ? getFormals().toType(clazz.getContext()) : TypeList.EMPTY;
 		MethodSignature mSig = new MethodSignature(clazz, rt, pars, name, this);
 
 		clazz.addMethod(name, mSig);
@@ -138,14 +138,14 @@ public class MethodDeclaration extends CodeDeclaration {
 		TypeChecker checker;
 		ClassType superclass;
 		MethodSignature overridden;
-		Type rt = returnType.typeCheck();
+		Type rt = returnType.typeCheck(clazz.getContext());
 
 		// we build a type-checker which signals errors for the source code
 		// of the class where this method is defined,
 		// whose only variables in scope is this of type
 		// clazz and the parameters of the method, and
 		// where return instructions of type returnType are allowed
-		checker = new TypeChecker(rt,clazz.getErrorMsg());
+		checker = new TypeChecker(rt, clazz.getErrorMsg(), clazz.getContext());
 
 		// the main method is the only <i>static</i> method, where there is no this variable
 		if (!getSignature().getName().equals("main"))
@@ -154,7 +154,7 @@ public class MethodDeclaration extends CodeDeclaration {
 		// we enrich the type-checker with the formal parameters
 		checker = getFormals() != null ? getFormals().typeCheck(checker) : checker;
 
-		TypeList pars = getFormals() != null ? getFormals().typeCheck() : null;
+		TypeList pars = getFormals() != null ? getFormals().typeCheck(clazz.getContext()) : null;
 
 		// we check if this method overrides a method of some superclass
 		superclass = clazz.getSuperclass();
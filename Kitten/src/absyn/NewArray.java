@@ -94,7 +94,7 @@ public class NewArray extends Expression {
 	protected Type typeCheckAux(TypeChecker checker) {
 		size.mustBeInt(checker);
 
-		return ArrayType.mk(elementsType.typeCheck());
+		return ArrayType.mk(checker.getContext(), elementsType.typeCheck(checker.getContext()));
 	}
 
 	/**
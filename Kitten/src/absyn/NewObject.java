@@ -130,7 +130,7 @@ public class NewObject extends Expression {
 
 	@Override
 	protected Type typeCheckAux(TypeChecker checker) {
-		ClassType target = ClassType.mk(className);
+		ClassType target = ClassType.mk(checker.getContext(), className);
 
 		target.typeCheck();
 
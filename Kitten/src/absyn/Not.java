@@ -97,4 +97,21 @@ public class Not extends Expression {
 	public Block translate(Block continuation) {
 		return expression.translate(new NEG(BooleanType.INSTANCE).followedBy(continuation));
 	}
+
+	/**
+	 * Translates this expression by routing control to one of two possible
+	 * destinations. No negation is computed: the negated expression is
+	 * translated as a test with the two destinations swapped.
+	 *
+	 * @param yes the continuation that is the <i>yes</i> destination
+	 * @param no the continuation that is the <i>no</i> destination
+	 * @return the code that evaluates the expression and on the basis
+	 *         of its Boolean value routes the computation to the
+	 *         {@code yes} or {@code no} continuation, respectively
+	 */
+
+	@Override
+	public Block translateAsTest(Block yes, Block no) {
+		return expression.translateAsTest(no, yes);
+	}
 }
\ No newline at end of file
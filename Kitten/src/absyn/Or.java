@@ -1,5 +1,6 @@
 package absyn;
 
+import translation.Block;
 import types.Type;
 import bytecode.BinOpBytecode;
 import bytecode.OR;
@@ -37,4 +38,27 @@ public class Or extends BooleanBinOp {
 	protected BinOpBytecode operator(Type type) {
 		return new OR();
 	}
+
+	/**
+	 * Translates this expression by routing control to one of two possible
+	 * destinations, with short-circuit evaluation. The left-hand side is
+	 * tested first: if it is true, control goes to {@code yes} and the
+	 * right-hand side is not evaluated. Otherwise the right-hand side
+	 * decides between {@code yes} and {@code no}.
+	 *
+	 * @param yes the continuation that is the <i>yes</i> destination
+	 * @param no the continuation that is the <i>no</i> destination
+	 * @return the code that evaluates the expression and on the basis
+	 *         of its Boolean value routes the computation to the
+	 *         {@code yes} or {@code no} continuation, respectively
+	 */
+
+	@Override
+	public Block translateAsTest(Block yes, Block no) {
+		// yes is reached from both sides: we avoid that the code
+		// prefixed to it by one side is seen by the other side as well
+		yes.doNotMerge();
+
+		return getLeft().translateAsTest(yes, getRight().translateAsTest(yes, no));
+	}
 }
\ No newline at end of file
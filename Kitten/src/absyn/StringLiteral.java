@@ -73,7 +73,7 @@ public class StringLiteral extends Literal {
 		// we type-check the String type since it is the only
 		// class type that can be used in a program without
 		// an explicit reference to its name (through constants like this)
-		ClassType result = ClassType.mk("String");
+		ClassType result = ClassType.mk(checker.getContext(), "String");
 
 		// normally, String.kit should be found
 		if (result != null)
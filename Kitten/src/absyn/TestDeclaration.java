@@ -2,7 +2,6 @@ package absyn;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Set;
 
 import semantical.TypeChecker;
@@ -83,7 +82,7 @@ public class TestDeclaration extends CodeDeclaration {
 
 	@Override
 	protected void typeCheckAux(ClassType clazz) {
-		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg(), true);
+		TypeChecker checker = new TypeChecker(VoidType.INSTANCE, clazz.getErrorMsg(), clazz.getContext(), true);
 
 		// we type-check the body of the test in the resulting type-checking
 		getBody().typeCheck(checker);
@@ -101,12 +100,12 @@ public class TestDeclaration extends CodeDeclaration {
 			translate2(getSignature().getDefiningClass(),done);
 			Block post = new Block(new RETURN(IntType.INSTANCE));
 			post = new CONST(0).followedBy(post);
-			post = new VIRTUALCALL(ClassType.mkFromFileName("String.kit"),
-					ClassType.mkFromFileName("String.kit").methodLookup("output", TypeList.EMPTY))
+			ClassType string = ClassType.mkFromFileName(getSignature().getDefiningClass().getContext(), "String.kit");
+			post = new VIRTUALCALL(string, string.methodLookup("output", TypeList.EMPTY))
 			.followedBy(post);
 			post = new NEWSTRING("Assert passed").followedBy(post);	
 			getSignature().setCode(getBody().translate(post));
-			translateReferenced(getSignature().getCode(), done, new HashSet<Block>());
+			translateReferenced(getSignature().getCode(), done);
 		}
 	}
 	
@@ -3,6 +3,7 @@ package absyn;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import types.CompilationContext;
 import types.Type;
 
 /**
@@ -90,48 +91,52 @@ public abstract class TypeExpression extends Absyn {
 
 	/**
 	 * Type-checks this type expression. It calls the auxiliary method
-	 * {@link #typeCheckAux()} and stores the resulting semantical type
+	 * {@link #typeCheckAux(CompilationContext)} and stores the resulting semantical type
 	 * into {@link #staticType}.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical type corresponding to this type expression
 	 */
 
-	public final Type typeCheck() {
-		return staticType = typeCheckAux();
+	public final Type typeCheck(CompilationContext context) {
+		return staticType = typeCheckAux(context);
 	}
 
 	/**
 	 * Auxiliary method for type-checking. Performs the type-checking of this
 	 * type expression.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical type corresponding to this type expression
 	 */
 
-	protected abstract Type typeCheckAux();
+	protected abstract Type typeCheckAux(CompilationContext context);
 
 	/**
 	 * Yields the semantical type corresponding to this type expression.
-	 * It calls the auxiliary method {@link #toTypeAux()} and stores the
+	 * It calls the auxiliary method {@link #toTypeAux(CompilationContext)} and stores the
 	 * resulting semantical type into {@link #staticType}. The difference with
-	 * {@link #typeCheck()} is that class types occurring in this type
+	 * {@link #typeCheck(CompilationContext)} is that class types occurring in this type
 	 * expressions are not type-checked themselves.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical type corresponding to this type expression
 	 */
 
-	public final Type toType() {
-		return staticType = toTypeAux();
+	public final Type toType(CompilationContext context) {
+		return staticType = toTypeAux(context);
 	}
 
 	/**
 	 * Auxiliary method that yields the semantical type corresponding
-	 * to this type expression. The difference with {@link #typeCheckAux()}
+	 * to this type expression. The difference with {@link #typeCheckAux(CompilationContext)}
 	 * is that class types occurring in this type expressions are not type-checked themselves.
 	 *
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @return the semantical type corresponding to this type expression
 	 */
 
-	protected abstract Type toTypeAux();
+	protected abstract Type toTypeAux(CompilationContext context);
 
 	/**
 	 * Yields the static semantical type of this type expression, as computed during
@@ -1,5 +1,6 @@
 package absyn;
 
+import types.CompilationContext;
 import types.Type;
 import types.VoidType;
 
@@ -23,12 +24,12 @@ public class VoidTypeExpression extends TypeExpression {
 	}
 
 	@Override
-	protected Type typeCheckAux() {
+	protected Type typeCheckAux(CompilationContext context) {
 		return VoidType.INSTANCE;
 	}
 
 	@Override
-	protected Type toTypeAux() {
+	protected Type toTypeAux(CompilationContext context) {
 		return VoidType.INSTANCE;
 	}
 
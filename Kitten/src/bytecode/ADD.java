@@ -27,11 +27,7 @@ public class ADD extends ArithmeticBinOpBytecode {
 	}
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList();
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		getType().add(il);
-
-		return il;
 	}
 }
\ No newline at end of file
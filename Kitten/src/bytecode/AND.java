@@ -23,7 +23,7 @@ public class AND extends BinOpBytecode {
 	public AND() {}
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(new org.apache.bcel.generic.IAND());
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(new org.apache.bcel.generic.IAND());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+import types.Type;
+
+/**
+ * A bytecode that appends the top value of the stack to the string builder
+ * just below it. It is the translation of a call to {@code concat} inside
+ * a chain of string concatenations.
+ * <br><br>
+ * ..., builder, value -&gt; ..., builder
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class APPEND extends NonCallingSequentialBytecode {
+
+	/**
+	 * The type of the value that is appended.
+	 */
+
+	private final Type type;
+
+	/**
+	 * Constructs a bytecode that appends the top value of the stack to a string builder.
+	 *
+	 * @param type the type of the value that is appended. It must be the type of a
+	 *             parameter of a {@code concat} method of {@code String}
+	 */
+
+	public APPEND(Type type) {
+		this.type = type;
+	}
+
+	/**
+	 * Yields the type of the value that is appended.
+	 *
+	 * @return the type of the value that is appended
+	 */
+
+	public Type getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return "append " + type;
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode, that is,
+	 * {@code invokevirtual runTime.StringBuilder.append}.
+	 * It appends to {@code il} the Java bytecode that appends the top value of the stack to
+	 * the builder below it.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		ObjectType builder = new ObjectType(runTime.StringBuilder.class.getName());
+
+		il.append(classGen.getFactory().createInvoke
+			(builder.getClassName(), // class name of the method
+			"append", // name of the method
+			builder, // return type
+			new org.apache.bcel.generic.Type[] { type.toBCEL() }, // parameters types
+			Constants.INVOKEVIRTUAL)); // invokevirtual
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 2;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
+}
\ No newline at end of file
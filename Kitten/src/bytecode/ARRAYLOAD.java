@@ -55,14 +55,25 @@ public class ARRAYLOAD extends NonCallingSequentialBytecode {
 	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely,
 	 * it generates an {@code iaload} if {@link #type} is {@code int}, an {@code faload} if
 	 * {@link #type} is {@code float} and an {@code aaload} if {@link #type} is a class or array type.
+	 * It appends to {@code il} the Java {@code iaload}, {@code faload} or {@code aaload}
+	 * bytecode, depending on {@link #type}.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the Java {@code iaload}, {@code faload} or {@code aaload}
-	 *         bytecode, depending on {@link #type}
 	 */
 
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice among more possible Java bytecodes
-		return new InstructionList(InstructionFactory.createArrayLoad(type.toBCEL()));
+		il.append(InstructionFactory.createArrayLoad(type.toBCEL()));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 2;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
@@ -54,15 +54,26 @@ public class ARRAYSTORE extends NonCallingSequentialBytecode {
 	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely,
 	 * it generates an {@code iastore} if {@link #type} is {@code nil}, an {@code fastore} if
 	 * {@link #type} is {@code float} and an {@code aastore} if {@link #type} is a class or array type.
+	 * It appends to {@code il} the Java {@code iastore}, {@code fastore} or {@code aastore}
+	 * bytecode, depending on {@link #type}.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the Java {@code iastore}, {@code fastore} or {@code aastore}
-	 *         bytecode, depending on {@link #type}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice among the possible Java bytecodes
-		return new InstructionList(InstructionFactory.createArrayStore(type.toBCEL()));
+		il.append(InstructionFactory.createArrayStore(type.toBCEL()));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 3;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
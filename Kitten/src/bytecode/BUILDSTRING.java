@@ -0,0 +1,61 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+/**
+ * A bytecode that ends a chain of string concatenations, by replacing the
+ * string builder on top of the stack with the string that it has built.
+ * <br><br>
+ * ..., builder -&gt; ..., string
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class BUILDSTRING extends NonCallingSequentialBytecode {
+
+	/**
+	 * Constructs a bytecode that ends a chain of string concatenations.
+	 */
+
+	public BUILDSTRING() {
+	}
+
+	@Override
+	public String toString() {
+		return "buildstring";
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode, that is,
+	 * {@code invokevirtual runTime.StringBuilder.build}.
+	 * It appends to {@code il} the Java bytecode that yields the string built by the
+	 * builder on top of the stack.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(classGen.getFactory().createInvoke
+			(runTime.StringBuilder.class.getName(), // class name of the method
+			"build", // name of the method
+			new ObjectType(runTime.String.class.getName()), // return type
+			org.apache.bcel.generic.Type.NO_ARGS, // parameters types
+			Constants.INVOKEVIRTUAL)); // invokevirtual
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
+}
\ No newline at end of file
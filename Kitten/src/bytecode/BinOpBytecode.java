@@ -16,4 +16,14 @@ public abstract class BinOpBytecode extends NonCallingSequentialBytecode {
 	 */
 
 	protected BinOpBytecode() {}
+
+	@Override
+	public int getConsumedStack() {
+		return 2;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package bytecode;
 import javaBytecodeGenerator.JavaClassGenerator;
 
 
+import org.apache.bcel.generic.BranchInstruction;
 import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
 
@@ -30,29 +31,22 @@ public abstract class BranchingBytecode extends Bytecode implements NonCallingBy
 	public abstract BranchingBytecode negate();
 
 	/**
-	 * Generates the Java bytecode that checks the condition expressed by this
-	 * bytecode and goes to one of two possible targets depending on the
-	 * outcome of that check. Namely, it generates the code
-	 * <br><br>
-	 * {@code generateJavaBytecodeAux(...yes)}<br>
-	 * {@code goto no}<br>
+	 * Appends to the Java bytecode of a method the code that checks the condition
+	 * expressed by this bytecode and jumps if it holds. The target of the jump is not
+	 * known yet, since it might be code that has not been generated yet: the caller
+	 * sets it, and it is also responsible for the code executed when the condition
+	 * does not hold, that might just follow the jump.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this code generation
-	 * @param yes the target if the check is satisfied
-	 * @param no the target if the check in not satisfied
-	 * @return the Java bytecode that checks the condition expressed by this bytecode and
-	 *         goes to {@code yes} or {@code no} depending on the outcome of that check
+	 * @return the conditional jump, whose target must still be set
 	 */
 
-	public final InstructionList generateJavaBytecode(JavaClassGenerator classGen, InstructionHandle yes, InstructionHandle no) {
-		InstructionList il = new InstructionList();
+	public final BranchInstruction generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		// builds the instructions which jump if the test is true
+		generateJavaBytecodeAux(il, classGen, null);
 
-		// builds the instructions which go to yes if the test is true
-		generateJavaBytecodeAux(il, classGen, yes);
-
-		il.append(new org.apache.bcel.generic.GOTO(no));
-
-		return il;
+		return (BranchInstruction) il.getEnd().getInstruction();
 	}
 
 	/**
@@ -62,7 +56,8 @@ public abstract class BranchingBytecode extends Bytecode implements NonCallingBy
 	 * @param il the list of instructions that must be expanded
 	 * @param classGen the class generator to be used to generate the code
 	 * @param yes the target where one must go if the outcome of the test
-	 *            expressed by this branching bytecode is true
+	 *            expressed by this branching bytecode is true. It might be {@code null},
+	 *            if it is set later. The jump must be the last instruction added to {@code il}
 	 */
 
 	protected abstract void generateJavaBytecodeAux(InstructionList il, JavaClassGenerator classGen, InstructionHandle yes);
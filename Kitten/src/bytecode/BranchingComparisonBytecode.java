@@ -44,4 +44,14 @@ public abstract class BranchingComparisonBytecode extends BranchingBytecode {
 	public String toString() {
 		return super.toString() + " " + type;
 	}
+
+	@Override
+	public int getConsumedStack() {
+		return 2;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
+	}
 }
\ No newline at end of file
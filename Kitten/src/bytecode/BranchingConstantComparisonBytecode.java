@@ -46,4 +46,14 @@ public abstract class BranchingConstantComparisonBytecode extends BranchingBytec
 	public String toString() {
 		return getClass().getSimpleName().toLowerCase() + " " + type;
 	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
+	}
 }
\ No newline at end of file
@@ -15,6 +15,36 @@ public abstract class Bytecode {
 
     protected Bytecode() {}
 
+    /**
+     * Yields the number of elements that this bytecode pops from the stack.
+     *
+     * @return the number of elements
+     */
+
+    public abstract int getConsumedStack();
+
+    /**
+     * Yields the number of elements that this bytecode pushes on the stack,
+     * after popping {@link #getConsumedStack()} elements.
+     *
+     * @return the number of elements
+     */
+
+    public abstract int getProducedStack();
+
+    /**
+     * Yields the number of elements that the Java bytecode generated for this
+     * bytecode temporarily pushes on the stack, besides the height reached
+     * before or after its execution. This is non-zero only when the Java
+     * bytecode needs scratch elements, such as the receiver of a constructor.
+     *
+     * @return the number of extra elements
+     */
+
+    public int getExtraStack() {
+    	return 0;
+    }
+
     @Override
     public String toString() {
     	// the name of the class. Subclasses may redefine
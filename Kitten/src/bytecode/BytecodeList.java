@@ -1,42 +1,56 @@
 package bytecode;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 import javaBytecodeGenerator.JavaClassGenerator;
 
 
 import org.apache.bcel.generic.InstructionList;
 
 /**
- * A list of Kitten bytecodes.
+ * A list of Kitten bytecodes. It is implemented as a growable circular array,
+ * so that adding a bytecode at the beginning or at the end of the list costs
+ * amortized constant time. Differently from a cons-list, this list is mutable:
+ * {@link #prepend(Bytecode)}, {@link #append(Bytecode)} and {@link #append(BytecodeList)}
+ * modify the list they are called upon.
  *
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
 
-public class BytecodeList {
+public class BytecodeList implements Iterable<Bytecode> {
 
     /**
-     * The bytecode contained at the head of this list.
+     * The initial capacity of a list. It must be a power of two.
      */
 
-    private final Bytecode head;
+    private final static int INITIAL_CAPACITY = 8;
 
     /**
-     * The next instruction of this list of bytecodes.
-     * It is {@code null} if this is the last element of the list.
+     * The bytecodes of this list. They are stored circularly, starting
+     * at {@link #first}. The length of this array is always a power of two.
      */
 
-    private final BytecodeList tail;
+    private Bytecode[] elements;
 
     /**
-     * Constructs a list of bytecodes that starts with the
-     * given bytecode and continues with the given list of bytecodes.
-     *
-     * @param head the first bytecode of the list to be constructed
-     * @param tail the list of bytecodes that follows {@code head}
+     * The position, inside {@link #elements}, of the first bytecode of this list.
+     */
+
+    private int first;
+
+    /**
+     * The number of bytecodes in this list.
      */
 
-    public BytecodeList(Bytecode head, BytecodeList tail) {
-    	this.head = head;
-    	this.tail = tail;
+    private int size;
+
+    /**
+     * Constructs an empty list of bytecodes.
+     */
+
+    public BytecodeList() {
+    	this.elements = new Bytecode[INITIAL_CAPACITY];
     }
 
     /**
@@ -46,93 +60,283 @@ public class BytecodeList {
      */
 
     public BytecodeList(Bytecode head) {
-    	this(head, null);
+    	this();
+
+    	append(head);
+    }
+
+    /**
+     * Yields the number of bytecodes in this list.
+     *
+     * @return the number of bytecodes in this list
+     */
+
+    public int size() {
+    	return size;
+    }
+
+    /**
+     * Determines if this list contains no bytecode.
+     *
+     * @return true if and only if this list is empty
+     */
+
+    public boolean isEmpty() {
+    	return size == 0;
+    }
+
+    /**
+     * Yields the bytecode at the given position of this list.
+     *
+     * @param pos the position, between 0 (inclusive) and {@link #size()} (exclusive)
+     * @return the bytecode at position {@code pos}
+     */
+
+    public Bytecode get(int pos) {
+    	if (pos < 0 || pos >= size)
+    		throw new IndexOutOfBoundsException("position " + pos + " in a list of " + size + " bytecodes");
+
+    	return elements[(first + pos) & (elements.length - 1)];
     }
 
     /**
      * Yields the head of this list.
      *
-     * @return the head of this list
+     * @return the head of this list. Yields {@code null} if this list is empty
      */
 
     public Bytecode getHead() {
-    	return head;
+    	return size == 0 ? null : elements[first];
+    }
+
+    /**
+     * Yields the last bytecode of this list.
+     *
+     * @return the last bytecode of this list. Yields {@code null} if this list is empty
+     */
+
+    public Bytecode getLast() {
+    	return size == 0 ? null : elements[(first + size - 1) & (elements.length - 1)];
     }
 
     /**
-     * Yields the tail of this list.
+     * Adds a bytecode at the beginning of this list. Leading {@code nop}
+     * bytecodes of this list are removed first, since they are useless
+     * once something is put before them.
      *
-     * @return the tail of this list
+     * @param bytecode the bytecode to add
+     * @return this same list, modified
      */
 
-    public BytecodeList getTail() {
-    	return tail;
+    public BytecodeList prepend(Bytecode bytecode) {
+    	removeLeadingNOPs();
+
+    	if (size == elements.length)
+    		grow();
+
+    	first = (first - 1) & (elements.length - 1);
+    	elements[first] = bytecode;
+    	size++;
+
+    	return this;
+    }
+
+    /**
+     * Adds a bytecode at the end of this list.
+     *
+     * @param bytecode the bytecode to add
+     * @return this same list, modified
+     */
+
+    public BytecodeList append(Bytecode bytecode) {
+    	if (size == elements.length)
+    		grow();
+
+    	elements[(first + size) & (elements.length - 1)] = bytecode;
+    	size++;
+
+    	return this;
     }
 
     /**
-     * Computes the concatenation of this list of bytecodes and another. Intermediate
-     * {@code nop} instructions are removed.
+     * Adds all bytecodes of another list at the end of this list.
+     * Leading {@code nop} instructions of {@code other} are not copied.
      *
-     * @param other the list of bytecodes that must be appended after this
-     * @return the result of the concatenation of this list of bytecodes with {@code other}.
-     *         This list and {@code other} are not modified
+     * @param other the list of bytecodes that must be appended after this.
+     *              It is not modified. It might be {@code null}
+     * @return this same list, modified
      */
 
     public BytecodeList append(BytecodeList other) {
-    	if (other == null)
-    		return this;
-    	else if (other.head instanceof NOP)
-    		return append(other.tail);
-    	else if (tail == null)
-    		return new BytecodeList(head, other);
-    	else
-    		return new BytecodeList(head, tail.append(other));
+    	if (other != null) {
+    		int pos = 0;
+    		while (pos < other.size && other.get(pos) instanceof NOP)
+    			pos++;
+
+    		for (; pos < other.size; pos++)
+    			append(other.get(pos));
+    	}
+
+    	return this;
+    }
+
+    /**
+     * Removes the {@code nop} bytecodes at the beginning of this list.
+     */
+
+    private void removeLeadingNOPs() {
+    	while (size > 0 && elements[first] instanceof NOP) {
+    		elements[first] = null;
+    		first = (first + 1) & (elements.length - 1);
+    		size--;
+    	}
+    }
+
+    /**
+     * Doubles the capacity of {@link #elements}, unrolling its circular content.
+     */
+
+    private void grow() {
+    	Bytecode[] larger = new Bytecode[elements.length * 2];
+    	for (int pos = 0; pos < size; pos++)
+    		larger[pos] = elements[(first + pos) & (elements.length - 1)];
+
+    	elements = larger;
+    	first = 0;
+    }
+
+    /**
+     * Removes the bytecode at the given position of this list.
+     * Subsequent bytecodes are shifted one position backwards.
+     *
+     * @param pos the position, between 0 (inclusive) and {@link #size()} (exclusive)
+     */
+
+    private void remove(int pos) {
+    	int mask = elements.length - 1;
+    	for (int cursor = pos; cursor < size - 1; cursor++)
+    		elements[(first + cursor) & mask] = elements[(first + cursor + 1) & mask];
+
+    	elements[(first + size - 1) & mask] = null;
+    	size--;
+    }
+
+    /**
+     * Yields a cursor over the bytecodes of this list. It can be used
+     * to scan the list and to replace or remove its bytecodes in place.
+     *
+     * @return a cursor positioned before the first bytecode of this list
+     */
+
+    public Cursor cursor() {
+    	return new Cursor();
+    }
+
+    @Override
+    public Iterator<Bytecode> iterator() {
+    	return cursor();
     }
 
     @Override
     public String toString() {
-    	String s = head.toString();
-    	if (s.length() > 100)
-    		s = s.substring(0,100) + "...";
+    	StringBuilder sb = new StringBuilder();
+
+    	for (Bytecode bytecode: this) {
+    		String s = bytecode.toString();
+    		if (s.length() > 100)
+    			s = s.substring(0,100) + "...";
 
-    	if (tail != null)
-    		// if some bytecode yields the empty string, we do no print a new linbe.
+    		// if some bytecode yields the empty string, we do no print a new line.
     		// This can be useful for bytecodes that disappear from the print-out
-    		if (s.length() > 0)
-    			return s + "\n" + tail.toString();
-    		else
-    			return tail.toString();
-    	else
-    		return s;
+    		if (s.length() > 0) {
+    			if (sb.length() > 0)
+    				sb.append('\n');
+
+    			sb.append(s);
+    		}
+    	}
+
+    	return sb.toString();
     }
 
     /**
      * Generates the Java bytecode corresponding to this list of bytecodes.
-     * This just calls {@code bytecode.NonBranchingBytecode.generateJavaBytecode(JavaClassGenerator)} on each
-     * non-branching bytecode in the list and appends the results.
+     * This just calls {@link NonBranchingBytecode#generateJavaBytecode(InstructionList, JavaClassGenerator)}
+     * on each non-branching bytecode in the list. Nothing might be appended to {@code il},
+     * if the list contains no bytecode that needs Java code.
      *
+     * @param il the Java bytecode of the method, where the generated instructions are appended
      * @param classGen the Java class generator to be used for this generation
-     * @return the Java bytecode corresponding to this list of bytecodes
      */
 
-    public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-    	InstructionList result;
-
-    	if (head instanceof NonBranchingBytecode)
-    		// we generate the Java bytecode for the first bytecode
+    public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+    	for (Bytecode bytecode: this)
+    		// we generate the Java bytecode for each bytecode
     		// if it is not a condition of a branch
-    		result = ((NonBranchingBytecode) head).generateJavaBytecode(classGen);
-    	else
-    		result = new InstructionList();
+    		if (bytecode instanceof NonBranchingBytecode)
+    			((NonBranchingBytecode) bytecode).generateJavaBytecode(il, classGen);
+    }
+
+    /**
+     * A cursor over a list of bytecodes. It scans the list from its head
+     * and allows one to replace or remove the last bytecode that has been returned.
+     */
+
+    public class Cursor implements Iterator<Bytecode> {
+
+    	/**
+    	 * The position of the next bytecode that will be returned.
+    	 */
+
+    	private int next;
+
+    	/**
+    	 * The position of the last bytecode that has been returned,
+    	 * or -1 if there is no such bytecode or it has been removed.
+    	 */
+
+    	private int last = -1;
+
+    	private Cursor() {}
+
+    	@Override
+    	public boolean hasNext() {
+    		return next < size;
+    	}
+
+    	@Override
+    	public Bytecode next() {
+    		if (next >= size)
+    			throw new NoSuchElementException();
+
+    		return get(last = next++);
+    	}
+
+    	/**
+    	 * Replaces the last bytecode returned by {@link #next()}.
+    	 *
+    	 * @param bytecode the bytecode that replaces it
+    	 */
+
+    	public void set(Bytecode bytecode) {
+    		if (last < 0)
+    			throw new IllegalStateException();
+
+    		elements[(first + last) & (elements.length - 1)] = bytecode;
+    	}
 
-    	// and for its followers, if any
-    	if (tail != null)
-    		result.append(tail.generateJavaBytecode(classGen));
+    	/**
+    	 * Removes the last bytecode returned by {@link #next()}.
+    	 */
 
-    	// if we added no instruction, we add a fictitious one so that we never return an empty list
-    	if (result.isEmpty())
-    		result.append(new org.apache.bcel.generic.NOP());
+    	@Override
+    	public void remove() {
+    		if (last < 0)
+    			throw new IllegalStateException();
 
-    	return result;
+    		BytecodeList.this.remove(last);
+    		next = last;
+    		last = -1;
+    	}
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import java.util.Set;
 
 import types.CodeSignature;
 import types.Type;
+import types.VoidType;
 
 /**
  * A bytecode that calls a method of a <i>receiver</i>.
@@ -87,4 +88,14 @@ public abstract class CALL extends SequentialBytecode {
 	public String toString() {
 		return "call " + staticTarget + " " + dynamicTargets;
 	}
+
+	@Override
+	public int getConsumedStack() {
+		return staticTarget.getParameters().getSize() + 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return staticTarget.getReturnType() == VoidType.INSTANCE ? 0 : 1;
+	}
 }
\ No newline at end of file
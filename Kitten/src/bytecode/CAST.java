@@ -92,23 +92,33 @@ public class CAST extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code checkcast intoType} bytecode for casts
+	 * between reference types and a type conversion bytecode such as {@code i2f} for
+	 * conversions between numercial types.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code checkcast intoType} bytecode for casts between
-	 *         reference types and a type conversion bytecode such as {@code i2f}
-	 *         for conversions between numercial types
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (intoType instanceof ReferenceType)
 			// we use the instruction factory to simplify the addition of the type to the constant pool
-			return new InstructionList
-				(classGen.getFactory().createCheckCast
+			il.append(classGen.getFactory().createCheckCast
 					((org.apache.bcel.generic.ReferenceType) intoType.toBCEL()));
 		else if (fromType == IntType.INSTANCE && intoType == FloatType.INSTANCE)
-			return new InstructionList(new I2F());
+			il.append(new I2F());
 		else // it must be float into int
-			return new InstructionList(new F2I());
+			il.append(new F2I());
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
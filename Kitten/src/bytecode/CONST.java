@@ -81,7 +81,7 @@ public class CONST extends NonCallingSequentialBytecode {
 	 * @return the constant that is loaded on top of the stack
 	 */
 
-	protected Object getConstant() {
+	public Object getConstant() {
 		return constant;
 	}
 
@@ -109,19 +109,30 @@ public class CONST extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code iconst}, {@code fconst}, {@code ldc},
+	 * {@code aconst_null} or {@code bipush} Java bytecode, on the basis of the type and
+	 * size of {@link #constant}.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code iconst}, {@code fconst}, {@code ldc},
-	 *         {@code aconst_null} or {@code bipush} Java bytecode,
-	 *         on the basis of the type and size of {@link #constant}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (constant == null)
-			return new InstructionList(new org.apache.bcel.generic.ACONST_NULL());
+			il.append(new org.apache.bcel.generic.ACONST_NULL());
 		else
 			// the instruction factory will create the appropriate instruction
-			return new InstructionList(classGen.getFactory().createConstant(constant));
+			il.append(classGen.getFactory().createConstant(constant));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 0;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
@@ -32,15 +32,15 @@ public class CONSTRUCTORCALL extends CALL {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code invokespecial method} bytecode, that calls a
+	 * method by using a hard-wired class name to look up for the method's implementation.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code invokespecial method} bytecode, that calls
-	 *         a method by using a hard-wired class name to look up for the
-	 *         method's implementation
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(((ConstructorSignature) getStaticTarget()).createINVOKESPECIAL(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(((ConstructorSignature) getStaticTarget()).createINVOKESPECIAL(classGen));
 	}
 }
\ No newline at end of file
@@ -1,5 +1,11 @@
 package bytecode;
 
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.generic.BranchInstruction;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+
 import types.ComparableType;
 
 /**
@@ -53,4 +59,31 @@ public abstract class ComparisonBinOpBytecode extends BinOpBytecode {
 	 */
 
 	public abstract BranchingComparisonBytecode toBranching();
+
+	/**
+	 * Appends to the given Java bytecode the code that leaves on the stack the
+	 * Boolean outcome of a comparison, as checked by the given conditional branch:<br>
+	 * <br>
+	 * {@code condition after}<br>
+	 * {@code iconst 0}<br>
+	 * {@code goto follow}<br>
+	 * {@code after: iconst 1}<br>
+	 * {@code follow:} <i>the code that follows</i><br>
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 * @param condition the conditional branch that jumps if the comparison holds.
+	 *                  Its target is set by this method
+	 */
+
+	protected final void pushOutcome(InstructionList il, JavaClassGenerator classGen, BranchInstruction condition) {
+		il.append(condition);
+		il.append(InstructionFactory.ICONST_0);
+		BranchInstruction skip = new org.apache.bcel.generic.GOTO(null);
+		il.append(skip);
+		condition.setTarget(il.append(InstructionFactory.ICONST_1));
+
+		// the code that follows has not been generated yet
+		classGen.setTargetAfter(skip, il.getEnd());
+	}
 }
\ No newline at end of file
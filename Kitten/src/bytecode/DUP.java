@@ -39,13 +39,24 @@ public class DUP extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code dup} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code dup} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(new org.apache.bcel.generic.DUP());
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(new org.apache.bcel.generic.DUP());
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 2;
 	}
 }
\ No newline at end of file
@@ -51,13 +51,24 @@ public class GETFIELD extends FieldAccessBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code getfield field} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code getfield field} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(field.createGETFIELD(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(field.createGETFIELD(classGen));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
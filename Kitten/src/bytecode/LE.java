@@ -3,7 +3,6 @@ package bytecode;
 import javaBytecodeGenerator.JavaClassGenerator;
 
 import org.apache.bcel.generic.InstructionFactory;
-import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
 
 import types.IntType;
@@ -51,7 +50,7 @@ public class LE extends ComparisonNumericalBinOpBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto follow}<br>
 	 * {@code after: iconst 1}<br>
-	 * {@code follow: nop}<br>
+	 * {@code follow:} <i>the code that follows</i><br>
 	 * <br>
 	 * if {@link #type} is {@code int}, and<br>
 	 * <br>
@@ -60,7 +59,7 @@ public class LE extends ComparisonNumericalBinOpBytecode {
 	 * {@code iconst 0}<br>
 	 * {@code goto follow}<br>
 	 * {@code after: iconst 1}<br>
-	 * {@code follow: nop}<br>
+	 * {@code follow:} <i>the code that follows</i><br>
 	 * <br>
 	 * if {@link #type} is {@code float}. The {@code fcmpl} Java bytecode operates over
 	 * two {@code float} values on top of the stack and produces an
@@ -70,26 +69,17 @@ public class LE extends ComparisonNumericalBinOpBytecode {
 	 * ..., value1, value2 -&gt; ..., 0   if value1 = value2<br>
 	 * ..., value1, value2 -&gt; ..., -1  if value1 &lt; value2
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java bytecode as above, depending on {@link #type}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList(InstructionFactory.NOP);
-
-		InstructionHandle follow = il.getStart();
-		InstructionHandle after = il.insert(new org.apache.bcel.generic.ICONST(1));
-		il.insert(new org.apache.bcel.generic.GOTO(follow));
-		il.insert(InstructionFactory.ICONST_0);
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		if (getType() == IntType.INSTANCE)
-			il.insert(new org.apache.bcel.generic.IF_ICMPLE(after));
+			pushOutcome(il, classGen, new org.apache.bcel.generic.IF_ICMPLE(null));
 		else {
-			il.insert(new org.apache.bcel.generic.IFLE(after));
-			il.insert(InstructionFactory.FCMPL);
+			il.append(InstructionFactory.FCMPL);
+			pushOutcome(il, classGen, new org.apache.bcel.generic.IFLE(null));
 		}
-
-		return il;
 	}
 }
\ No newline at end of file
@@ -69,15 +69,27 @@ public class LOAD extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the {@code iload varNum}, {@code fload varNum} and
+	 * {@code aload varNum} Java bytecode, if {@link #type} is {@code int}, {@code float} or
+	 * a reference type, respectively.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this Java bytecode generation
-	 * @return the {@code iload varNum}, {@code fload varNum} and {@code aload varNum} Java bytecode,
-	 *         if {@link #type} is {@code int}, {@code float} or a reference type, respectively
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between the three Java bytecode
-		return new InstructionList(InstructionFactory.createLoad(type.toBCEL(), varNum));
+		il.append(InstructionFactory.createLoad(type.toBCEL(), varNum));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 0;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
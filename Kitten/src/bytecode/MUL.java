@@ -28,18 +28,15 @@ public class MUL extends ArithmeticBinOpBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the {@code imul} Java bytecode if {@link #type} is
+	 * {@code int} and the {@code fmul} Java bytecode if {@link #type} is {@code float}.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code imul} Java bytecode if {@link #type} is {@code int}
-	 *         and the {@code fmul} Java bytecode if {@link #type} is {@code float}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		InstructionList il = new InstructionList();
-
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		getType().mul(il);
-
-		return il;
 	}
 }
\ No newline at end of file
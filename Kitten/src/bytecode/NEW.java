@@ -50,13 +50,24 @@ public class NEW extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code new clazz}.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code new clazz}
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(classGen.getFactory().createNew(clazz.toBCEL().toString()));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(classGen.getFactory().createNew(clazz.toBCEL().toString()));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 0;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
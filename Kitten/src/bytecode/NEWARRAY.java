@@ -4,7 +4,6 @@ import javaBytecodeGenerator.JavaClassGenerator;
 
 import org.apache.bcel.generic.InstructionList;
 
-import types.ArrayType;
 import types.Type;
 
 /**
@@ -75,25 +74,35 @@ public class NEWARRAY extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the {@code newarray elementsType} Java bytecode, if
+	 * {@code elementsType} is a primitive types, and the {@code anewarray elementsType}
+	 * bytecode, if {@code elementsType} is a reference type.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code newarray elementsType} Java bytecode, if
-	 *         {@code elementsType} is a primitive types, and the
-	 *         {@code anewarray elementsType} bytecode, if
-	 *         {@code elementsType} is a reference type
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between
 		// the newarray and anewarray Java bytecode. Moreover, it automatically
 		// puts the type of the elements of the array inside the constant pool
 
 		// this is to cope with a bug in BCEL
-		Type t = elementsType;
+		org.apache.bcel.generic.Type t = elementsType.toBCEL();
 		if (dimensions > 1)
-			t = ArrayType.mk(t);
+			t = new org.apache.bcel.generic.ArrayType(t, 1);
 
-		return new InstructionList(classGen.getFactory().createNewArray(t.toBCEL(), (short) dimensions));
+		il.append(classGen.getFactory().createNewArray(t, (short) dimensions));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return dimensions;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionFactory;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+/**
+ * A bytecode that starts a chain of string concatenations. It creates a string builder
+ * for the string on top of the stack, that becomes the receiver of the chain.
+ * <br><br>
+ * ..., string -&gt; ..., builder
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class NEWBUILDER extends NonCallingSequentialBytecode {
+
+	/**
+	 * Constructs a bytecode that starts a chain of string concatenations.
+	 */
+
+	public NEWBUILDER() {
+	}
+
+	@Override
+	public String toString() {
+		return "newbuilder";
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode, that is<br>
+	 * <br>
+	 * {@code new runTime.StringBuilder}<br>
+	 * {@code dup_x1}<br>
+	 * {@code swap}<br>
+	 * {@code invokespecial runTime.StringBuilder.&lt;init&gt;}<br>
+	 * <br>
+	 * The builder does not access the string until something gets appended to it,
+	 * so that a {@code nil} receiver is reported after the computation of the first
+	 * actual parameter of the chain, as for a call to {@code concat}.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		InstructionFactory factory = classGen.getFactory();
+
+		il.append(factory.createNew(runTime.StringBuilder.class.getName()));
+		il.append(InstructionFactory.DUP_X1);
+		il.append(InstructionFactory.SWAP);
+		il.append(factory.createInvoke
+			(runTime.StringBuilder.class.getName(), // class name of the method
+			Constants.CONSTRUCTOR_NAME, // name of the method
+			org.apache.bcel.generic.Type.VOID, // return type
+			new org.apache.bcel.generic.Type[] // parameters types
+				{ new ObjectType(runTime.String.class.getName()) },
+			Constants.INVOKESPECIAL)); // invokespecial
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getExtraStack() {
+		return 2;
+	}
+}
\ No newline at end of file
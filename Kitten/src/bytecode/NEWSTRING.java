@@ -5,6 +5,7 @@ import javaBytecodeGenerator.JavaClassGenerator;
 import org.apache.bcel.Constants;
 import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
 
 /**
  * A bytecode that creates a string and pushes a reference to it on top of the stack.
@@ -22,6 +23,13 @@ public class NEWSTRING extends NonCallingSequentialBytecode {
 
 	private final String value;
 
+	/**
+	 * True if and only if the string can be shared by all evaluations of this
+	 * bytecode, since it is never modified.
+	 */
+
+	private final boolean shared;
+
 	/**
 	 * Constructs a bytecode that creates a string and pushes a reference to it un the stack.
 	 *
@@ -29,12 +37,45 @@ public class NEWSTRING extends NonCallingSequentialBytecode {
 	 */
 
 	public NEWSTRING(String value) {
+		this(value, false);
+	}
+
+	/**
+	 * Constructs a bytecode that pushes a string on the stack.
+	 *
+	 * @param value the lexical value of string
+	 * @param shared true if and only if the string can be shared by all evaluations
+	 *               of the bytecode, since it is never modified
+	 */
+
+	public NEWSTRING(String value, boolean shared) {
 		this.value = value;
+		this.shared = shared;
+	}
+
+	/**
+	 * Yields the lexical value of the string that is created.
+	 *
+	 * @return the lexical value
+	 */
+
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * Determines if the string can be shared by all evaluations of this bytecode.
+	 *
+	 * @return true if and only if the string is shared
+	 */
+
+	public boolean isShared() {
+		return shared;
 	}
 
 	@Override
 	public String toString() {
-		return "newstring " + value.replaceAll("\n","\\\\\\\\n");
+		return (shared ? "newstring shared " : "newstring ") + value.replaceAll("\n","\\\\\\\\n");
 	}
 
 	/**
@@ -48,35 +89,54 @@ public class NEWSTRING extends NonCallingSequentialBytecode {
 	 * {@code ldc value}<br>
 	 * {@code invokespecial runTime.String.&lt;init&gt;}<br>
 	 * <br>
-	 * that creates a {@code runTime.String} objects and initialises it with
+	 * that creates a {@code runTime.String} object and initialises it with
 	 * the lexical value {@link #value} of the Kitten string we want to create.
+	 * If the string is shared, this method generates instead a {@code getstatic}
+	 * of the field of the class that holds the string (see
+	 * {@link JavaClassGenerator#getLiteralField(String)}).
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return a Java bytecode that creates a {@code runTime.String}
-	 *         object initialised with the lexical {@link #value} of the
-	 *         Kitten string that we want to create.
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		InstructionFactory factory = classGen.getFactory();
-		InstructionList il = new InstructionList();
 		String kittenStringName = runTime.String.class.getName();
 
+		if (shared) {
+			il.append(factory.createGetStatic(classGen.getClassName(),
+				classGen.getLiteralField(value), new ObjectType(kittenStringName)));
+
+			return;
+		}
+
+		il.append(factory.createNew(kittenStringName));
+		il.append(InstructionFactory.DUP);
+		il.append(factory.createConstant(value));
+
 		// we create the invokespecial to the constructor
-		il.insert(factory.createInvoke
+		il.append(factory.createInvoke
 			(kittenStringName, // class name of the method
 			Constants.CONSTRUCTOR_NAME, // name of the method
 			org.apache.bcel.generic.Type.VOID, // return type
 			new org.apache.bcel.generic.Type[] // parameters types
 				{ org.apache.bcel.generic.Type.getType("Ljava/lang/String;") },
 			Constants.INVOKESPECIAL)); // invokespecial
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 0;
+	}
 
-		// we prepend the rest of the code
-		il.insert(factory.createConstant(value));
-		il.insert(InstructionFactory.DUP);
-		il.insert(factory.createNew(kittenStringName));
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
 
-		return il;
+	@Override
+	public int getExtraStack() {
+		return shared ? 0 : 2;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.ObjectType;
+
+import types.ClassType;
+
+/**
+ * A bytecode that checks that the top element of the stack is not {@code nil}.
+ * If it is {@code nil}, the computation stops, exactly as for a call whose receiver
+ * is {@code nil}. This is used when a call is replaced by the code of its target.
+ * <br><br>
+ * ..., value -&gt; ..., value
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class NONNULL extends NonCallingSequentialBytecode {
+
+	/**
+	 * The static type of the element which is checked.
+	 */
+
+	private final ClassType type;
+
+	/**
+	 * Constructs a bytecode that checks that the top element of the stack is not {@code nil}.
+	 *
+	 * @param type the static type of the element which is checked
+	 */
+
+	public NONNULL(ClassType type) {
+		this.type = type;
+	}
+
+	@Override
+	public String toString() {
+		return "nonnull " + type;
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely, it generates
+	 * {@code dup invokevirtual java.lang.Object.getClass() pop}, as the Java compiler does for
+	 * the implicit checks against {@code null}: {@code getClass()} throws a
+	 * {@code NullPointerException} if it is called on {@code null}.
+	 *
+	 * It appends to {@code il} the Java bytecode that checks the top element of the
+	 * stack against {@code null}.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(new org.apache.bcel.generic.DUP());
+		il.append(classGen.getFactory().createInvoke("java.lang.Object", "getClass",
+			new ObjectType("java.lang.Class"), org.apache.bcel.generic.Type.NO_ARGS, Constants.INVOKEVIRTUAL));
+		il.append(new org.apache.bcel.generic.POP());
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getExtraStack() {
+		return 1;
+	}
+}
\ No newline at end of file
@@ -23,13 +23,22 @@ public class NOP extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * Nothing is generated, since this bytecode does nothing.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code nop} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.NOP);
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {}
+
+	@Override
+	public int getConsumedStack() {
+		return 0;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
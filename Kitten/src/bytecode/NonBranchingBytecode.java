@@ -27,9 +27,12 @@ public abstract class NonBranchingBytecode extends Bytecode {
 	 * languages. Other times, instead, one needs to generate more than one
 	 * Java bytecode to emulate the semantics of a single Kitten bytecode.
 	 *
+	 * The generated code is appended to the Java bytecode of the method, so that
+	 * no intermediate list of instructions is built for each Kitten bytecode.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java bytecode(s) corresponding to this Kitten bytecode
 	 */
 
-	public abstract InstructionList generateJavaBytecode(JavaClassGenerator classGen);
+	public abstract void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen);
 }
\ No newline at end of file
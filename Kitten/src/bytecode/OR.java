@@ -25,13 +25,14 @@ public class OR extends BinOpBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code ior} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code ior} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.IOR);
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(InstructionFactory.IOR);
 	}
 }
@@ -0,0 +1,61 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.InstructionList;
+
+/**
+ * A bytecode that ends a chain of string concatenations whose result is only
+ * printed. It prints the content of the string builder on top of the stack,
+ * without building a string for it.
+ * <br><br>
+ * ..., builder -&gt; ...
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class OUTPUTBUILDER extends NonCallingSequentialBytecode {
+
+	/**
+	 * Constructs a bytecode that prints the content of a string builder.
+	 */
+
+	public OUTPUTBUILDER() {
+	}
+
+	@Override
+	public String toString() {
+		return "outputbuilder";
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode, that is,
+	 * {@code invokevirtual runTime.StringBuilder.output}.
+	 * It appends to {@code il} the Java bytecode that prints the content of the builder on
+	 * top of the stack.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(classGen.getFactory().createInvoke
+			(runTime.StringBuilder.class.getName(), // class name of the method
+			"output", // name of the method
+			org.apache.bcel.generic.Type.VOID, // return type
+			org.apache.bcel.generic.Type.NO_ARGS, // parameters types
+			Constants.INVOKEVIRTUAL)); // invokevirtual
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
+	}
+}
\ No newline at end of file
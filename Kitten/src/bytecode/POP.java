@@ -50,13 +50,24 @@ public class POP extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} a Java {@code pop} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return a Java {@code pop} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(InstructionFactory.POP);
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(InstructionFactory.POP);
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
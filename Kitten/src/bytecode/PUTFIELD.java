@@ -51,13 +51,24 @@ public class PUTFIELD extends FieldAccessBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code putfield field} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code putfield field} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(field.createPUTFIELD(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(field.createPUTFIELD(classGen));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 2;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
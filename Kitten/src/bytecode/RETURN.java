@@ -6,6 +6,7 @@ import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionList;
 
 import types.Type;
+import types.VoidType;
 
 /**
  * A bytecode that terminates the execution of a method or constructor,
@@ -58,20 +59,31 @@ public class RETURN extends FinalBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the {@code return} Java bytecode if {@link #type} is
+	 * {@code void}, the {@code ireturn} Java bytecode if {@link #type} is {@code int} or
+	 * {@code boolean} (Booleans are represented as integers in Java bytecode, with the
+	 * assumption that 0 = <i>false</i> and 1 = <i>true</i>), the {@code freturn} Java
+	 * bytecode if {@link #type} is {@code float} and the {@code areturn} Java bytecode if
+	 * {@link #type} is a reference type.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the {@code return} Java bytecode if {@link #type} is {@code void},
-	 *         the {@code ireturn} Java bytecode if {@link #type} is {@code int} or {@code boolean}
-	 *         (Booleans are represented as integers in Java bytecode, with the assumption
-	 *         that 0 = <i>false</i> and 1 = <i>true</i>), the {@code freturn}
-	 *         Java bytecode if {@link #type} is {@code float} and the {@code areturn} Java bytecode
-	 *         if {@link #type} is a reference type
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the selection of the
 		// right return bytecode, depending on type
-		return new InstructionList(InstructionFactory.createReturn(type.toBCEL()));
+		il.append(InstructionFactory.createReturn(type.toBCEL()));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return type == VoidType.INSTANCE ? 0 : 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
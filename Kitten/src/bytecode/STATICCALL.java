@@ -0,0 +1,78 @@
+package bytecode;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.generic.InstructionList;
+
+import types.HelperSignature;
+import types.VoidType;
+
+/**
+ * A bytecode that calls a helper method, outlined from the code of a method or
+ * test that was too large. A helper has no receiver.
+ * <br><br>
+ * ..., par_1, ..., par_n -&gt; ..., returned value<br>
+ * if the helper returns a value<br><br>
+ * ..., par_1, ..., par_n -&gt; ...<br>
+ * if the helper returns nothing.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class STATICCALL extends SequentialBytecode {
+
+	/**
+	 * The helper called by this bytecode.
+	 */
+
+	private final HelperSignature helper;
+
+	/**
+	 * Constructs a bytecode that calls a helper method.
+	 *
+	 * @param helper the helper
+	 */
+
+	public STATICCALL(HelperSignature helper) {
+		this.helper = helper;
+	}
+
+	/**
+	 * Yields the helper called by this bytecode.
+	 *
+	 * @return the helper
+	 */
+
+	public HelperSignature getHelper() {
+		return helper;
+	}
+
+	@Override
+	public String toString() {
+		return "staticcall " + helper;
+	}
+
+	/**
+	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code invokestatic helper} bytecode.
+	 * The helper lives in the same class where this bytecode is generated.
+	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
+	 * @param classGen the Java class generator to be used for this generation
+	 */
+
+	@Override
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		il.append(helper.createINVOKESTATIC(classGen));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return helper.getParameters().getSize();
+	}
+
+	@Override
+	public int getProducedStack() {
+		return helper.getReturnType() == VoidType.INSTANCE ? 0 : 1;
+	}
+}
@@ -41,6 +41,16 @@ public class STORE extends NonCallingSequentialBytecode {
 		this.type = type;
 	}
 
+	/**
+	 * Yields the number of the local variable that is assigned.
+	 *
+	 * @return the number of the local variable that is assigned
+	 */
+
+	public int getVarNum() {
+		return varNum;
+	}
+
 	/**
 	 * Yields the type of the local variable that is assigned.
 	 *
@@ -58,16 +68,27 @@ public class STORE extends NonCallingSequentialBytecode {
 
 	/**
 	 * Generates the Java bytecode corresponding to this Kitten bytecode.
+	 * It appends to {@code il} the Java {@code istore varNum}, {@code fstore varNum} or
+	 * {@code astore varNum} bytecode, if {@link #type} is {@code int}, {@code float} or a
+	 * class or array type, respectively.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code istore varNum}, {@code fstore varNum} or
-	 *         {@code astore varNum} bytecode, if {@link #type} is {@code int},
-	 *         {@code float} or a class or array type, respectively.
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
 		// we use the instruction factory to simplify the choice between the three Java bytecodes
-		return new InstructionList(InstructionFactory.createStore(type.toBCEL(), varNum));
+		il.append(InstructionFactory.createStore(type.toBCEL(), varNum));
+	}
+
+	@Override
+	public int getConsumedStack() {
+		return 1;
+	}
+
+	@Override
+	public int getProducedStack() {
+		return 0;
 	}
 }
\ No newline at end of file
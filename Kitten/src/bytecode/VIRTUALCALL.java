@@ -1,5 +1,7 @@
 package bytecode;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
@@ -41,6 +43,46 @@ public class VIRTUALCALL extends CALL {
 		super(receiverType, staticTarget, dynamicTargets(receiverType.getInstances(), staticTarget));
 	}
 
+	/**
+	 * Constructs a bytecode that calls a method of an object with dynamic
+	 * lookup, whose runtime type is known to be one of the given classes.
+	 * If no subclass of the static type of the receiver is amongst those classes,
+	 * the receiver can only be {@code nil} and the static target is
+	 * kept as the only dynamic target, so that the call can still be linked.
+	 *
+	 * @param receiverType the static type of the receiver of this call
+	 * @param staticTarget the signature of the static target of the call
+	 * @param instantiated the classes that might be instantiated at runtime
+	 */
+
+	public VIRTUALCALL(ClassType receiverType, MethodSignature staticTarget, Set<ClassType> instantiated) {
+		super(receiverType, staticTarget, dynamicTargets(receiverType, staticTarget, instantiated));
+	}
+
+	/**
+	 * Yields the set of runtime receivers of a call, by assuming
+	 * that the runtime type of the receiver is an instantiated subclass of its static type.
+	 *
+	 * @param receiverType the static type of the receiver of the call
+	 * @param staticTarget the static target of the call
+	 * @param instantiated the classes that might be instantiated at runtime
+	 * @return the set of method signatures that might be called. It contains
+	 *         only {@code staticTarget} if no subclass of {@code receiverType}
+	 *         is instantiated
+	 */
+
+	private static Set<CodeSignature> dynamicTargets(ClassType receiverType, CodeSignature staticTarget, Set<ClassType> instantiated) {
+		List<ClassType> possibleRunTimeClasses = new ArrayList<>();
+		for (ClassType rec: receiverType.getInstances())
+			if (instantiated.contains(rec))
+				possibleRunTimeClasses.add(rec);
+
+		if (possibleRunTimeClasses.isEmpty())
+			return Collections.singleton(staticTarget);
+		else
+			return dynamicTargets(possibleRunTimeClasses, staticTarget);
+	}
+
 	/**
 	 * Yields the set of runtime receivers of this call. They are all
 	 * methods with the same signature of the static target and that might
@@ -71,13 +113,48 @@ public class VIRTUALCALL extends CALL {
 	 * Generates the Java bytecode corresponding to this Kitten bytecode. Namely, it generates an
 	 * {@code invokevirtual staticTarget} Java bytecode. The Java {@code invokevirtual} bytecode
 	 * calls a method by using the runtime class of the receiver to look up for the method's implementation.
+	 * If this call has a single dynamic target and the Java virtual machine allows it,
+	 * an {@code invokespecial target} Java bytecode is generated instead, that calls
+	 * {@code target} directly (see {@link #canBeDevirtualized(JavaClassGenerator)}).
+	 * It appends to {@code il} the Java {@code invokevirtual staticTarget} or
+	 * {@code invokespecial target} bytecode.
 	 *
+	 * @param il the Java bytecode of the method, where the generated instructions are appended
 	 * @param classGen the Java class generator to be used for this generation
-	 * @return the Java {@code invokevirtual staticTarget} bytecode
 	 */
 
 	@Override
-	public InstructionList generateJavaBytecode(JavaClassGenerator classGen) {
-		return new InstructionList(((MethodSignature) getStaticTarget()).createINVOKEVIRTUAL(classGen));
+	public void generateJavaBytecode(InstructionList il, JavaClassGenerator classGen) {
+		boolean devirtualized = canBeDevirtualized(classGen);
+		classGen.countVirtualCallSite(devirtualized);
+
+		if (devirtualized)
+			il.append(((MethodSignature) getDynamicTargets().iterator().next()).createINVOKESPECIAL(classGen));
+		else
+			il.append(((MethodSignature) getStaticTarget()).createINVOKEVIRTUAL(classGen));
+	}
+
+	/**
+	 * Determines if this call can be compiled into a direct call to its only dynamic target.
+	 * The Java virtual machine allows {@code invokespecial} only if the receiver of
+	 * the call is an instance of the class being generated, and only for methods
+	 * defined in that class or in its superclasses. Calls inside the Kitten
+	 * {@code String} class and to its methods are never devirtualized,
+	 * since that class is referenced as {@code runTime.String}.
+	 *
+	 * @param classGen the Java class generator used for the generation of this call
+	 * @return true if and only if this call can be generated as an {@code invokespecial}
+	 */
+
+	private boolean canBeDevirtualized(JavaClassGenerator classGen) {
+		ClassType current = classGen.getKittenClass();
+		if (current == null || getDynamicTargets().size() != 1)
+			return false;
+
+		ClassType definingClass = getDynamicTargets().iterator().next().getDefiningClass();
+
+		return !current.getName().equals("String") && !definingClass.getName().equals("String")
+			&& ((ClassType) getReceiverType()).subclass(current)
+			&& current.subclass(definingClass);
 	}
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package errorMsg;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -32,13 +34,55 @@ public class ErrorMsg {
 	private boolean anyErrors;
 
 	/**
-	 * Creates an error reporting utility for the specified source file.
+	 * The messages reported and not printed yet, if they are being deferred.
+	 * This is {@code null} if the messages are printed as soon as they are reported.
+	 */
+
+	private List<String> deferred;
+
+	/**
+	 * The positions, inside {@link #deferred}, of the messages that must
+	 * be printed on {@link #err} rather than on {@link #out}.
+	 */
+
+	private final BitSet toStandardError = new BitSet();
+
+	/**
+	 * The stream where the errors are printed.
+	 */
+
+	private final PrintStream out;
+
+	/**
+	 * The stream where the messages of the tools that process the source file are printed.
+	 */
+
+	private final PrintStream err;
+
+	/**
+	 * Creates an error reporting utility for the specified source file,
+	 * that prints on the standard output and standard error.
 	 *
 	 * @param fileName the name of the source file
 	 */
 
 	public ErrorMsg(String fileName) {
+		this(fileName, System.out, System.err);
+	}
+
+	/**
+	 * Creates an error reporting utility for the specified source file.
+	 *
+	 * @param fileName the name of the source file
+	 * @param out the stream where the errors are printed
+	 * @param err the stream where the messages of the tools
+	 *            that process the source file are printed
+	 */
+
+	public ErrorMsg(String fileName, PrintStream out, PrintStream err) {
 		this.fileName = fileName;
+		this.out = out;
+		this.err = err;
 	}
 
 	/**
@@ -103,7 +147,60 @@ public class ErrorMsg {
 		else
 			where = "";
 
-		System.out.println(fileName + "::" + where + ": " + msg);
+		print(fileName + "::" + where + ": " + msg, false);
+	}
+
+	/**
+	 * Reports a message of the tools that process the source file, such as
+	 * the parser, as it is. It is printed on the stream of such messages and
+	 * does not count as an error of the source file.
+	 *
+	 * @param msg the message to be reported
+	 */
+
+	public void message(String msg) {
+		print(msg, true);
+	}
+
+	private void print(String message, boolean standardError) {
+		if (deferred != null) {
+			toStandardError.set(deferred.size(), standardError);
+			deferred.add(message);
+		}
+		else if (standardError)
+			err.println(message);
+		else
+			out.println(message);
+	}
+
+	/**
+	 * Defers the printing of the messages reported from now on, until {@link #flush()}
+	 * is called. This is useful when a source file is parsed or type-checked by a thread
+	 * other than the main one, so that its messages are not interleaved with those
+	 * about other files and their order does not depend on the scheduling of the threads.
+	 */
+
+	public void defer() {
+		if (deferred == null)
+			deferred = new ArrayList<>();
+	}
+
+	/**
+	 * Prints the messages whose printing has been deferred, if any,
+	 * and prints the messages reported from now on as soon as they are reported.
+	 */
+
+	public void flush() {
+		if (deferred != null) {
+			for (int pos = 0; pos < deferred.size(); pos++)
+				if (toStandardError.get(pos))
+					err.println(deferred.get(pos));
+				else
+					out.println(deferred.get(pos));
+
+			deferred = null;
+			toStandardError.clear();
+		}
 	}
 	
 	public String calcPos(int pos) {
@@ -0,0 +1,363 @@
+package javaBytecodeGenerator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import errorMsg.ErrorMsg;
+import types.ClassType;
+import types.CompilationContext;
+import types.FrontEnd;
+import translation.Program;
+
+/**
+ * The compiler of a Kitten class into Java bytecode, with its options. It parses
+ * and type-checks the class and all classes reachable from it, translates them into
+ * Kitten bytecode, optimises that code and generates the class files. A compiler
+ * can be used for many compilations: those in the same context reuse the
+ * classes already parsed and type-checked in that context. An incremental
+ * compilation only compiles the classes that have changed since the last
+ * compilation in the same directory, and those affected by their changes
+ * (see {@link DependencyIndex}).
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Compiler {
+
+	/**
+	 * True if and only if the compiled code is restricted through a rapid type analysis.
+	 */
+
+	private boolean rapidTypeAnalysis;
+
+	/**
+	 * The size, in Kitten bytecodes, of the largest methods that get inlined. 0 means no inlining.
+	 */
+
+	private int inliningBudget;
+
+	/**
+	 * The maximal number of threads used to parse, type-check and generate the classes.
+	 */
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * True if and only if the class files are generated with stack map frames.
+	 */
+
+	private boolean stackMapFrames;
+
+	/**
+	 * The size, in bytes, of the largest methods that do not get split. 0 means no splitting.
+	 */
+
+	private int splitLimit = 8000;
+
+	/**
+	 * True if and only if only the classes that are stale with respect to the
+	 * index of the directory of the compilation are compiled (see {@link DependencyIndex}).
+	 */
+
+	private boolean incremental;
+
+	/**
+	 * Sets the options of this compiler from the given command-line arguments.
+	 * The arguments that are not options are taken as the name of the class to compile.
+	 *
+	 * @param args the arguments
+	 * @param out the stream where the problems with {@code args} are reported
+	 * @return the name of the file of the class to compile, as found in {@code args}.
+	 *         Yields {@code null} if {@code args} does not specify it or contains
+	 *         an option with a wrong value
+	 */
+
+	public String parseOptions(String[] args, PrintStream out) {
+		String fileName = null;
+
+		try {
+			for (int pos = 0; pos < args.length; pos++)
+				if (args[pos].equals("-rta"))
+					rapidTypeAnalysis = true;
+				else if (args[pos].equals("-inline"))
+					inliningBudget = 20;
+				else if (args[pos].equals("-inlinebudget"))
+					inliningBudget = Math.max(0, number(args, ++pos));
+				else if (args[pos].equals("-threads"))
+					threads = Math.max(1, number(args, ++pos));
+				else if (args[pos].equals("-frames"))
+					stackMapFrames = true;
+				else if (args[pos].equals("-splitlimit"))
+					splitLimit = Math.max(0, number(args, ++pos));
+				else if (args[pos].equals("-incremental"))
+					incremental = true;
+				else
+					fileName = args[pos];
+		}
+		catch (IllegalArgumentException e) {
+			out.println(e.getMessage());
+			return null;
+		}
+
+		if (fileName == null)
+			out.println("You must specify a Kitten class name to compile");
+
+		return fileName;
+	}
+
+	/**
+	 * Yields the numeric value of an option.
+	 *
+	 * @param args the command-line arguments
+	 * @param pos the position of the value in {@code args}, just after the option
+	 * @return the value
+	 * @throws IllegalArgumentException if the value is missing or is not a number
+	 */
+
+	private static int number(String[] args, int pos) {
+		if (pos >= args.length)
+			throw new IllegalArgumentException("Option " + args[pos - 1] + " needs a numeric value");
+
+		try {
+			return Integer.parseInt(args[pos]);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option " + args[pos - 1] + " needs a numeric value, not " + args[pos]);
+		}
+	}
+
+	/**
+	 * Prints the options understood by {@link #parseOptions(String[], PrintStream)}.
+	 *
+	 * @param out the stream where the options are printed
+	 */
+
+	public static void printOptions(PrintStream out) {
+		out.println("  -rta         restrict the compiled code through a rapid type analysis");
+		out.println("  -inline      inline small methods called from monomorphic call sites");
+		out.println("  -inlinebudget n  inline methods of at most n Kitten bytecodes");
+		out.println("  -threads n   parse, type-check and generate the class files with at most n threads");
+		out.println("  -frames      generate Java 7 class files with stack map frames");
+		out.println("  -splitlimit n  split the methods larger than about n bytes (0 = never)");
+		out.println("  -incremental only compile the classes changed since the last compilation and those affected");
+	}
+
+	/**
+	 * Compiles the given class, in the given context, and all classes reachable from it.
+	 * The classes already in the context are not parsed and type-checked again.
+	 * The class files are written in the directory of the context. If the compilation
+	 * is incremental, only the stale classes are compiled (see {@link DependencyIndex}).
+	 * The rapid type analysis and the inlining need the whole program, hence they
+	 * make the compilation not incremental.
+	 *
+	 * @param context the context of the compilation
+	 * @param fileName the name of the file of the class, including the <tt>.kit</tt> termination
+	 * @param out the stream where the progress of the compilation is reported
+	 * @return true if and only if the class files have been generated, or are
+	 *         up to date, since the classes contain no errors
+	 */
+
+	public boolean compile(CompilationContext context, String fileName, PrintStream out) {
+		long totalTime = System.currentTimeMillis();
+		boolean success;
+
+		if (incremental && !rapidTypeAnalysis && inliningBudget == 0)
+			success = compileIncrementally(context, fileName, out);
+		else {
+			if (incremental)
+				out.println("The rapid type analysis and the inlining need the whole program: it is compiled entirely");
+
+			success = compileEntirely(context, fileName, out);
+		}
+
+		out.println("Total compilation time was " + (System.currentTimeMillis() - totalTime) + "ms");
+
+		return success;
+	}
+
+	/**
+	 * Compiles the given class, in the given context, and all classes reachable from it.
+	 * Only the members reachable from the {@code main} method of the class are compiled.
+	 *
+	 * @param context the context of the compilation
+	 * @param fileName the name of the file of the class, including the <tt>.kit</tt> termination
+	 * @param out the stream where the progress of the compilation is reported
+	 * @return true if and only if the class files have been generated
+	 */
+
+	private boolean compileEntirely(CompilationContext context, String fileName, PrintStream out) {
+		// the context might come from a previous incremental compilation, that skipped some classes
+		for (ClassType skipped: context.getClasses())
+			skipped.skipTypeChecking(false);
+
+		// we build the class type for the file name passed as a parameter.
+		// This triggers type-checking of that class and of all classes referenced from it
+		long time = System.currentTimeMillis();
+		ClassType clazz = ClassType.mkFromFileName(context, fileName, threads);
+		ErrorMsg errorMsg = clazz.getErrorMsg();
+		out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
+
+		// if this class did not parse and type-check correctly,
+		// we cannot translate the program into intermediate Kitten code
+		if (errorMsg == null || errorMsg.anyErrors())
+			return false;
+
+		time = System.currentTimeMillis();
+		// we translate this class into Kitten bytecode
+		Program program = clazz.translate();
+
+		out.println("Translation into Kitten bytecode completed \t[" + (System.currentTimeMillis() - time) + "ms]");
+
+		if (rapidTypeAnalysis) {
+			time = System.currentTimeMillis();
+			int members = program.getSigs().size();
+			int instantiated = program.rapidTypeAnalysis();
+
+			out.println("Rapid type analysis completed            \t[" + (System.currentTimeMillis() - time) + "ms]");
+			out.println("Found " + instantiated + " instantiated classes and kept "
+				+ program.getSigs().size() + " out of " + members + " class members");
+		}
+
+		if (inliningBudget > 0) {
+			time = System.currentTimeMillis();
+			Map<String, Integer> inlined = program.inline(inliningBudget);
+
+			int sites = 0;
+			for (int count: inlined.values())
+				sites += count;
+
+			out.println("Inlining completed                      \t[" + (System.currentTimeMillis() - time) + "ms]");
+			out.println("Inlined " + sites + " call sites of " + inlined.size() + " methods");
+			for (Map.Entry<String, Integer> entry: inlined.entrySet())
+				out.println("  " + entry.getKey() + ": " + entry.getValue());
+		}
+
+		generate(program, out);
+
+		return true;
+	}
+
+	/**
+	 * Compiles the stale classes among the given class and those reachable from it,
+	 * with respect to the index of the directory of the context, and updates that index.
+	 * All members of the stale classes are compiled, since the other classes might
+	 * use them. The other classes are not type-checked and their class files are kept.
+	 *
+	 * @param context the context of the compilation
+	 * @param fileName the name of the file of the class, including the <tt>.kit</tt> termination
+	 * @param out the stream where the progress of the compilation is reported
+	 * @return true if and only if the class files of the stale classes have been generated
+	 */
+
+	private boolean compileIncrementally(CompilationContext context, String fileName, PrintStream out) {
+		long time = System.currentTimeMillis();
+		DependencyIndex index = DependencyIndex.load(context.getDirectory(), "-frames " + stackMapFrames + " -splitlimit " + splitLimit);
+
+		// the signatures of the classes are built before they are type-checked,
+		// so that the stale classes can be identified and the others are not type-checked
+		if (fileName.endsWith(".kit"))
+			fileName = fileName.substring(0, fileName.length() - 4);
+
+		FrontEnd frontEnd = new FrontEnd(context, threads);
+		List<ClassType> classes = frontEnd.discover(fileName);
+		Set<ClassType> stale = index.getStale(context.getClasses());
+
+		// the context might come from a previous compilation, where other classes were
+		// skipped: they are type-checked now, if stale, after those just discovered
+		List<ClassType> checked = new ArrayList<>(classes);
+		Set<ClassType> discovered = new HashSet<>(classes);
+		for (ClassType clazz: context.getClasses()) {
+			clazz.skipTypeChecking(!stale.contains(clazz));
+			if (!discovered.contains(clazz))
+				checked.add(clazz);
+		}
+
+		frontEnd.typeCheck(checked);
+		out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
+		out.println("Found " + stale.size() + " stale classes out of " + context.getClasses().size());
+
+		ErrorMsg errorMsg = classes.get(0).getErrorMsg();
+		if (errorMsg == null || errorMsg.anyErrors())
+			return false;
+
+		for (ClassType clazz: stale)
+			if (clazz.getErrorMsg() != null && clazz.getErrorMsg().anyErrors())
+				return false;
+
+		if (stale.isEmpty())
+			return true;
+
+		time = System.currentTimeMillis();
+		// we translate all members of the stale classes into Kitten bytecode
+		Program program = ClassType.translate(context, stale);
+
+		out.println("Translation into Kitten bytecode completed \t[" + (System.currentTimeMillis() - time) + "ms]");
+
+		generate(program, out);
+
+		index.update(stale, program);
+		try {
+			index.store();
+		}
+		catch (IOException e) {
+			out.println("Could not write the index of the compilation: " + e.getMessage());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Dumps the Kitten code of the given program, generates its class files
+	 * and reports the statistics of the generation.
+	 *
+	 * @param program the program
+	 * @param out the stream where the progress of the compilation is reported
+	 */
+
+	private void generate(Program program, PrintStream out) {
+		long time = System.currentTimeMillis();
+		program.dumpCodeDot();
+
+		out.println("Kitten bytecode dumping in dot format completed\t[" + (System.currentTimeMillis() - time) + "ms]");
+
+		// we translate, into Java bytecode, the Kitten code of every class member which
+	    // is reachable from the class we translated. This also generates the class files
+	    program.setThreads(threads);
+	    program.setStackMapFrames(stackMapFrames);
+	    program.setSplitLimit(splitLimit);
+	    program.generateJavaBytecode();
+	    program.generateJavaBytecodeForTest();
+
+	    out.println("Java bytecode generation completed       \t[" + (System.currentTimeMillis() - time) + "ms]");
+	    out.println("Devirtualized " + program.getDevirtualizedCallSites() + " out of "
+	    	+ program.getVirtualCallSites() + " virtual call sites");
+	    int helpers = 0;
+	    for (int count: program.getSplitMethods().values())
+	    	helpers += count;
+
+	    if (helpers > 0) {
+	    	out.println("Split " + program.getSplitMethods().size() + " huge methods into " + helpers + " helpers");
+	    	for (Map.Entry<String, Integer> entry: program.getSplitMethods().entrySet())
+	    		out.println("  " + entry.getKey() + ": " + entry.getValue());
+	    }
+
+	    for (Map.Entry<String, Integer> entry: program.getHugeMethods().entrySet())
+	    	out.println("Warning: " + entry.getKey() + " is still about " + entry.getValue() + " bytes long");
+
+	    out.println("Allocated the local variables into " + program.getSlotsAfter()
+	    	+ " instead of " + program.getSlotsBefore() + " slots");
+
+	    int rewritings = 0;
+	    for (int count: program.getPeepholeHits().values())
+	    	rewritings += count;
+
+	    out.println("Applied " + rewritings + " peephole rewritings");
+	    for (Map.Entry<String, Integer> entry: program.getPeepholeHits().entrySet())
+	    	out.println("  " + entry.getKey() + ": " + entry.getValue());
+	}
+}
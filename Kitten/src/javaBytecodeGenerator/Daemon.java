@@ -0,0 +1,312 @@
+package javaBytecodeGenerator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import types.ClassType;
+import types.CompilationContext;
+
+/**
+ * A compile daemon. It keeps the Java virtual machine of the compiler alive,
+ * so that the cost of its start-up, of the loading of the classes of the compiler
+ * and of the compilation of its code by the just-in-time compiler is paid once.
+ * It compiles the classes in the context of the previous compilation in the same
+ * directory, if that compilation found no errors: the classes whose source file has
+ * changed since then are evicted from the context, together with those that depend
+ * on them (see {@link DependencyIndex#getDependents(java.util.Collection, Set)}),
+ * and parsed and type-checked again. The other classes are reused as they are, and
+ * the evicted classes whose source file has not changed reuse their abstract syntax.
+ * Otherwise, the compilation starts afresh in a new context. The daemon works in two modes:
+ * <ul>
+ * <li> {@code java javaBytecodeGenerator.Daemon [-port n]} serves compilation requests
+ *      on a local port, by default {@link #DEFAULT_PORT}. It listens on the loopback
+ *      interface only. The requests are sent by {@code javaBytecodeGenerator.Main -daemon n},
+ *      that prints the messages of the compilation;
+ * <li> {@code java javaBytecodeGenerator.Daemon -watch [options] file.kit} compiles
+ *      {@code file.kit} in the current directory, and compiles it again whenever
+ *      a source file of that directory is saved.
+ * </ul>
+ * A request consists of a line with the directory of the compilation, followed
+ * by a line for each argument of the compiler and by an empty line. The response
+ * consists of the messages of the compilation. Requests are served one at a time.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class Daemon {
+
+	/**
+	 * The local port where the daemon serves the requests, if not specified otherwise.
+	 */
+
+	public final static int DEFAULT_PORT = 7733;
+
+	/**
+	 * The context of the last compilation in each directory, indexed by canonical
+	 * directory. It is kept only if that compilation found no errors.
+	 */
+
+	private final Map<File, CompilationContext> contexts = new HashMap<>();
+
+	/**
+	 * The stream where the contexts of the compilations print their messages.
+	 * It forwards them to the stream of the compilation being performed.
+	 */
+
+	private final Forward forward = new Forward();
+
+	/**
+	 * A print stream over {@link #forward}, given to the contexts of the compilations.
+	 */
+
+	private final PrintStream messages = new PrintStream(forward, true);
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length > 0 && args[0].equals("-watch"))
+			new Daemon().watch(new File(".").getCanonicalFile(), Arrays.copyOfRange(args, 1, args.length));
+		else if (args.length == 0)
+			new Daemon().serve(DEFAULT_PORT);
+		else if (args.length == 2 && args[0].equals("-port") && args[1].matches("\\d{1,5}"))
+			new Daemon().serve(Integer.parseInt(args[1]));
+		else {
+			System.out.println("Usage: java javaBytecodeGenerator.Daemon [-port n]");
+			System.out.println("   or: java javaBytecodeGenerator.Daemon -watch [options] file.kit");
+			System.out.println("Options:");
+			Compiler.printOptions(System.out);
+		}
+	}
+
+	/**
+	 * Compiles a class in the given directory. The classes parsed and type-checked
+	 * by the last compilation in that directory are reused, if that compilation found
+	 * no errors, unless their source file has changed or they depend on classes
+	 * whose source file has changed.
+	 *
+	 * @param directory the canonical directory of the compilation
+	 * @param args the arguments of the compiler, as for {@code javaBytecodeGenerator.Main}
+	 * @param out the stream where the messages of the compilation are printed
+	 * @return true if and only if the class files have been generated
+	 */
+
+	public synchronized boolean compile(File directory, String[] args, PrintStream out) {
+		Compiler compiler = new Compiler();
+		String fileName = compiler.parseOptions(args, out);
+		if (fileName == null) {
+			out.flush();
+			return false;
+		}
+
+		forward.target = out;
+
+		try {
+			CompilationContext context = contexts.remove(directory);
+			if (context != null) {
+				Set<ClassType> modified = context.getModifiedClasses();
+				if (!modified.isEmpty())
+					context.evict(DependencyIndex.getDependents(context.getClasses(), modified));
+
+				if (!context.getClasses().isEmpty())
+					out.println("Reusing " + context.getClasses().size() + " classes already parsed and type-checked");
+			}
+			else
+				context = new CompilationContext(directory, messages, messages);
+
+			boolean success = compiler.compile(context, fileName, out);
+
+			// a context is reused only if its classes contain no errors, that would not be reported again
+			if (success && !anyErrors(context))
+				contexts.put(directory, context);
+
+			return success;
+		}
+		catch (RuntimeException e) {
+			// the context has been removed, since it might be inconsistent now
+			out.println("The compiler failed: " + e);
+			System.out.println("The compiler failed: " + e);
+			return false;
+		}
+		finally {
+			out.flush();
+			forward.target = System.out;
+		}
+	}
+
+	/**
+	 * Serves the compilation requests that arrive on the given local port, forever.
+	 *
+	 * @param port the port
+	 * @throws IOException if the port cannot be opened
+	 */
+
+	private void serve(int port) throws IOException {
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.out.println("Kitten compile daemon listening on port " + port);
+
+			while (true)
+				try (Socket client = server.accept()) {
+					serve(client);
+				}
+				catch (IOException e) {
+					System.out.println("Could not serve a request: " + e.getMessage());
+				}
+		}
+	}
+
+	/**
+	 * Serves a compilation request.
+	 *
+	 * @param client the connection with the client that sent the request
+	 * @throws IOException if the connection fails
+	 */
+
+	private void serve(Socket client) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+		String directory = reader.readLine();
+		if (directory == null)
+			return;
+
+		List<String> args = new ArrayList<>();
+		for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine())
+			args.add(line);
+
+		PrintStream out = new PrintStream(client.getOutputStream(), false, StandardCharsets.UTF_8.name());
+		File canonical = new File(directory).getCanonicalFile();
+		System.out.println("Compiling " + args + " in " + canonical);
+		compile(canonical, args.toArray(new String[args.size()]), out);
+	}
+
+	/**
+	 * Compiles a class in the given directory, and compiles it again whenever a source
+	 * file of that directory is created, modified or deleted, forever.
+	 *
+	 * @param directory the canonical directory of the compilation
+	 * @param args the arguments of the compiler, as for {@code javaBytecodeGenerator.Main}
+	 * @throws IOException if the directory cannot be watched
+	 * @throws InterruptedException if the daemon is interrupted while waiting for changes
+	 */
+
+	private void watch(File directory, String[] args) throws IOException, InterruptedException {
+		try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			directory.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+			compile(directory, args, System.out);
+			System.out.println("Watching " + directory + " for changes");
+
+			while (true) {
+				WatchKey key = watcher.take();
+
+				// an editor saves a file through many events: we wait for them to settle
+				Thread.sleep(100L);
+
+				// the class files and dot files written by the compilation are not sources
+				boolean changed = false;
+				for (; key != null; key = watcher.poll()) {
+					for (WatchEvent<?> event: key.pollEvents())
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW
+								|| ((Path) event.context()).toString().endsWith(".kit"))
+							changed = true;
+
+					key.reset();
+				}
+
+				if (changed)
+					compile(directory, args, System.out);
+			}
+		}
+	}
+
+	/**
+	 * Sends a compilation request to a daemon that serves the requests on the
+	 * given local port, and prints the messages of the compilation.
+	 *
+	 * @param port the port
+	 * @param directory the directory of the compilation
+	 * @param args the arguments of the compiler, as for {@code javaBytecodeGenerator.Main}
+	 * @param out the stream where the messages of the compilation are printed
+	 * @throws IOException if the daemon cannot be reached
+	 */
+
+	public static void request(int port, File directory, String[] args, PrintStream out) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+			writer.write(directory.getAbsolutePath() + "\n");
+			for (String arg: args)
+				writer.write(arg + "\n");
+
+			writer.write("\n");
+			writer.flush();
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+				out.println(line);
+		}
+	}
+
+	/**
+	 * Determines if some class of the given context contains errors
+	 * or cannot be found.
+	 *
+	 * @param context the context
+	 * @return true if and only if that is the case
+	 */
+
+	private static boolean anyErrors(CompilationContext context) {
+		for (ClassType clazz: context.getClasses())
+			if (clazz.getErrorMsg() == null || clazz.getErrorMsg().anyErrors())
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * An output stream that forwards its output to the stream
+	 * of the compilation being performed.
+	 */
+
+	private static class Forward extends OutputStream {
+
+		/**
+		 * The stream of the compilation being performed.
+		 */
+
+		private volatile OutputStream target = System.out;
+
+		@Override
+		public void write(int b) throws IOException {
+			target.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target.flush();
+		}
+	}
+}
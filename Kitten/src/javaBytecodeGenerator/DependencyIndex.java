@@ -0,0 +1,508 @@
+package javaBytecodeGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import translation.Block;
+import translation.BlockGraph;
+import translation.Program;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.ConstructorSignature;
+import types.FieldSignature;
+import types.HelperSignature;
+import types.MethodSignature;
+import bytecode.Bytecode;
+import bytecode.CALL;
+import bytecode.FieldAccessBytecode;
+import bytecode.NEW;
+
+/**
+ * The index of the incremental compilations in a directory. It records, for each
+ * class compiled there, a hash of its source file, a fingerprint of its interface,
+ * a fingerprint of its subclasses, the time of last modification and the length of its
+ * class files and the classes whose interface it depends on, each with the fingerprint
+ * of that interface at the time of the compilation. A class is stale, and must be
+ * compiled again, if any of these has changed. Otherwise its class files are kept
+ * and it is not even type-checked again.
+ * <p>
+ * The interface of a class consists of its name, the signatures of its fields,
+ * constructors and methods and, recursively, the interface of its superclass.
+ * A class depends on the classes named in its source file, on the classes whose
+ * members are accessed by its Kitten code and on its subclasses, since the
+ * devirtualized calls and the final methods in its class file depend on
+ * the methods that they override.
+ * <p>
+ * The index is kept in the file {@link #FILE_NAME} of the directory, in binary form:
+ * the names of the classes are written once and then referenced by number.
+ * It is discarded if the options of the compilation change.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class DependencyIndex {
+
+	/**
+	 * The name of the file of the index, inside the directory of the compilation.
+	 */
+
+	public final static String FILE_NAME = "kitten.idx";
+
+	/**
+	 * The first four bytes of the file of the index. They change with its format.
+	 */
+
+	private final static int MAGIC = 0x4b494401;
+
+	/**
+	 * The file of the index.
+	 */
+
+	private final File file;
+
+	/**
+	 * The fingerprint of the options of the compilation
+	 * that affect the generated class files.
+	 */
+
+	private final long options;
+
+	/**
+	 * The entries of the classes compiled so far, indexed by class name.
+	 */
+
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	/**
+	 * A cache for the fingerprints of the interfaces of the classes (see {@link #abi(ClassType)}).
+	 */
+
+	private final Map<ClassType, Long> abis = new HashMap<>();
+
+	/**
+	 * Builds an empty index.
+	 *
+	 * @param directory the directory of the compilation
+	 * @param options the fingerprint of the options of the compilation
+	 */
+
+	private DependencyIndex(File directory, long options) {
+		this.file = new File(directory, FILE_NAME);
+		this.options = options;
+	}
+
+	/**
+	 * Loads the index of the given directory. If the file of the index does not exist,
+	 * cannot be read or was written with different options, the index is empty.
+	 *
+	 * @param directory the directory of the compilation
+	 * @param options the options of the compilation that affect the generated class files
+	 * @return the index
+	 */
+
+	public static DependencyIndex load(File directory, String options) {
+		DependencyIndex index = new DependencyIndex(directory, fingerprint(options));
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index.file)))) {
+			if (in.readInt() != MAGIC || in.readLong() != index.options)
+				return index;
+
+			String[] names = new String[in.readInt()];
+			for (int pos = 0; pos < names.length; pos++)
+				names[pos] = in.readUTF();
+
+			for (int count = in.readInt(); count > 0; count--) {
+				String name = names[in.readInt()];
+				Entry entry = new Entry(in.readLong(), in.readLong(), in.readLong(),
+					new long[] { in.readLong(), in.readLong(), in.readLong(), in.readLong() });
+
+				for (int dependencies = in.readInt(); dependencies > 0; dependencies--)
+					entry.dependencies.put(names[in.readInt()], in.readLong());
+
+				index.entries.put(name, entry);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			// a missing or corrupted index means that everything must be compiled
+			index.entries.clear();
+		}
+
+		return index;
+	}
+
+	/**
+	 * Writes this index in its file. The file is replaced atomically,
+	 * so that a compilation never finds it half-written.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+
+	public void store() throws IOException {
+		// the names of the classes, referenced by number in the entries
+		Map<String, Integer> numbers = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		for (Map.Entry<String, Entry> entry: entries.entrySet()) {
+			number(entry.getKey(), numbers, names);
+			for (String dependency: entry.getValue().dependencies.keySet())
+				number(dependency, numbers, names);
+		}
+
+		File temp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeLong(options);
+
+			out.writeInt(names.size());
+			for (String name: names)
+				out.writeUTF(name);
+
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Entry> entry: entries.entrySet()) {
+				Entry value = entry.getValue();
+				out.writeInt(numbers.get(entry.getKey()));
+				out.writeLong(value.source);
+				out.writeLong(value.abi);
+				out.writeLong(value.hierarchy);
+				for (long output: value.outputs)
+					out.writeLong(output);
+
+				out.writeInt(value.dependencies.size());
+				for (Map.Entry<String, Long> dependency: value.dependencies.entrySet()) {
+					out.writeInt(numbers.get(dependency.getKey()));
+					out.writeLong(dependency.getValue());
+				}
+			}
+		}
+
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Gives a number to a class name, if it has none yet.
+	 *
+	 * @param name the name of the class
+	 * @param numbers the numbers given so far
+	 * @param names the names numbered so far, in order of number
+	 */
+
+	private static void number(String name, Map<String, Integer> numbers, List<String> names) {
+		if (!numbers.containsKey(name)) {
+			numbers.put(name, names.size());
+			names.add(name);
+		}
+	}
+
+	/**
+	 * Yields the classes that must be compiled again, since they are not in this index
+	 * or have changed since their last compilation, or because the interface of some
+	 * class that they depend on has changed.
+	 *
+	 * @param classes all the classes of the compilation. Their signatures must have
+	 *                been built already, but they need not be type-checked
+	 * @return the stale classes, among {@code classes}
+	 */
+
+	public Set<ClassType> getStale(Collection<ClassType> classes) {
+		Map<String, ClassType> byName = new HashMap<>();
+		for (ClassType clazz: classes)
+			byName.put(clazz.getName(), clazz);
+
+		Set<ClassType> stale = new HashSet<>();
+		for (ClassType clazz: classes) {
+			Entry entry = entries.get(clazz.getName());
+			if (entry == null || entry.source != clazz.getSourceHash() || entry.abi != abi(clazz)
+					|| entry.hierarchy != hierarchy(clazz) || !Arrays.equals(entry.outputs, outputs(clazz)))
+				stale.add(clazz);
+			else
+				for (Map.Entry<String, Long> dependency: entry.dependencies.entrySet())
+					if (abi(byName.get(dependency.getKey())) != dependency.getValue()) {
+						stale.add(clazz);
+						break;
+					}
+		}
+
+		return stale;
+	}
+
+	/**
+	 * Yields the given modified classes together with those that depend on them,
+	 * directly or indirectly, through the classes named in their source files.
+	 * These are the classes whose type-checking might change with the modified classes,
+	 * since the types of the superclass and of the members of a class, and of the
+	 * members that its code accesses, are named in its source file or, recursively,
+	 * in those of the classes named there. Subclasses and accessed classes, that
+	 * also make a class stale in an index, only affect its translation.
+	 *
+	 * @param classes all the classes of the compilation
+	 * @param modified the modified classes, among {@code classes}
+	 * @return the modified classes and their dependents, among {@code classes}
+	 */
+
+	public static Set<ClassType> getDependents(Collection<ClassType> classes, Set<ClassType> modified) {
+		// the classes that name each class in their source file
+		Map<String, List<ClassType>> referrers = new HashMap<>();
+		for (ClassType clazz: classes)
+			for (String reference: clazz.getReferences()) {
+				List<ClassType> list = referrers.get(reference);
+				if (list == null)
+					referrers.put(reference, list = new ArrayList<>());
+
+				list.add(clazz);
+			}
+
+		Set<ClassType> dependents = new HashSet<>(modified);
+		List<ClassType> worklist = new ArrayList<>(modified);
+		while (!worklist.isEmpty()) {
+			List<ClassType> list = referrers.get(worklist.remove(worklist.size() - 1).getName());
+			if (list != null)
+				for (ClassType referrer: list)
+					if (dependents.add(referrer))
+						worklist.add(referrer);
+		}
+
+		return dependents;
+	}
+
+	/**
+	 * Takes note of the compilation of the given classes, whose class files have
+	 * been just generated by the given program.
+	 *
+	 * @param classes the classes compiled by {@code program}
+	 * @param program the program, whose Kitten code is scanned for the dependencies of the classes
+	 */
+
+	public void update(Collection<ClassType> classes, Program program) {
+		Map<String, ClassType> byName = new HashMap<>();
+		for (ClassType clazz: program.getContext().getClasses())
+			byName.put(clazz.getName(), clazz);
+
+		// the classes whose members are accessed by the code of each class
+		Map<ClassType, Set<ClassType>> accessed = new HashMap<>();
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null) {
+				Set<ClassType> set = accessed.get(sig.getDefiningClass());
+				if (set == null)
+					accessed.put(sig.getDefiningClass(), set = new HashSet<>());
+
+				addAccessed(((CodeSignature) sig).getCode(), set);
+				for (HelperSignature helper: ((CodeSignature) sig).getHelpers())
+					addAccessed(helper.getCode(), set);
+			}
+
+		for (ClassType clazz: classes) {
+			Entry entry = new Entry(clazz.getSourceHash(), abi(clazz), hierarchy(clazz), outputs(clazz));
+
+			for (String reference: clazz.getReferences())
+				entry.dependencies.put(reference, abi(byName.get(reference)));
+
+			if (accessed.containsKey(clazz))
+				for (ClassType dependency: accessed.get(clazz))
+					entry.dependencies.put(dependency.getName(), abi(dependency));
+
+			for (ClassType subclass: clazz.getInstances())
+				entry.dependencies.put(subclass.getName(), abi(subclass));
+
+			// a class does not depend on itself, since its interface only changes with its source
+			entry.dependencies.remove(clazz.getName());
+
+			entries.put(clazz.getName(), entry);
+		}
+	}
+
+	/**
+	 * Adds to the given set the classes whose members are accessed, created
+	 * or called by the given code and by the code reachable from it.
+	 *
+	 * @param code the code
+	 * @param accessed the set
+	 */
+
+	private static void addAccessed(Block code, Set<ClassType> accessed) {
+		BlockGraph graph = new BlockGraph(code);
+
+		for (Block block = graph.next(); block != null; block = graph.next()) {
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof FieldAccessBytecode)
+					accessed.add(((FieldAccessBytecode) bytecode).getField().getDefiningClass());
+				else if (bytecode instanceof NEW)
+					accessed.add(((NEW) bytecode).getType());
+				else if (bytecode instanceof CALL) {
+					CALL call = (CALL) bytecode;
+					if (call.getReceiverType() instanceof ClassType)
+						accessed.add((ClassType) call.getReceiverType());
+
+					accessed.add(call.getStaticTarget().getDefiningClass());
+					for (CodeSignature target: call.getDynamicTargets())
+						accessed.add(target.getDefiningClass());
+				}
+
+			graph.pushFollows(block);
+		}
+	}
+
+	/**
+	 * Yields the fingerprint of the interface of a class, that is, of its name, of
+	 * the signatures of its fields, constructors and methods and of the interface
+	 * of its superclass. A class whose source file cannot be found has a distinct
+	 * fingerprint, so that the classes that reference it get compiled again.
+	 *
+	 * @param clazz the class. It might be {@code null}, for a class that does not exist anymore
+	 * @return the fingerprint, or 0 if {@code clazz} is {@code null}
+	 */
+
+	private long abi(ClassType clazz) {
+		if (clazz == null)
+			return 0L;
+
+		Long result = abis.get(clazz);
+		if (result == null) {
+			StringBuilder description = new StringBuilder(clazz.getName());
+
+			if (clazz.getErrorMsg() == null)
+				description.append(" cannot be found");
+			else {
+				if (clazz.getSuperclass() != null)
+					description.append(" extends ").append(abi(clazz.getSuperclass()));
+
+				// the members are sorted, since their order in the source file does not matter
+				List<String> members = new ArrayList<>();
+				for (FieldSignature field: clazz.getFields().values())
+					members.add(field.toString());
+				for (ConstructorSignature constructor: clazz.getConstructors())
+					members.add(constructor.toString());
+				for (Set<MethodSignature> methods: clazz.getMethods().values())
+					for (MethodSignature method: methods)
+						members.add(method.toString());
+
+				Collections.sort(members);
+				for (String member: members)
+					description.append('\n').append(member);
+			}
+
+			abis.put(clazz, result = fingerprint(description.toString()));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the fingerprint of the subclasses of a class.
+	 *
+	 * @param clazz the class
+	 * @return the fingerprint of the names of its instances
+	 */
+
+	private static long hierarchy(ClassType clazz) {
+		List<String> names = new ArrayList<>();
+		for (ClassType instance: clazz.getInstances())
+			names.add(instance.getName());
+
+		Collections.sort(names);
+
+		return fingerprint(names.toString());
+	}
+
+	/**
+	 * Yields the time of last modification and the length of the class files of a class.
+	 *
+	 * @param clazz the class
+	 * @return the time and length of its class file and of its test class file.
+	 *         The latter are 0 if the class has no tests. They are all 0 for the
+	 *         files that do not exist
+	 */
+
+	private static long[] outputs(ClassType clazz) {
+		File directory = clazz.getContext().getDirectory();
+		File classFile = new File(directory, clazz + ".class");
+		File testFile = new File(directory, clazz + "Test.class");
+		boolean tests = !clazz.getTests().isEmpty();
+
+		return new long[] { classFile.lastModified(), classFile.length(),
+			tests ? testFile.lastModified() : 0L, tests ? testFile.length() : 0L };
+	}
+
+	/**
+	 * Yields a 64-bit fingerprint of a string: the first eight bytes of its SHA-1 digest.
+	 *
+	 * @param s the string
+	 * @return the fingerprint
+	 */
+
+	private static long fingerprint(String s) {
+		try {
+			return ByteBuffer.wrap(MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8))).getLong();
+		}
+		catch (NoSuchAlgorithmException e) {
+			// every Java platform implements SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The entry of a class in the index.
+	 */
+
+	private static class Entry {
+
+		/**
+		 * The hash of the source file of the class.
+		 */
+
+		private final long source;
+
+		/**
+		 * The fingerprint of the interface of the class.
+		 */
+
+		private final long abi;
+
+		/**
+		 * The fingerprint of the subclasses of the class.
+		 */
+
+		private final long hierarchy;
+
+		/**
+		 * The time of last modification and the length of the class files (see {@link DependencyIndex#outputs(ClassType)}).
+		 */
+
+		private final long[] outputs;
+
+		/**
+		 * The fingerprint of the interface of the classes that the class
+		 * depends on, at the time of its compilation, indexed by class name.
+		 */
+
+		private final Map<String, Long> dependencies = new TreeMap<>();
+
+		private Entry(long source, long abi, long hierarchy, long[] outputs) {
+			this.source = source;
+			this.abi = abi;
+			this.hierarchy = hierarchy;
+			this.outputs = outputs;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package javaBytecodeGenerator;
+
+import org.apache.bcel.generic.ConstantPushInstruction;
+import org.apache.bcel.generic.IADD;
+import org.apache.bcel.generic.IINC;
+import org.apache.bcel.generic.ILOAD;
+import org.apache.bcel.generic.ISTORE;
+import org.apache.bcel.generic.ISUB;
+import org.apache.bcel.generic.Instruction;
+
+/**
+ * A peephole rule that rewrites the increment of a local variable by a constant,
+ * such as {@code iload x; iconst c; iadd; istore x}, into {@code iinc x c}. The
+ * constant can also be loaded before the variable, if it is added, and can
+ * be subtracted, as long as the increment fits into a (wide) {@code iinc}.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+final class IincRule extends PeepholeRule {
+
+	/**
+	 * Builds the rule.
+	 */
+
+	IincRule() {
+		super("iinc", 4);
+	}
+
+	@Override
+	protected Instruction[] rewrite(Instruction[] window, PeepholeOptimizer optimizer) {
+		if (!(window[3] instanceof ISTORE))
+			return null;
+
+		int index = ((ISTORE) window[3]).getIndex();
+		Integer increment;
+
+		if (isLoad(window[0], index) && window[2] instanceof IADD)
+			increment = constant(window[1]);
+		else if (isLoad(window[1], index) && window[2] instanceof IADD)
+			increment = constant(window[0]);
+		else if (isLoad(window[0], index) && window[2] instanceof ISUB) {
+			increment = constant(window[1]);
+			if (increment != null)
+				increment = -increment;
+		}
+		else
+			return null;
+
+		if (increment == null || increment < Short.MIN_VALUE || increment > Short.MAX_VALUE)
+			return null;
+
+		return new Instruction[] { new IINC(index, increment) };
+	}
+
+	/**
+	 * Determines if the given instruction loads the given local variable.
+	 *
+	 * @param instruction the instruction
+	 * @param index the number of the local variable
+	 * @return true if and only if that is the case
+	 */
+
+	private static boolean isLoad(Instruction instruction, int index) {
+		return instruction instanceof ILOAD && ((ILOAD) instruction).getIndex() == index;
+	}
+
+	/**
+	 * Yields the integer constant pushed by the given instruction, if any.
+	 *
+	 * @param instruction the instruction
+	 * @return the constant, or {@code null} if {@code instruction} does not push an integer constant
+	 */
+
+	private static Integer constant(Instruction instruction) {
+		if (instruction instanceof ConstantPushInstruction) {
+			Number value = ((ConstantPushInstruction) instruction).getValue();
+			if (value instanceof Integer)
+				return (Integer) value;
+		}
+
+		return null;
+	}
+}
@@ -1,23 +1,36 @@
 package javaBytecodeGenerator;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.bcel.Constants;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.generic.BranchInstruction;
 import org.apache.bcel.generic.ClassGen;
 import org.apache.bcel.generic.ConstantPoolGen;
+import org.apache.bcel.generic.FieldGen;
 import org.apache.bcel.generic.GOTO;
-import org.apache.bcel.generic.Instruction;
 import org.apache.bcel.generic.InstructionFactory;
 import org.apache.bcel.generic.InstructionHandle;
 import org.apache.bcel.generic.InstructionList;
-import org.apache.bcel.generic.TargetLostException;
+import org.apache.bcel.generic.MethodGen;
+import org.apache.bcel.generic.ObjectType;
+import org.apache.bcel.generic.Type;
 
 import translation.Block;
+import types.ClassType;
+import types.CompilationContext;
+import translation.BlockGraph;
 import bytecode.BranchingBytecode;
+import bytecode.Bytecode;
+import bytecode.LOAD;
+import bytecode.NOP;
+import bytecode.STORE;
 
 
 
@@ -50,15 +63,99 @@ public class JavaClassGenerator extends ClassGen {
 
 	private final static String[] noInterfaces = new String[] {};
 
+	/**
+	 * The context of the compilation of the Kitten classes whose Java bytecode is generated.
+	 */
+
+	private final CompilationContext context;
+
+	/**
+	 * The number of virtual call sites generated so far by this generator.
+	 */
+
+	private int virtualCallSites;
+
+	/**
+	 * The number of virtual call sites generated so far by this generator
+	 * that have been compiled into a direct call, since they have a single dynamic target.
+	 */
+
+	private int devirtualizedCallSites;
+
+	/**
+	 * The shared string literals used by the code of this class, bound to the
+	 * name of the static field that holds them, in order of first use.
+	 */
+
+	private final Map<String, String> literals = new LinkedHashMap<>();
+
+	/**
+	 * True if and only if the fields for {@link #literals} have been added to this class.
+	 */
+
+	private boolean literalsAdded;
+
+	/**
+	 * True if and only if the class is generated in the format of Java 7,
+	 * with stack map frames (see {@link StackMapWriter}).
+	 */
+
+	private boolean stackMapFrames;
+
+	/**
+	 * The peephole optimizer applied to the Java bytecode of the methods of this class.
+	 */
+
+	private final PeepholeOptimizer peephole = new PeepholeOptimizer();
+
+	/**
+	 * The jumps to the code of a block, generated for the method being generated.
+	 */
+
+	private final List<BranchInstruction> jumps = new ArrayList<>();
+
+	/**
+	 * The blocks where each of {@link #jumps} must jump.
+	 */
+
+	private final List<Block> jumpTargets = new ArrayList<>();
+
+	/**
+	 * The branches that jump right after an instruction, generated for the method being generated.
+	 */
+
+	private final List<BranchInstruction> branchesAfter = new ArrayList<>();
+
+	/**
+	 * The instructions right after which each of {@link #branchesAfter} must jump.
+	 */
+
+	private final List<InstructionHandle> marksAfter = new ArrayList<>();
+
+	/**
+	 * The maximal height of the stack used by the last code generated
+	 * through {@link #generateJavaBytecode(Block)}.
+	 */
+
+	private int maxStack;
+
+	/**
+	 * The number of local variables used by the last code generated
+	 * through {@link #generateJavaBytecode(Block)}.
+	 */
+
+	private int maxLocals;
+
 	/**
 	 * Builds a class generator for the given class type.
 	 *
 	 * @param clazz the class type
 	 * @param sigs a set of class member signatures. These are those that must be
 	 *             translated. If this is {@code null}, all class members are translated
+	 * @param context the context of the compilation of the Kitten classes
 	 */
 
-	public JavaClassGenerator(String class_name, String super_class_name, String source_file) {
+	public JavaClassGenerator(String class_name, String super_class_name, String source_file, CompilationContext context) {
 		super(class_name, // name of the class
 			// the superclass of the Kitten Object class is set to be the Java java.lang.Object class
 			super_class_name,
@@ -71,6 +168,7 @@ public class JavaClassGenerator extends ClassGen {
 		// in the previous constant pool. This is useful for generating
 		// complex bytecodes that access the constant pool
 		this.factory = new InstructionFactory(getConstantPool());
+		this.context = context;
 /*
 		// we add the fields
 		for (FieldSignature field: clazz.getFields().values())
@@ -101,135 +199,542 @@ public class JavaClassGenerator extends ClassGen {
 		return factory;
 	}
 
+	/**
+	 * Yields the context of the compilation of the Kitten classes whose
+	 * Java bytecode is generated by this generator.
+	 *
+	 * @return the context
+	 */
+
+	public final CompilationContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Yields the Kitten class whose Java bytecode is generated by this generator.
+	 *
+	 * @return the Kitten class. Yields {@code null} if the generated class
+	 *         does not correspond to a Kitten class
+	 */
+
+	public ClassType getKittenClass() {
+		return null;
+	}
+
+	/**
+	 * Takes note that a virtual call site has been generated.
+	 *
+	 * @param devirtualized true if and only if the call site has been
+	 *                      compiled into a direct call
+	 */
+
+	public void countVirtualCallSite(boolean devirtualized) {
+		virtualCallSites++;
+
+		if (devirtualized)
+			devirtualizedCallSites++;
+	}
+
+	/**
+	 * Yields the number of virtual call sites generated so far by this generator.
+	 *
+	 * @return the number of virtual call sites
+	 */
+
+	public int getVirtualCallSites() {
+		return virtualCallSites;
+	}
+
+	/**
+	 * Yields the number of virtual call sites generated so far by this generator
+	 * that have been compiled into a direct call.
+	 *
+	 * @return the number of devirtualized call sites
+	 */
+
+	public int getDevirtualizedCallSites() {
+		return devirtualizedCallSites;
+	}
+
+	/**
+	 * Yields the peephole optimizer applied to the Java bytecode of the methods
+	 * of this class. Subclasses can add further rules to it, before they generate their methods.
+	 *
+	 * @return the peephole optimizer
+	 */
+
+	public PeepholeOptimizer getPeepholeOptimizer() {
+		return peephole;
+	}
+
+	/**
+	 * Yields the name of the static field of this class that holds the shared
+	 * {@code runTime.String} for the given literal. The field is created if needed:
+	 * it is private, since each class has its own, and it is initialised when the class
+	 * gets initialised, so that each literal is allocated only once.
+	 *
+	 * @param value the lexical value of the literal
+	 * @return the name of the field
+	 */
+
+	public String getLiteralField(String value) {
+		String field = literals.get(value);
+		if (field == null) {
+			if (literalsAdded)
+				throw new IllegalStateException("the class " + getClassName() + " has been already generated");
+
+			// this is not a legal Kitten identifier, hence it does not clash with other fields
+			literals.put(value, field = "literal$" + literals.size());
+		}
+
+		return field;
+	}
+
+	/**
+	 * Determines if the class is generated in the format of Java 7, with the
+	 * stack map frames that let the Java virtual machine verify its code
+	 * in a single pass, or in the old format generated by BCEL, that is the default.
+	 *
+	 * @param stackMapFrames true if and only if the class must be generated with stack map frames
+	 */
+
+	public void setStackMapFrames(boolean stackMapFrames) {
+		this.stackMapFrames = stackMapFrames;
+	}
+
+	/**
+	 * Yields the Java class generated by this generator. It adds the fields
+	 * for the shared string literals first, together with the static initialiser
+	 * of the class that initialises them. The class contains the stack map frames
+	 * of its methods if so required (see {@link #setStackMapFrames(boolean)}).
+	 *
+	 * @return the Java class
+	 */
+
+	@Override
+	public JavaClass getJavaClass() {
+		if (!literalsAdded && !literals.isEmpty()) {
+			literalsAdded = true;
+			addLiterals();
+		}
+
+		JavaClass result = super.getJavaClass();
+
+		return stackMapFrames ? new StackMapWriter(this).write(result) : result;
+	}
+
+	/**
+	 * Adds the fields for the shared string literals and the static initialiser
+	 * that initialises them through {@code runTime.String.literal()}.
+	 */
+
+	private void addLiterals() {
+		ObjectType kittenString = new ObjectType(runTime.String.class.getName());
+		InstructionList il = new InstructionList();
+
+		for (Map.Entry<String, String> literal: literals.entrySet()) {
+			addField(new FieldGen(Constants.ACC_PRIVATE | Constants.ACC_STATIC | Constants.ACC_FINAL
+				| Constants.ACC_SYNTHETIC, kittenString, literal.getValue(), getConstantPool()).getField());
+
+			il.append(factory.createConstant(literal.getKey()));
+			il.append(factory.createInvoke(kittenString.getClassName(), "literal", kittenString,
+				new Type[] { Type.STRING }, Constants.INVOKESTATIC));
+			il.append(factory.createPutStatic(getClassName(), literal.getValue(), kittenString));
+		}
+
+		il.append(InstructionFactory.RETURN);
+
+		MethodGen clinit = new MethodGen(Constants.ACC_STATIC, Type.VOID, Type.NO_ARGS, null,
+			Constants.STATIC_INITIALIZER_NAME, getClassName(), il, getConstantPool());
+		clinit.setMaxStack();
+		clinit.setMaxLocals();
+		addMethod(clinit.getMethod());
+	}
+
 	/**
 	 * Generates the Java bytecode for the given block of code and for all
-	 * blocks reachable from it. It calls {@link #generateJavaBytecodeFollows(Block, Map, InstructionList)}
-	 * and then {@link #removeRedundancies(InstructionList)}.
+	 * blocks reachable from it. The blocks are laid out in the order computed by
+	 * {@link #layout(BlockGraph, int[])} and their code is appended to a single
+	 * list of instructions, each block followed by the <i>glue</i> towards its followers,
+	 * generated through {@link #generateJavaBytecodeFollows(Block, Block, BlockGraph, InstructionList)}.
+	 * The jumps to blocks that have not been generated yet are fixed at the end.
+	 * The result is finally simplified through the peephole optimizer of this class.
+	 * The blocks that contain no code and have a single follower are never laid out:
+	 * the jumps to them go directly to their follower. The blocks that contain no code
+	 * and end with a branch are copied at the end of the blocks that jump to them.
+	 * This method also computes the maximal height of the stack and the number of local
+	 * variables used by the code, that can be later set through {@link #setMaxStackAndLocals(MethodGen)}.
 	 *
 	 * @param block the code from which the generation starts
 	 * @return the Java bytecode for {@code block} and all blocks reachable from it
 	 */
 
 	public InstructionList generateJavaBytecode(Block block) {
-		InstructionList instructions = new InstructionList();
+		InstructionList il = new InstructionList();
+		BlockGraph graph = new BlockGraph(block).visitAll();
+		List<Block> layout = layout(graph, stronglyConnectedComponents(graph));
+
+		// the last instruction generated before the code of each block, indexed by the
+		// identifier of the block in the graph. It is null for the first block of the method.
+		// The code of a block starts right after its mark, but it is not known yet when
+		// the mark is taken, and it might be the code of the subsequent block, if the
+		// block generates no Java bytecode
+		InstructionHandle[] marks = new InstructionHandle[graph.size()];
+
+		jumps.clear();
+		jumpTargets.clear();
+		branchesAfter.clear();
+		marksAfter.clear();
+
+		for (int pos = 0; pos < layout.size(); pos++) {
+			Block laid = layout.get(pos);
+			marks[graph.idOf(laid)] = il.getEnd();
+			laid.getBytecode().generateJavaBytecode(il, this);
+			generateJavaBytecodeFollows(laid, pos + 1 < layout.size() ? layout.get(pos + 1) : null, graph, il);
+		}
+
+		// we let the jumps go to the code of their target blocks
+		for (int pos = 0; pos < jumps.size(); pos++) {
+			InstructionHandle mark = marks[graph.idOf(jumpTargets.get(pos))];
+			jumps.get(pos).setTarget(mark == null ? il.getStart() : mark.getNext());
+		}
 
-		generateJavaBytecode(block, new HashMap<Block, InstructionHandle>(), instructions);
+		for (int pos = 0; pos < branchesAfter.size(); pos++)
+			branchesAfter.get(pos).setTarget(marksAfter.get(pos).getNext());
 
-		return removeRedundancies(instructions);
+		computeMaxStackAndLocals(graph);
+
+		return peephole.optimize(il);
 	}
 
 	/**
-	 * Auxiliary method that generates the Java bytecode for the given block
-	 * of code and for all blocks reachable from it. It uses a set of processed
-	 * blocks in order to avoid looping.
+	 * Sets the target of a branch instruction to the instruction that will be generated
+	 * right after the given one. This is used by the Kitten bytecodes whose Java bytecode
+	 * jumps to the code that follows it, since that code has not been generated yet.
+	 * The target is set at the end of {@link #generateJavaBytecode(Block)}.
 	 *
-	 * @param block the block from which the code generation starts
-	 * @param done the set of blocks which have been already processed
-	 * @param instructions the Java bytecode that has already been generated.
-	 *                     It gets modified in order to include the Java bytecode generated
-	 *                     for {@code block} and for those that are reachable from it
-	 * @return a reference to the first instruction of the Java bytecode
-	 *         generated for this block
+	 * @param branch the branch instruction
+	 * @param mark the instruction after which the branch must jump
 	 */
 
-	private InstructionHandle generateJavaBytecode(Block block, Map<Block, InstructionHandle> done, InstructionList instructions) {
-		// we first check if we already processed the block
-		InstructionHandle result = done.get(block);
-		if (result != null)
-			return result;
+	public void setTargetAfter(BranchInstruction branch, InstructionHandle mark) {
+		branchesAfter.add(branch);
+		marksAfter.add(mark);
+	}
+
+	/**
+	 * Sets the maximal height of the stack and the number of local variables of a method,
+	 * whose code has been just generated through {@link #generateJavaBytecode(Block)}.
+	 * They are computed from the Kitten code of the method, instead of scanning its
+	 * Java bytecode. The local variables include the parameters of the method.
+	 *
+	 * @param method the generator of the method
+	 */
 
-		// this is the first time that we process the block!
+	public void setMaxStackAndLocals(MethodGen method) {
+		int locals = method.isStatic() ? 0 : 1;
+		for (Type argument: method.getArgumentTypes())
+			locals += argument.getSize();
 
-		// we generate the Java bytecode for the code inside the block, and
-		// we put it at the end of the instructions already generated
-		result = instructions.append(block.getBytecode().generateJavaBytecode(this));
+		method.setMaxStack(maxStack);
+		method.setMaxLocals(Math.max(maxLocals, locals));
+	}
 
-		// we record the beginning of the Java bytecode generated for the block, for future lookup
-		done.put(block, result);
+	/**
+	 * Computes the maximal height of the stack and the number of local variables
+	 * used by the Kitten code in the given graph. The height of the stack at the
+	 * beginning of each block is propagated from the first block of the graph, where
+	 * the stack is empty. The height of the stack at the end of a block is the
+	 * height at the beginning of all its followers. The Java bytecode generated for
+	 * each Kitten bytecode uses the same stack elements, plus possibly some scratch
+	 * elements (see {@link Bytecode#getExtraStack()}).
+	 *
+	 * @param graph the graph of the blocks
+	 */
 
-		// we process the following blocks
-		generateJavaBytecodeFollows(block, done, instructions);
+	private void computeMaxStackAndLocals(BlockGraph graph) {
+		int[] heights = new int[graph.size()];
+		Arrays.fill(heights, -1);
+		Deque<Integer> pending = new ArrayDeque<>();
+		heights[0] = 0;
+		pending.push(0);
+		maxStack = maxLocals = 0;
+
+		while (!pending.isEmpty()) {
+			Block block = graph.get(pending.pop());
+			int height = heights[graph.idOf(block)];
+
+			for (Bytecode bytecode: block.getBytecode()) {
+				int after = height - bytecode.getConsumedStack() + bytecode.getProducedStack();
+				maxStack = Math.max(maxStack, Math.max(height, after) + bytecode.getExtraStack());
+				height = after;
+
+				if (bytecode instanceof LOAD)
+					maxLocals = Math.max(maxLocals, ((LOAD) bytecode).getVarNum() + 1);
+				else if (bytecode instanceof STORE)
+					maxLocals = Math.max(maxLocals, ((STORE) bytecode).getVarNum() + 1);
+			}
 
-		// we return the beginning of the Java bytecode generated for the block
-		return result;
+			for (Block follow: block.getFollows()) {
+				int id = graph.idOf(follow);
+				if (heights[id] < 0) {
+					heights[id] = height;
+					pending.push(id);
+				}
+			}
+		}
 	}
 
 	/**
-	 * Auxiliary method that generates the Java bytecode for the blocks
-	 * that follow a given block. That Java bytecode might include some
-	 * <i>glue</i>, such as the conditional Java bytecode for the branching code blocks.
+	 * Determines if the given block generates no Java bytecode, since it
+	 * contains only {@code nop} bytecodes and the condition of a branch.
 	 *
-	 * @param block the block for whose followers the code is being generated
-	 * @param done the set of blocks which have been already processed
-	 * @param instructions the Java bytecode that has already been generated from the predecessors
-	 *                     and from the code of {@code block}. It gets modified
-	 *                     in order to include the Java bytecode generated for the followers
-	 *                     of {@code block}, including some <i>glue</i>
+	 * @param block the block
+	 * @return true if and only if the block generates no Java bytecode
 	 */
- 
-	private void generateJavaBytecodeFollows(Block block, Map<Block, InstructionHandle> done, InstructionList instructions) {
-		List<Block> follows = block.getFollows();
 
-		// this is where the Java bytecode currently ends
-		InstructionHandle ourLast = instructions.getEnd();
+	private static boolean isEmpty(Block block) {
+		for (Bytecode bytecode: block.getBytecode())
+			if (!(bytecode instanceof NOP) && !(bytecode instanceof BranchingBytecode))
+				return false;
+
+		return true;
+	}
 
-		if (!follows.isEmpty())
-			if (follows.get(0).getBytecode().getHead() instanceof BranchingBytecode) {
-				// we are facing a branch due to a comparison bytecode. That bytecode
-				// and its negation are at the beginning of our two following blocks
+	/**
+	 * Yields the first block, starting at the given one, that is not an empty block
+	 * with a single follower. The result is the block that is actually executed
+	 * when the computation reaches the given block.
+	 *
+	 * @param block the block
+	 * @param graph the graph of the blocks
+	 * @return the first block, starting at {@code block}, that is not an empty block
+	 *         with a single follower. If there is no such block, since empty blocks
+	 *         form a loop, then {@code block} itself is returned
+	 */
 
-				// we get the condition of the branching
-				BranchingBytecode condition = (BranchingBytecode) follows.get(0).getBytecode().getHead();
+	private static Block skip(Block block, BlockGraph graph) {
+		Block cursor = block;
 
-				// we append the code for the two blocks that follow the block
-				InstructionHandle noH = generateJavaBytecode(follows.get(1), done, instructions);
-				InstructionHandle yesH = generateJavaBytecode(follows.get(0), done, instructions);
+		// the number of steps is bounded, in order to stop at loops of empty blocks
+		for (int steps = 0; isEmpty(cursor) && cursor.getFollows().size() == 1; steps++)
+			if (steps == graph.size())
+				return block;
+			else
+				cursor = cursor.getFollows().get(0);
 
-				// in between, we put some code that jumps to yesH if condition holds, and to noH otherwise
-				instructions.append(ourLast, condition.generateJavaBytecode(this, yesH, noH));
-			}
-			else {
-				// we append the code for the first follower
-				InstructionHandle followJB = generateJavaBytecode(follows.get(0), done, instructions);
-
-				// in between, we put a goto bytecode. Note that we need it since we have no guarantee
-				// that the code for follows will be appended exactly after that for the block. The
-				// follows blocks might indeed have been already translated into Java bytecode, and hence
-				// followJB might be an internal program point in instructions
-				instructions.append(ourLast, new GOTO(followJB));
-			}
+		return cursor;
 	}
 
 	/**
-	 * Simplifies a piece of Java bytecode, by removing:
-	 * <ul>
-	 * <li> {@code nop} bytecodes
-	 * <li> {@code goto} bytecodes that jump to their subsequent program point
-	 * </ul>
+	 * Yields the block that holds the branch executed at the end of the given block, if any.
+	 * This is either the block itself, or an empty block where the given block flows into.
 	 *
-	 * @param il the Java bytecode which must be simplified
-	 * @return the same Java bytecode, simplified as above
+	 * @param block the block
+	 * @param graph the graph of the blocks
+	 * @return the block, whose two followers start with the conditions of the branch.
+	 *         Yields {@code null} if {@code block} does not end with a branch
 	 */
 
-	private InstructionList removeRedundancies(InstructionList il) {
-		@SuppressWarnings("unchecked")
-		Iterator<InstructionHandle> it = il.iterator();
+	private static Block branch(Block block, BlockGraph graph) {
+		List<Block> follows = block.getFollows();
+
+		if (follows.size() == 2)
+			return block;
+		else if (follows.size() == 1) {
+			Block target = skip(follows.get(0), graph);
+			if (isEmpty(target) && target.getFollows().size() == 2)
+				return target;
+		}
 
-		while (it.hasNext()) {
-			InstructionHandle handle = it.next();
-			Instruction instruction = handle.getInstruction();
+		return null;
+	}
 
-			if (instruction instanceof org.apache.bcel.generic.NOP ||
-					(instruction instanceof GOTO && ((GOTO) instruction).getTarget() == handle.getNext()))
-				try {
-					il.redirectBranches(handle, handle.getNext());
-					il.delete(handle);
+	/**
+	 * Computes the strongly connected components of the given graph of blocks, through
+	 * an iterative version of Tarjan's algorithm. Two blocks belong to the same
+	 * component if and only if they belong to a same loop.
+	 *
+	 * @param graph the graph of the blocks
+	 * @return the component of each block, indexed by the identifier of the block in the graph
+	 */
+
+	private static int[] stronglyConnectedComponents(BlockGraph graph) {
+		int size = graph.size();
+		int[] index = new int[size], lowLink = new int[size], component = new int[size], next = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size], calls = new int[size];
+		int counter = 0, stackSize = 0, components = 0;
+
+		Arrays.fill(index, -1);
+
+		for (int root = 0; root < size; root++) {
+			if (index[root] >= 0)
+				continue;
+
+			int depth = 0;
+			calls[depth++] = root;
+			index[root] = lowLink[root] = counter++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+
+			while (depth > 0) {
+				int id = calls[depth - 1];
+				List<Block> follows = graph.get(id).getFollows();
+
+				if (next[id] < follows.size()) {
+					int follow = graph.idOf(follows.get(next[id]++));
+
+					if (index[follow] < 0) {
+						index[follow] = lowLink[follow] = counter++;
+						stack[stackSize++] = follow;
+						onStack[follow] = true;
+						calls[depth++] = follow;
+					}
+					else if (onStack[follow])
+						lowLink[id] = Math.min(lowLink[id], index[follow]);
 				}
-				catch (TargetLostException e) {
-					// impossible
+				else {
+					// all followers have been processed
+					if (lowLink[id] == index[id]) {
+						int member;
+						do {
+							member = stack[--stackSize];
+							onStack[member] = false;
+							component[member] = components;
+						}
+						while (member != id);
+
+						components++;
+					}
+
+					if (--depth > 0)
+						lowLink[calls[depth - 1]] = Math.min(lowLink[calls[depth - 1]], lowLink[id]);
 				}
+			}
 		}
 
-		return il;
+		return component;
+	}
+
+	/**
+	 * Computes the order in which the blocks reachable from the first block of
+	 * the given graph are laid out. The blocks are laid out in chains: each block
+	 * is followed by the block where it jumps or, if it ends with a branch, by the
+	 * more likely of its two targets, if not already laid out. The target that remains
+	 * inside the loop of the branch is considered more likely than a target that
+	 * leaves the loop, so that loop bodies fall through from their condition.
+	 * Otherwise, the <i>yes</i> target is considered more likely. The other target
+	 * is laid out later. The empty blocks with a single follower are never laid out.
+	 *
+	 * @param graph the graph of the blocks
+	 * @param components the strongly connected components of the blocks
+	 * @return the blocks, in the order in which they must be laid out
+	 */
+
+	private static List<Block> layout(BlockGraph graph, int[] components) {
+		List<Block> layout = new ArrayList<>();
+		boolean[] placed = new boolean[graph.size()];
+		Deque<Block> pending = new ArrayDeque<>();
+		pending.push(skip(graph.get(0), graph));
+
+		while (!pending.isEmpty())
+			for (Block block = pending.pop(); block != null && !placed[graph.idOf(block)]; ) {
+				placed[graph.idOf(block)] = true;
+				layout.add(block);
+
+				Block branch = branch(block, graph);
+				if (branch != null) {
+					Block yes = skip(branch.getFollows().get(0), graph);
+					Block no = skip(branch.getFollows().get(1), graph);
+					int loop = components[graph.idOf(branch)];
+
+					if (components[graph.idOf(no)] == loop && components[graph.idOf(yes)] != loop) {
+						pending.push(yes);
+						block = no;
+					}
+					else {
+						pending.push(no);
+						block = yes;
+					}
+				}
+				else if (block.getFollows().size() == 1)
+					block = skip(block.getFollows().get(0), graph);
+				else
+					block = null;
+			}
+
+		return layout;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Auxiliary method that generates the Java bytecode that glues a block to
+	 * its followers, such as the conditional Java bytecode for the branching code
+	 * blocks. It is put right after the Java bytecode generated for the block.
+	 * If the block ends with a branch and its <i>yes</i> target is laid out
+	 * right after it, then the condition of the branch is negated, so that the
+	 * computation falls through to that target. No {@code goto} is generated
+	 * towards the block laid out right after {@code block}.
+	 *
+	 * @param block the block for whose followers the code is being generated
+	 * @param next the block laid out right after {@code block}, if any
+	 * @param graph the graph of the blocks, which identifies each block
+	 * @param il the Java bytecode generated so far, where the glue is appended
+	 */
+ 
+	private void generateJavaBytecodeFollows(Block block, Block next, BlockGraph graph, InstructionList il) {
+		Block branch = branch(block, graph);
+
+		if (branch != null) {
+			// we are facing a branch due to a comparison bytecode. That bytecode
+			// and its negation are at the beginning of the two following blocks of the branch
+			List<Block> follows = branch.getFollows();
+			Block yes = skip(follows.get(0), graph);
+			Block no = skip(follows.get(1), graph);
+
+			// we put some code that jumps to yes if condition holds, and to no otherwise
+			if (yes == next)
+				jumpTo(((BranchingBytecode) follows.get(1).getBytecode().getHead()).generateJavaBytecode(il, this), no);
+			else {
+				jumpTo(((BranchingBytecode) follows.get(0).getBytecode().getHead()).generateJavaBytecode(il, this), yes);
+
+				if (no != next)
+					jumpTo(new GOTO(null), no, il);
+			}
+		}
+		else if (block.getFollows().size() == 1) {
+			Block target = skip(block.getFollows().get(0), graph);
+
+			// we need a goto bytecode unless the target is laid out right after this block
+			if (target != next)
+				jumpTo(new GOTO(null), target, il);
+		}
+	}
+
+	/**
+	 * Takes note that the given branch instruction jumps to the code of the given block.
+	 * Its target is set at the end of {@link #generateJavaBytecode(Block)}, since the
+	 * code of the block might not have been generated yet.
+	 *
+	 * @param branch the branch instruction
+	 * @param target the block
+	 */
+
+	private void jumpTo(BranchInstruction branch, Block target) {
+		jumps.add(branch);
+		jumpTargets.add(target);
+	}
+
+	/**
+	 * Appends a {@code goto} to the given Java bytecode and takes note that it
+	 * jumps to the code of the given block.
+	 *
+	 * @param jump the {@code goto}
+	 * @param target the block
+	 * @param il the Java bytecode where {@code jump} is appended
+	 */
+
+	private void jumpTo(GOTO jump, Block target, InstructionList il) {
+		il.append(jump);
+		jumpTo(jump, target);
+	}}
\ No newline at end of file
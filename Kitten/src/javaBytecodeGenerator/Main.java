@@ -1,47 +1,45 @@
 package javaBytecodeGenerator;
 
-import errorMsg.ErrorMsg;
-import types.ClassType;
-import translation.Program;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import types.CompilationContext;
 
 public class Main {
 	public static void main(String[] args) {
-		if (args.length == 0) {
-			System.out.println("You must specify a Kitten class name to compile");
-			return;
+		// the compilation can be delegated to a compile daemon, that keeps a warm compiler
+		String port = null;
+		List<String> rest = new ArrayList<>();
+		for (int pos = 0; pos < args.length; pos++)
+			if (args[pos].equals("-daemon") && pos + 1 < args.length)
+				port = args[++pos];
+			else
+				rest.add(args[pos]);
+
+		args = rest.toArray(new String[rest.size()]);
+
+		// the options come before the name of the class to compile
+		Compiler compiler = new Compiler();
+		String fileName = compiler.parseOptions(args, System.out);
+
+		if (fileName == null) {
+			System.out.println("Options:");
+			Compiler.printOptions(System.out);
+			System.out.println("  -daemon n    compile through the compile daemon listening on the local port n");
 		}
-
-		long totalTime = System.currentTimeMillis();
-
-		// we build the class type for the file name passed as a parameter.
-		// This triggers type-checking of that class and of all classes referenced from it
-		long time = System.currentTimeMillis();
-		ClassType clazz = ClassType.mkFromFileName(args[0]);
-		ErrorMsg errorMsg = clazz.getErrorMsg();
-		System.out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
-
-		// if this class did not parse and type-check correctly,
-		// we cannot translate the program into intermediate Kitten code
-		if (errorMsg != null && !errorMsg.anyErrors()) {
-			time = System.currentTimeMillis();
-			// we translate this class into Kitten bytecode
-			Program program = clazz.translate();
-
-			System.out.println("Translation into Kitten bytecode completed \t[" + (System.currentTimeMillis() - time) + "ms]");
-
-			time = System.currentTimeMillis();
-			program.dumpCodeDot();
-
-			System.out.println("Kitten bytecode dumping in dot format completed\t[" + (System.currentTimeMillis() - time) + "ms]");
-
-			// we translate, into Java bytecode, the Kitten code of every class member which
-		    // is reachable from the class we translated. This also generates the class files
-		    program.generateJavaBytecode();
-		    program.generateJavaBytecodeForTest();
-
-		    System.out.println("Java bytecode generation completed       \t[" + (System.currentTimeMillis() - time) + "ms]");
-		}
-
-		System.out.println("Total compilation time was " + (System.currentTimeMillis() - totalTime) + "ms");
+		else if (port != null)
+			try {
+				Daemon.request(Integer.parseInt(port), new File("."), args, System.out);
+			}
+			catch (NumberFormatException e) {
+				System.out.println("The port of the compile daemon must be a number, not " + port);
+			}
+			catch (IOException e) {
+				System.out.println("Cannot reach the compile daemon on port " + port + ": " + e.getMessage());
+			}
+		else
+			compiler.compile(new CompilationContext(), fileName, System.out);
 	}
-}
\ No newline at end of file
+}
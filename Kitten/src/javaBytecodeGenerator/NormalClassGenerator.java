@@ -2,10 +2,13 @@ package javaBytecodeGenerator;
 
 import java.util.Set;
 
+import org.apache.bcel.Constants;
+
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.ConstructorSignature;
 import types.FieldSignature;
+import types.HelperSignature;
 import types.MethodSignature;
 
 /**
@@ -19,6 +22,12 @@ import types.MethodSignature;
 @SuppressWarnings("serial")
 public class NormalClassGenerator extends JavaClassGenerator {
 
+	/**
+	 * The Kitten class whose Java bytecode is generated.
+	 */
+
+	private final ClassType clazz;
+
 	/**
 	 * Builds a class generator for the given class type.
 	 *
@@ -30,9 +39,17 @@ public class NormalClassGenerator extends JavaClassGenerator {
 		super(clazz.getName(), // name of the class
 			// the superclass of the Kitten Object class is set to be the Java java.lang.Object class
 			clazz.getSuperclass() != null ? clazz.getSuperclass().getName() : "java.lang.Object",
-			clazz.getName() + ".kit" // source file
+			clazz.getName() + ".kit", // source file
+			clazz.getContext() // context of the compilation
 			);
 
+		this.clazz = clazz;
+
+		// a class without subclasses is final, so that the Java virtual machine
+		// can bind the calls to its methods statically
+		if (clazz.getInstances().size() == 1)
+			setAccessFlags(getAccessFlags() | Constants.ACC_FINAL);
+
 		// we add the fields
 		for (FieldSignature field: clazz.getFields().values())
 			if (sigs.contains(field))
@@ -46,7 +63,17 @@ public class NormalClassGenerator extends JavaClassGenerator {
 		// we add the methods
 		for (Set<MethodSignature> s: clazz.getMethods().values())
 			for (MethodSignature method: s)
-				if (sigs.contains(method))
+				if (sigs.contains(method)) {
 					method.createMethod(this);
+
+					// and the helpers outlined from their code, if any
+					for (HelperSignature helper: method.getHelpers())
+						helper.createHelper(this);
+				}
+	}
+
+	@Override
+	public ClassType getKittenClass() {
+		return clazz;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package javaBytecodeGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.bcel.generic.BranchInstruction;
+import org.apache.bcel.generic.IINC;
+import org.apache.bcel.generic.Instruction;
+import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.LoadInstruction;
+import org.apache.bcel.generic.LocalVariableInstruction;
+import org.apache.bcel.generic.Select;
+
+/**
+ * A peephole optimizer of the Java bytecode of a method. It scans the instructions
+ * of the method and applies the first of its {@link PeepholeRule}s that matches
+ * at each position, until no rule matches anymore. It counts how many times each
+ * rule has been applied. An optimizer is used by a single class generator, hence
+ * it is not thread-safe.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class PeepholeOptimizer {
+
+	/**
+	 * The rules applied by this optimizer, in order of priority.
+	 */
+
+	private final List<PeepholeRule> rules = new ArrayList<>();
+
+	/**
+	 * The number of times each rule has been applied, indexed by the name of the rule.
+	 */
+
+	private final Map<String, Integer> hits = new LinkedHashMap<>();
+
+	/**
+	 * The number of uses of each local variable in the method being optimized.
+	 */
+
+	private int[] uses;
+
+	/**
+	 * Builds a peephole optimizer with the default rules: the increments of
+	 * a local variable by a constant become {@code iinc}, the comparisons against
+	 * {@code 0} or {@code null} become single-operand comparisons and a store
+	 * immediately followed by the only load of the same variable disappears.
+	 */
+
+	public PeepholeOptimizer() {
+		addRule(new IincRule());
+		addRule(new ZeroComparisonRule());
+		addRule(new StoreLoadRule());
+	}
+
+	/**
+	 * Adds a rule to this optimizer. It is tried after those already added.
+	 *
+	 * @param rule the rule
+	 */
+
+	public void addRule(PeepholeRule rule) {
+		rules.add(rule);
+
+		if (!hits.containsKey(rule.getName()))
+			hits.put(rule.getName(), 0);
+	}
+
+	/**
+	 * Yields the number of times each rule has been applied so far.
+	 *
+	 * @return a map from the name of each rule to the number of its applications,
+	 *         in the order in which the rules have been added
+	 */
+
+	public Map<String, Integer> getHits() {
+		return hits;
+	}
+
+	/**
+	 * Yields the number of instructions in the method being optimized that read the
+	 * given local variable. This number might be larger than the actual one, since
+	 * it is computed before each scan of the method, but it is never smaller.
+	 *
+	 * @param index the number of the local variable
+	 * @return the number of instructions that read the variable
+	 */
+
+	public int countUses(int index) {
+		return index < uses.length ? uses[index] : 0;
+	}
+
+	/**
+	 * Optimizes the given Java bytecode of a method. The result is built as a new list
+	 * instead of modifying {@code il} in place, since the deletion of instructions
+	 * lets BCEL recycle their handles through its global free list, that is not thread-safe.
+	 *
+	 * @param il the Java bytecode
+	 * @return the optimized Java bytecode
+	 */
+
+	public InstructionList optimize(InstructionList il) {
+		InstructionList result = il;
+
+		for (InstructionList next = scan(result); next != null; next = scan(result))
+			result = next;
+
+		return result;
+	}
+
+	/**
+	 * Scans the given Java bytecode and applies the rules of this optimizer.
+	 *
+	 * @param il the Java bytecode
+	 * @return the rewritten Java bytecode, or {@code null} if no rule has been applied
+	 */
+
+	private InstructionList scan(InstructionList il) {
+		InstructionHandle[] handles = il.getInstructionHandles();
+		int length = handles.length;
+
+		Map<InstructionHandle, Integer> positions = new IdentityHashMap<>();
+		for (int pos = 0; pos < length; pos++)
+			positions.put(handles[pos], pos);
+
+		// targeted[pos] holds if the instruction at pos is the target of a branch
+		boolean[] targeted = new boolean[length];
+		uses = new int[0];
+		for (InstructionHandle handle: handles) {
+			Instruction instruction = handle.getInstruction();
+
+			if (instruction instanceof BranchInstruction) {
+				targeted[positions.get(((BranchInstruction) instruction).getTarget())] = true;
+				if (instruction instanceof Select)
+					for (InstructionHandle target: ((Select) instruction).getTargets())
+						targeted[positions.get(target)] = true;
+			}
+			else if (instruction instanceof LoadInstruction || instruction instanceof IINC) {
+				int index = ((LocalVariableInstruction) instruction).getIndex();
+				if (index >= uses.length)
+					uses = Arrays.copyOf(uses, Math.max(index + 1, uses.length * 2));
+
+				uses[index]++;
+			}
+		}
+
+		// the instructions of the result, and the position in the result
+		// where the branches to each original instruction must jump
+		List<Instruction> rewritten = new ArrayList<>();
+		int[] starts = new int[length];
+		boolean changed = false;
+
+		for (int pos = 0; pos < length; ) {
+			starts[pos] = rewritten.size();
+			Instruction[] replacement = null;
+
+			for (PeepholeRule rule: rules)
+				if ((replacement = apply(rule, handles, pos, targeted)) != null) {
+					hits.put(rule.getName(), hits.get(rule.getName()) + 1);
+					changed = true;
+
+					for (Instruction instruction: replacement)
+						rewritten.add(instruction);
+
+					pos += rule.getLength();
+					break;
+				}
+
+			if (replacement == null)
+				rewritten.add(handles[pos++].getInstruction());
+		}
+
+		if (!changed)
+			return null;
+
+		InstructionList result = new InstructionList();
+		InstructionHandle[] copies = new InstructionHandle[rewritten.size()];
+		for (int pos = 0; pos < copies.length; pos++) {
+			Instruction instruction = rewritten.get(pos);
+			if (instruction instanceof BranchInstruction)
+				copies[pos] = result.append((BranchInstruction) instruction);
+			else
+				copies[pos] = result.append(instruction);
+		}
+
+		// the branches still jump inside the original code: we let them jump inside the result
+		for (InstructionHandle copy: copies)
+			if (copy.getInstruction() instanceof BranchInstruction) {
+				BranchInstruction branch = (BranchInstruction) copy.getInstruction();
+
+				if (branch instanceof Select) {
+					InstructionHandle[] targets = ((Select) branch).getTargets();
+					for (int target = 0; target < targets.length; target++)
+						((Select) branch).setTarget(target, copies[starts[positions.get(targets[target])]]);
+				}
+
+				branch.setTarget(copies[starts[positions.get(branch.getTarget())]]);
+			}
+
+		return result;
+	}
+
+	/**
+	 * Tries to apply a rule at a given position of the Java bytecode of a method.
+	 *
+	 * @param rule the rule
+	 * @param handles the instructions of the method
+	 * @param pos the position
+	 * @param targeted the positions of the instructions that are targets of a branch
+	 * @return the replacement of the instructions matched by the rule,
+	 *         or {@code null} if the rule cannot be applied at {@code pos}
+	 */
+
+	private Instruction[] apply(PeepholeRule rule, InstructionHandle[] handles, int pos, boolean[] targeted) {
+		int length = rule.getLength();
+		if (pos + length > handles.length)
+			return null;
+
+		// only the first instruction of the window can be the target of a branch
+		Instruction[] window = new Instruction[length];
+		for (int cursor = 0; cursor < length; cursor++)
+			if (cursor > 0 && targeted[pos + cursor])
+				return null;
+			else
+				window[cursor] = handles[pos + cursor].getInstruction();
+
+		Instruction[] replacement = rule.rewrite(window, this);
+
+		// the last instructions of the method cannot be removed, since branches to
+		// them would have no subsequent instruction where they could be redirected
+		if (replacement != null && replacement.length == 0 && pos + length == handles.length)
+			return null;
+
+		return replacement;
+	}
+}
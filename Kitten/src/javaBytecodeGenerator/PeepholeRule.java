@@ -0,0 +1,80 @@
+package javaBytecodeGenerator;
+
+import org.apache.bcel.generic.Instruction;
+
+/**
+ * A rewriting rule of a {@link PeepholeOptimizer}. It matches a fixed number of
+ * consecutive Java bytecode instructions and replaces them with an equivalent,
+ * hopefully better, sequence of instructions. Rules need not care about the branches
+ * to the instructions that they rewrite: the optimizer only presents them windows
+ * of instructions where only the first can be the target of a branch, and redirects
+ * the branches to that instruction towards the first instruction of the replacement.
+ * A branch instruction in the replacement must jump to the same instruction handle
+ * where the branch instruction that it replaces jumps. The replacement must never
+ * need more stack elements or local variables than the instructions that it replaces,
+ * since they are computed before the optimization, from the Kitten code of the method.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public abstract class PeepholeRule {
+
+	/**
+	 * The name of this rule, used to report how many times it has been applied.
+	 */
+
+	private final String name;
+
+	/**
+	 * The number of consecutive instructions matched by this rule.
+	 */
+
+	private final int length;
+
+	/**
+	 * Builds a rewriting rule.
+	 *
+	 * @param name the name of the rule
+	 * @param length the number of consecutive instructions matched by the rule
+	 */
+
+	protected PeepholeRule(String name, int length) {
+		if (length < 1)
+			throw new IllegalArgumentException("a peephole rule must match at least an instruction");
+
+		this.name = name;
+		this.length = length;
+	}
+
+	/**
+	 * Yields the name of this rule.
+	 *
+	 * @return the name
+	 */
+
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Yields the number of consecutive instructions matched by this rule.
+	 *
+	 * @return the number of instructions
+	 */
+
+	public final int getLength() {
+		return length;
+	}
+
+	/**
+	 * Tries to rewrite the given instructions.
+	 *
+	 * @param window the {@link #getLength()} consecutive instructions to rewrite
+	 * @param optimizer the optimizer that is applying this rule. It provides
+	 *                  information about the whole method being optimized
+	 * @return the instructions that replace {@code window}, possibly none.
+	 *         Yields {@code null} if this rule does not match {@code window}
+	 */
+
+	protected abstract Instruction[] rewrite(Instruction[] window, PeepholeOptimizer optimizer);
+}
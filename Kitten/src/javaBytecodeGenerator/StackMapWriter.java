@@ -0,0 +1,751 @@
+package javaBytecodeGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.classfile.Attribute;
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.Method;
+import org.apache.bcel.classfile.Unknown;
+import org.apache.bcel.generic.AALOAD;
+import org.apache.bcel.generic.ACONST_NULL;
+import org.apache.bcel.generic.ANEWARRAY;
+import org.apache.bcel.generic.ARRAYLENGTH;
+import org.apache.bcel.generic.ATHROW;
+import org.apache.bcel.generic.BranchInstruction;
+import org.apache.bcel.generic.ConstantPoolGen;
+import org.apache.bcel.generic.DCMPG;
+import org.apache.bcel.generic.DCMPL;
+import org.apache.bcel.generic.DUP;
+import org.apache.bcel.generic.DUP2;
+import org.apache.bcel.generic.DUP_X1;
+import org.apache.bcel.generic.FCMPG;
+import org.apache.bcel.generic.FCMPL;
+import org.apache.bcel.generic.GotoInstruction;
+import org.apache.bcel.generic.INSTANCEOF;
+import org.apache.bcel.generic.INVOKESPECIAL;
+import org.apache.bcel.generic.Instruction;
+import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.InvokeInstruction;
+import org.apache.bcel.generic.JsrInstruction;
+import org.apache.bcel.generic.LCMP;
+import org.apache.bcel.generic.LoadInstruction;
+import org.apache.bcel.generic.MethodGen;
+import org.apache.bcel.generic.NEW;
+import org.apache.bcel.generic.NEWARRAY;
+import org.apache.bcel.generic.POP;
+import org.apache.bcel.generic.POP2;
+import org.apache.bcel.generic.ReturnInstruction;
+import org.apache.bcel.generic.SWAP;
+import org.apache.bcel.generic.Select;
+import org.apache.bcel.generic.StackInstruction;
+import org.apache.bcel.generic.StoreInstruction;
+import org.apache.bcel.generic.Type;
+import org.apache.bcel.generic.TypedInstruction;
+
+import types.ClassType;
+
+/**
+ * A writer of class files with {@code StackMapTable} attributes. BCEL generates class
+ * files in an old format, without stack map frames, that the Java virtual machine verifies
+ * through its slow, type-inferencing verifier. This writer computes instead the stack map
+ * frames of the methods of a class and yields a copy of the class in the format of Java 7,
+ * that the Java virtual machine verifies through its fast, type-checking verifier.
+ * The frames are computed through an abstract interpretation of the Java bytecode of
+ * each method over the verification types of the Java virtual machine. The reference
+ * types flowing into the same program point are merged into their least common superclass,
+ * along the hierarchy of the Kitten classes or, for the classes of the runtime,
+ * along that of the Java classes. A writer is used by a single class generator,
+ * hence it is not thread-safe.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+final class StackMapWriter {
+
+	/**
+	 * The major version of the class files of Java 7, the first that must contain
+	 * stack map frames and can only be verified by the type-checking verifier.
+	 */
+
+	private final static int MAJOR_VERSION = 51;
+
+	/**
+	 * The verification types. Reference types are their Java signature, such as
+	 * {@code Ljava/lang/Object;} or {@code [I}. An object created by a {@code new}
+	 * at offset {@code n} and not yet initialised has type {@link #UNINITIALIZED_THIS}
+	 * followed by {@code n}. The values of type {@code long} and {@code double}
+	 * occupy two elements, the second being {@link #TOP}.
+	 */
+
+	private final static String TOP = "T", INTEGER = "I", FLOAT = "F", LONG = "J", DOUBLE = "D", NULL = "N",
+		UNINITIALIZED_THIS = "U", OBJECT = "Ljava/lang/Object;";
+
+	/**
+	 * The generator of the class whose frames are computed.
+	 */
+
+	private final JavaClassGenerator classGen;
+
+	/**
+	 * The constant pool of the class whose frames are computed.
+	 */
+
+	private final ConstantPoolGen cpg;
+
+	/**
+	 * The superclass of each class, in internal form, such as {@code java/lang/Object}.
+	 * It is {@code null} for {@code java/lang/Object}.
+	 */
+
+	private final Map<String, String> superclasses = new HashMap<>();
+
+	/**
+	 * Builds a writer of class files with stack map frames.
+	 *
+	 * @param classGen the generator of the class whose frames are computed
+	 */
+
+	StackMapWriter(JavaClassGenerator classGen) {
+		this.classGen = classGen;
+		this.cpg = classGen.getConstantPool();
+
+		// the hierarchy of the Kitten classes is not known to the Java class loader
+		for (ClassType clazz: classGen.getContext().getClasses())
+			superclasses.put(clazz.getName(), clazz.getSuperclass() != null ? clazz.getSuperclass().getName() : "java/lang/Object");
+	}
+
+	/**
+	 * Yields a copy of the given class, in the format of Java 7, where each
+	 * method has the {@code StackMapTable} attribute with its frames.
+	 *
+	 * @param clazz the class, generated by the class generator of this writer
+	 * @return the copy of {@code clazz}
+	 */
+
+	JavaClass write(JavaClass clazz) {
+		JavaClass result = clazz.copy();
+		Method[] methods = result.getMethods();
+
+		for (int pos = 0; pos < methods.length; pos++)
+			if (methods[pos].getCode() != null)
+				addStackMapTable(methods[pos]);
+
+		result.setMajor(MAJOR_VERSION);
+		result.setMinor(0);
+
+		// the frames have added constants to the pool
+		result.setConstantPool(cpg.getFinalConstantPool());
+
+		return result;
+	}
+
+	/**
+	 * Adds the {@code StackMapTable} attribute to the code of the given method.
+	 * Nothing is added if the method needs no frame.
+	 *
+	 * @param method the method
+	 */
+
+	private void addStackMapTable(Method method) {
+		Code code = method.getCode();
+		byte[] frames = computeFrames(new MethodGen(method, classGen.getClassName(), cpg));
+		if (frames == null)
+			return;
+
+		Attribute[] attributes = Arrays.copyOf(code.getAttributes(), code.getAttributes().length + 1);
+		attributes[attributes.length - 1] = new Unknown(cpg.addUtf8("StackMapTable"), frames.length, frames, cpg.getConstantPool());
+		code.setAttributes(attributes);
+	}
+
+	/**
+	 * The state of the local variables and of the stack at a program point.
+	 */
+
+	private static class Frame {
+
+		/**
+		 * The type of each local variable.
+		 */
+
+		private final String[] locals;
+
+		/**
+		 * The type of each element of the stack, from its bottom.
+		 */
+
+		private final List<String> stack;
+
+		private Frame(String[] locals, List<String> stack) {
+			this.locals = locals;
+			this.stack = stack;
+		}
+
+		private Frame copy() {
+			return new Frame(locals.clone(), new ArrayList<>(stack));
+		}
+
+		private void push(String type) {
+			stack.add(type);
+		}
+
+		private String pop() {
+			return stack.remove(stack.size() - 1);
+		}
+	}
+
+	/**
+	 * Computes the content of the {@code StackMapTable} attribute of a method.
+	 * A frame is needed at each target of a branch and after each unconditional jump.
+	 *
+	 * @param method the method
+	 * @return the content of the attribute, or {@code null} if no frame is needed
+	 */
+
+	private byte[] computeFrames(MethodGen method) {
+		InstructionHandle[] handles = method.getInstructionList().getInstructionHandles();
+		int length = handles.length;
+
+		Map<InstructionHandle, Integer> positions = new IdentityHashMap<>();
+		for (int pos = 0; pos < length; pos++)
+			positions.put(handles[pos], pos);
+
+		Frame[] frames = new Frame[length];
+		frames[0] = initialFrame(method);
+		boolean[] needed = new boolean[length];
+		Deque<Integer> pending = new ArrayDeque<>();
+		pending.push(0);
+
+		while (!pending.isEmpty()) {
+			int pos = pending.pop();
+			Instruction instruction = handles[pos].getInstruction();
+			Frame frame = frames[pos].copy();
+			execute(instruction, handles[pos].getPosition(), frame);
+
+			if (instruction instanceof BranchInstruction) {
+				List<InstructionHandle> targets = new ArrayList<>();
+				targets.add(((BranchInstruction) instruction).getTarget());
+				if (instruction instanceof Select)
+					targets.addAll(Arrays.asList(((Select) instruction).getTargets()));
+
+				for (InstructionHandle target: targets) {
+					int targetPos = positions.get(target);
+					needed[targetPos] = true;
+					if (flowInto(frame, frames, targetPos))
+						pending.push(targetPos);
+				}
+			}
+
+			if (instruction instanceof GotoInstruction || instruction instanceof Select
+					|| instruction instanceof ReturnInstruction || instruction instanceof ATHROW) {
+				// the subsequent instruction can only be reached through a branch
+				if (pos + 1 < length)
+					needed[pos + 1] = true;
+			}
+			else if (pos + 1 < length && flowInto(frame, frames, pos + 1))
+				pending.push(pos + 1);
+		}
+
+		return encode(method, handles, frames, needed);
+	}
+
+	/**
+	 * Yields the frame at the beginning of a method, where the local
+	 * variables hold the receiver and the parameters of the method.
+	 *
+	 * @param method the method
+	 * @return the frame
+	 */
+
+	private Frame initialFrame(MethodGen method) {
+		String[] locals = new String[method.getMaxLocals()];
+		Arrays.fill(locals, TOP);
+		int slot = 0;
+
+		if (!method.isStatic())
+			locals[slot++] = method.getName().equals(Constants.CONSTRUCTOR_NAME) ?
+				UNINITIALIZED_THIS : "L" + internal(classGen.getClassName()) + ";";
+
+		for (Type argument: method.getArgumentTypes())
+			for (String type: typeOf(argument))
+				locals[slot++] = type;
+
+		return new Frame(locals, new ArrayList<String>());
+	}
+
+	/**
+	 * Merges a frame into that of a program point.
+	 *
+	 * @param frame the frame
+	 * @param frames the frames of the program points
+	 * @param pos the program point
+	 * @return true if and only if the frame of {@code pos} has changed
+	 */
+
+	private boolean flowInto(Frame frame, Frame[] frames, int pos) {
+		Frame old = frames[pos];
+		if (old == null) {
+			frames[pos] = frame.copy();
+			return true;
+		}
+
+		if (old.stack.size() != frame.stack.size())
+			throw new IllegalStateException("inconsistent stack height in " + classGen.getClassName());
+
+		boolean changed = false;
+		for (int slot = 0; slot < old.locals.length; slot++) {
+			String merged = merge(old.locals[slot], frame.locals[slot]);
+			if (!merged.equals(old.locals[slot])) {
+				old.locals[slot] = merged;
+				changed = true;
+			}
+		}
+
+		for (int element = 0; element < old.stack.size(); element++) {
+			String merged = merge(old.stack.get(element), frame.stack.get(element));
+			if (merged == TOP && old.stack.get(element) != TOP)
+				throw new IllegalStateException("inconsistent stack types in " + classGen.getClassName());
+			else if (!merged.equals(old.stack.get(element))) {
+				old.stack.set(element, merged);
+				changed = true;
+			}
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Merges two verification types into the most precise type that includes both.
+	 *
+	 * @param type1 the first type
+	 * @param type2 the second type
+	 * @return the merge of the two types
+	 */
+
+	private String merge(String type1, String type2) {
+		if (type1.equals(type2))
+			return type1;
+		else if (type1 == NULL && isReference(type2))
+			return type2;
+		else if (type2 == NULL && isReference(type1))
+			return type1;
+		else if (isReference(type1) && isReference(type2))
+			return commonSupertype(type1, type2);
+		else
+			return TOP;
+	}
+
+	/**
+	 * Determines if the given verification type is a reference type, possibly {@code null}.
+	 *
+	 * @param type the type
+	 * @return true if and only if that is the case
+	 */
+
+	private static boolean isReference(String type) {
+		return type.startsWith("L") || type.startsWith("[") || type == NULL;
+	}
+
+	/**
+	 * Yields the least common supertype of two distinct reference types, other than {@code null}.
+	 *
+	 * @param type1 the first type
+	 * @param type2 the second type
+	 * @return the least common supertype
+	 */
+
+	private String commonSupertype(String type1, String type2) {
+		if (type1.startsWith("[") && type2.startsWith("[")) {
+			String elements1 = type1.substring(1), elements2 = type2.substring(1);
+
+			// arrays are covariant, but only for elements of reference type
+			if (isReference(elements1) && isReference(elements2))
+				return "[" + commonSupertype(elements1, elements2);
+			else
+				return OBJECT;
+		}
+		else if (type1.startsWith("[") || type2.startsWith("["))
+			return OBJECT;
+
+		// the superclasses of the first class, including itself
+		List<String> ancestors = new ArrayList<>();
+		for (String cursor = type1.substring(1, type1.length() - 1); cursor != null; cursor = superclassOf(cursor))
+			ancestors.add(cursor);
+
+		for (String cursor = type2.substring(1, type2.length() - 1); cursor != null; cursor = superclassOf(cursor))
+			if (ancestors.contains(cursor))
+				return "L" + cursor + ";";
+
+		return OBJECT;
+	}
+
+	/**
+	 * Yields the superclass of the given class.
+	 *
+	 * @param name the name of the class, in internal form
+	 * @return the name of the superclass, in internal form. Yields {@code null} for
+	 *         {@code java/lang/Object}. Interfaces and unknown classes are considered
+	 *         as direct subclasses of {@code java/lang/Object}, as the verifier does
+	 */
+
+	private String superclassOf(String name) {
+		if (name.equals("java/lang/Object"))
+			return null;
+		else if (superclasses.containsKey(name))
+			return superclasses.get(name);
+
+		String superclass = "java/lang/Object";
+		try {
+			Class<?> clazz = Class.forName(name.replace('/', '.'), false, StackMapWriter.class.getClassLoader());
+			if (!clazz.isInterface() && clazz.getSuperclass() != null)
+				superclass = internal(clazz.getSuperclass().getName());
+		}
+		catch (ClassNotFoundException e) {
+			// we use the default
+		}
+
+		superclasses.put(name, superclass);
+
+		return superclass;
+	}
+
+	/**
+	 * Yields the internal form of the name of a class, such as {@code java/lang/Object}.
+	 *
+	 * @param name the name of the class, such as {@code java.lang.Object}
+	 * @return the internal form of {@code name}
+	 */
+
+	private static String internal(String name) {
+		return name.replace('.', '/');
+	}
+
+	/**
+	 * Yields the verification types of the elements that hold a value of the given type.
+	 *
+	 * @param type the type
+	 * @return the verification types, as many as the elements used by {@code type}
+	 */
+
+	private static String[] typeOf(Type type) {
+		switch (type.getType()) {
+		case Constants.T_BOOLEAN: case Constants.T_BYTE: case Constants.T_CHAR: case Constants.T_SHORT: case Constants.T_INT:
+			return new String[] { INTEGER };
+		case Constants.T_FLOAT:
+			return new String[] { FLOAT };
+		case Constants.T_LONG:
+			return new String[] { LONG, TOP };
+		case Constants.T_DOUBLE:
+			return new String[] { DOUBLE, TOP };
+		case Constants.T_VOID:
+			return new String[0];
+		default:
+			return new String[] { type.getSignature() };
+		}
+	}
+
+	/**
+	 * Simulates the execution of an instruction on the verification types.
+	 *
+	 * @param instruction the instruction
+	 * @param offset the offset of the instruction in the code of the method
+	 * @param frame the frame before the instruction. It is modified into the frame after it
+	 */
+
+	private void execute(Instruction instruction, int offset, Frame frame) {
+		if (instruction instanceof LoadInstruction) {
+			int index = ((LoadInstruction) instruction).getIndex();
+			for (int element = 0; element < instruction.produceStack(cpg); element++)
+				frame.push(frame.locals[index + element]);
+		}
+		else if (instruction instanceof StoreInstruction) {
+			int index = ((StoreInstruction) instruction).getIndex(), size = instruction.consumeStack(cpg);
+			for (int element = size - 1; element >= 0; element--)
+				frame.locals[index + element] = frame.pop();
+
+			// a value of two elements that was partially overwritten is lost
+			if (index > 0 && (frame.locals[index - 1] == LONG || frame.locals[index - 1] == DOUBLE))
+				frame.locals[index - 1] = TOP;
+		}
+		else if (instruction instanceof StackInstruction)
+			executeStackInstruction(instruction, frame);
+		else if (instruction instanceof JsrInstruction)
+			throw new IllegalStateException("subroutines are not supported");
+		else {
+			// the elements read by the instruction
+			List<String> consumed = new ArrayList<>();
+			for (int element = instruction.consumeStack(cpg); element > 0; element--)
+				consumed.add(0, frame.pop());
+
+			for (String type: produced(instruction, offset, consumed))
+				frame.push(type);
+
+			if (instruction instanceof INVOKESPECIAL && ((INVOKESPECIAL) instruction).getMethodName(cpg).equals(Constants.CONSTRUCTOR_NAME))
+				initialise(frame, consumed.get(0), ((INVOKESPECIAL) instruction).getReferenceType(cpg).toString());
+		}
+	}
+
+	/**
+	 * Yields the verification types of the elements pushed by an instruction
+	 * that is not a load, store or stack instruction.
+	 *
+	 * @param instruction the instruction
+	 * @param offset the offset of the instruction in the code of the method
+	 * @param consumed the verification types of the elements popped by the instruction
+	 * @return the verification types of the pushed elements
+	 */
+
+	private String[] produced(Instruction instruction, int offset, List<String> consumed) {
+		if (instruction.produceStack(cpg) == 0)
+			return new String[0];
+		else if (instruction instanceof ACONST_NULL)
+			return new String[] { NULL };
+		else if (instruction instanceof NEW)
+			return new String[] { UNINITIALIZED_THIS + offset };
+		else if (instruction instanceof AALOAD)
+			// the elements of an array of type [T have type T
+			return new String[] { consumed.get(0) == NULL ? NULL : consumed.get(0).substring(1) };
+		else if (instruction instanceof ANEWARRAY)
+			return new String[] { "[" + ((ANEWARRAY) instruction).getType(cpg).getSignature() };
+		else if (instruction instanceof NEWARRAY)
+			return typeOf(((NEWARRAY) instruction).getType());
+		else if (instruction instanceof ARRAYLENGTH || instruction instanceof INSTANCEOF || instruction instanceof LCMP
+				|| instruction instanceof FCMPL || instruction instanceof FCMPG
+				|| instruction instanceof DCMPL || instruction instanceof DCMPG)
+			return new String[] { INTEGER };
+		else if (instruction instanceof InvokeInstruction)
+			return typeOf(((InvokeInstruction) instruction).getReturnType(cpg));
+		else if (instruction instanceof TypedInstruction)
+			return typeOf(((TypedInstruction) instruction).getType(cpg));
+		else
+			throw new IllegalStateException("unsupported instruction " + instruction);
+	}
+
+	/**
+	 * Simulates the execution of an instruction that rearranges the elements on top of the stack.
+	 *
+	 * @param instruction the instruction
+	 * @param frame the frame before the instruction. It is modified into the frame after it
+	 */
+
+	private static void executeStackInstruction(Instruction instruction, Frame frame) {
+		if (instruction instanceof POP)
+			frame.pop();
+		else if (instruction instanceof POP2) {
+			frame.pop();
+			frame.pop();
+		}
+		else if (instruction instanceof DUP) {
+			String top = frame.pop();
+			frame.push(top);
+			frame.push(top);
+		}
+		else if (instruction instanceof DUP_X1) {
+			String top = frame.pop(), under = frame.pop();
+			frame.push(top);
+			frame.push(under);
+			frame.push(top);
+		}
+		else if (instruction instanceof DUP2) {
+			String top = frame.pop(), under = frame.pop();
+			frame.push(under);
+			frame.push(top);
+			frame.push(under);
+			frame.push(top);
+		}
+		else if (instruction instanceof SWAP) {
+			String top = frame.pop(), under = frame.pop();
+			frame.push(top);
+			frame.push(under);
+		}
+		else
+			throw new IllegalStateException("unsupported instruction " + instruction);
+	}
+
+	/**
+	 * Simulates the initialisation of an object by a call to its constructor:
+	 * all its occurrences in the frame become initialised.
+	 *
+	 * @param frame the frame
+	 * @param uninitialised the verification type of the object before its initialisation
+	 * @param className the class whose constructor is called
+	 */
+
+	private void initialise(Frame frame, String uninitialised, String className) {
+		// the receiver of a constructor, called from a constructor, is an instance of the class being generated
+		String initialised = "L" + internal(uninitialised == UNINITIALIZED_THIS ? classGen.getClassName() : className) + ";";
+
+		for (int slot = 0; slot < frame.locals.length; slot++)
+			if (frame.locals[slot].equals(uninitialised))
+				frame.locals[slot] = initialised;
+
+		for (int element = 0; element < frame.stack.size(); element++)
+			if (frame.stack.get(element).equals(uninitialised))
+				frame.stack.set(element, initialised);
+	}
+
+	/**
+	 * Encodes the frames at the given program points into the content of a
+	 * {@code StackMapTable} attribute. Each frame is encoded in the most compact
+	 * form that expresses its difference from the previous frame.
+	 *
+	 * @param method the method
+	 * @param handles the instructions of the method
+	 * @param frames the frames at the beginning of each instruction
+	 * @param needed the instructions where a frame is needed
+	 * @return the content of the attribute, or {@code null} if no frame is needed
+	 */
+
+	private byte[] encode(MethodGen method, InstructionHandle[] handles, Frame[] frames, boolean[] needed) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int count = 0;
+
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			// the implicit frame at the beginning of the method
+			List<String> previousLocals = entries(initialFrame(method).locals, true);
+			int previousOffset = -1;
+
+			for (int pos = 0; pos < handles.length; pos++) {
+				if (!needed[pos])
+					continue;
+				else if (frames[pos] == null)
+					throw new IllegalStateException("unreachable code in " + classGen.getClassName() + "." + method.getName());
+
+				List<String> locals = entries(frames[pos].locals, true);
+				List<String> stack = entries(frames[pos].stack.toArray(new String[0]), false);
+				int offset = handles[pos].getPosition(), delta = offset - previousOffset - 1;
+				int difference = locals.size() - previousLocals.size();
+
+				if (stack.isEmpty() && locals.equals(previousLocals)) {
+					if (delta < 64)
+						out.writeByte(delta); // same_frame
+					else {
+						out.writeByte(251); // same_frame_extended
+						out.writeShort(delta);
+					}
+				}
+				else if (stack.size() == 1 && locals.equals(previousLocals)) {
+					if (delta < 64)
+						out.writeByte(64 + delta); // same_locals_1_stack_item_frame
+					else {
+						out.writeByte(247); // same_locals_1_stack_item_frame_extended
+						out.writeShort(delta);
+					}
+
+					writeType(out, stack.get(0));
+				}
+				else if (stack.isEmpty() && difference < 0 && difference >= -3 && previousLocals.subList(0, locals.size()).equals(locals)) {
+					out.writeByte(251 + difference); // chop_frame
+					out.writeShort(delta);
+				}
+				else if (stack.isEmpty() && difference > 0 && difference <= 3 && locals.subList(0, previousLocals.size()).equals(previousLocals)) {
+					out.writeByte(251 + difference); // append_frame
+					out.writeShort(delta);
+					for (String type: locals.subList(previousLocals.size(), locals.size()))
+						writeType(out, type);
+				}
+				else {
+					out.writeByte(255); // full_frame
+					out.writeShort(delta);
+					out.writeShort(locals.size());
+					for (String type: locals)
+						writeType(out, type);
+					out.writeShort(stack.size());
+					for (String type: stack)
+						writeType(out, type);
+				}
+
+				previousLocals = locals;
+				previousOffset = offset;
+				count++;
+			}
+		}
+		catch (IOException e) {
+			// this cannot happen for an array
+			throw new IllegalStateException(e);
+		}
+
+		if (count == 0)
+			return null;
+
+		// the number of frames comes first
+		byte[] content = bytes.toByteArray();
+		byte[] result = new byte[content.length + 2];
+		result[0] = (byte) (count >>> 8);
+		result[1] = (byte) count;
+		System.arraycopy(content, 0, result, 2, content.length);
+
+		return result;
+	}
+
+	/**
+	 * Yields the entries of a frame for the given elements. A value of two
+	 * elements is a single entry.
+	 *
+	 * @param elements the verification types of the elements
+	 * @param trim true if the trailing {@link #TOP} elements must be removed,
+	 *             as it is the case for the local variables
+	 * @return the entries
+	 */
+
+	private static List<String> entries(String[] elements, boolean trim) {
+		int end = elements.length;
+		while (trim && end > 0 && elements[end - 1] == TOP)
+			end--;
+
+		List<String> entries = new ArrayList<>();
+		for (int pos = 0; pos < end; pos++) {
+			entries.add(elements[pos]);
+			if (elements[pos] == LONG || elements[pos] == DOUBLE)
+				pos++;
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Writes the {@code verification_type_info} structure for the given verification type.
+	 *
+	 * @param out the stream where the structure is written
+	 * @param type the verification type
+	 * @throws IOException if the structure cannot be written
+	 */
+
+	private void writeType(DataOutputStream out, String type) throws IOException {
+		if (type == TOP)
+			out.writeByte(0);
+		else if (type == INTEGER)
+			out.writeByte(1);
+		else if (type == FLOAT)
+			out.writeByte(2);
+		else if (type == DOUBLE)
+			out.writeByte(3);
+		else if (type == LONG)
+			out.writeByte(4);
+		else if (type == NULL)
+			out.writeByte(5);
+		else if (type == UNINITIALIZED_THIS)
+			out.writeByte(6);
+		else if (type.startsWith(UNINITIALIZED_THIS)) {
+			// an object created at the given offset
+			out.writeByte(8);
+			out.writeShort(Integer.parseInt(type.substring(UNINITIALIZED_THIS.length())));
+		}
+		else {
+			out.writeByte(7);
+			// the constant pool refers to arrays through their signature and to classes through their name
+			out.writeShort(cpg.addClass(type.startsWith("[") ? type : type.substring(1, type.length() - 1)));
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package javaBytecodeGenerator;
+
+import org.apache.bcel.generic.ALOAD;
+import org.apache.bcel.generic.ASTORE;
+import org.apache.bcel.generic.FLOAD;
+import org.apache.bcel.generic.FSTORE;
+import org.apache.bcel.generic.ILOAD;
+import org.apache.bcel.generic.ISTORE;
+import org.apache.bcel.generic.Instruction;
+import org.apache.bcel.generic.LoadInstruction;
+import org.apache.bcel.generic.StoreInstruction;
+
+/**
+ * A peephole rule that rewrites a store into a local variable, immediately
+ * followed by a load of the same variable, such as {@code istore x; iload x}.
+ * If no other instruction of the method reads the variable, the pair is removed,
+ * since the stored value is never used elsewhere. Otherwise, the pair is kept:
+ * rewriting it into {@code dup; istore x} would need a further stack element.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+final class StoreLoadRule extends PeepholeRule {
+
+	/**
+	 * Builds the rule.
+	 */
+
+	StoreLoadRule() {
+		super("store and load", 2);
+	}
+
+	@Override
+	protected Instruction[] rewrite(Instruction[] window, PeepholeOptimizer optimizer) {
+		if (!(window[0] instanceof StoreInstruction) || !(window[1] instanceof LoadInstruction))
+			return null;
+
+		int index = ((StoreInstruction) window[0]).getIndex();
+		if (index != ((LoadInstruction) window[1]).getIndex() || !sameKind(window[0], window[1]))
+			return null;
+
+		return optimizer.countUses(index) == 1 ? new Instruction[0] : null;
+	}
+
+	/**
+	 * Determines if the given store and load instructions work on values of the same
+	 * kind, that occupy a single stack element.
+	 *
+	 * @param store the store instruction
+	 * @param load the load instruction
+	 * @return true if and only if that is the case
+	 */
+
+	private static boolean sameKind(Instruction store, Instruction load) {
+		return (store instanceof ISTORE && load instanceof ILOAD)
+			|| (store instanceof FSTORE && load instanceof FLOAD)
+			|| (store instanceof ASTORE && load instanceof ALOAD);
+	}
+}
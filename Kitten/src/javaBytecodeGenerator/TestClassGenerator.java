@@ -15,6 +15,7 @@ import org.apache.bcel.generic.Type;
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.FixtureSignature;
+import types.HelperSignature;
 import types.TestSignature;
 
 /**
@@ -35,16 +36,23 @@ public class TestClassGenerator extends JavaClassGenerator {
 		super(clazz.getName() + "Test", // name of the class
 				// the superclass of the Kitten Object class is set to be the Java java.lang.Object class
 				clazz.getSuperclass() != null ? clazz.getSuperclass().getName() : "java.lang.Object",
-				clazz.getName() + ".kit" // source file
+				clazz.getName() + ".kit", // source file
+				clazz.getContext() // context of the compilation
 				);
 
 		this.clazz = clazz;	
 		// we add the tests
-		for (FixtureSignature fix: clazz.getFixtures())
+		for (FixtureSignature fix: clazz.getFixtures()) {
 			fix.createFixture(this);
+			for (HelperSignature helper: fix.getHelpers())
+				helper.createHelper(this);
+		}
 		// we add the fixtures
-		for (TestSignature test: clazz.getTests())
+		for (TestSignature test: clazz.getTests()) {
 			test.createTest(this);
+			for (HelperSignature helper: test.getHelpers())
+				helper.createHelper(this);
+		}
 		
 		this.createMain();
 	}
@@ -109,6 +117,16 @@ public class TestClassGenerator extends JavaClassGenerator {
 		
 		pgTime(iList);
 
+		// the output of the runtime is buffered: we install it before anything
+		// reads System.out, so that all the output goes through the same buffer
+		iList.insert(getFactory().createInvoke(
+				runTime.IO.class.getName(),
+				"install",
+				Type.VOID,
+				Type.NO_ARGS,
+				org.apache.bcel.Constants.INVOKESTATIC
+		));
+
 		iList.append(InstructionFactory.createReturn(Type.VOID));	
 		
 		
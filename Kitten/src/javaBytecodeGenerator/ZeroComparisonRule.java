@@ -0,0 +1,76 @@
+package javaBytecodeGenerator;
+
+import org.apache.bcel.generic.ACONST_NULL;
+import org.apache.bcel.generic.ConstantPushInstruction;
+import org.apache.bcel.generic.IFEQ;
+import org.apache.bcel.generic.IFGE;
+import org.apache.bcel.generic.IFGT;
+import org.apache.bcel.generic.IFLE;
+import org.apache.bcel.generic.IFLT;
+import org.apache.bcel.generic.IFNE;
+import org.apache.bcel.generic.IFNONNULL;
+import org.apache.bcel.generic.IFNULL;
+import org.apache.bcel.generic.IF_ACMPEQ;
+import org.apache.bcel.generic.IF_ACMPNE;
+import org.apache.bcel.generic.IF_ICMPEQ;
+import org.apache.bcel.generic.IF_ICMPGE;
+import org.apache.bcel.generic.IF_ICMPGT;
+import org.apache.bcel.generic.IF_ICMPLE;
+import org.apache.bcel.generic.IF_ICMPLT;
+import org.apache.bcel.generic.IF_ICMPNE;
+import org.apache.bcel.generic.IfInstruction;
+import org.apache.bcel.generic.InstructionHandle;
+import org.apache.bcel.generic.Instruction;
+
+/**
+ * A peephole rule that rewrites a comparison against the constant {@code 0}
+ * or {@code null}, such as {@code iconst_0; if_icmplt L} or
+ * {@code aconst_null; if_acmpeq L}, into the corresponding comparison
+ * of a single operand, such as {@code iflt L} or {@code ifnull L}.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+final class ZeroComparisonRule extends PeepholeRule {
+
+	/**
+	 * Builds the rule.
+	 */
+
+	ZeroComparisonRule() {
+		super("zero comparison", 2);
+	}
+
+	@Override
+	protected Instruction[] rewrite(Instruction[] window, PeepholeOptimizer optimizer) {
+		if (!(window[1] instanceof IfInstruction))
+			return null;
+
+		InstructionHandle target = ((IfInstruction) window[1]).getTarget();
+		Instruction comparison = null;
+
+		if (window[0] instanceof ACONST_NULL) {
+			if (window[1] instanceof IF_ACMPEQ)
+				comparison = new IFNULL(target);
+			else if (window[1] instanceof IF_ACMPNE)
+				comparison = new IFNONNULL(target);
+		}
+		else if (window[0] instanceof ConstantPushInstruction
+				&& Integer.valueOf(0).equals(((ConstantPushInstruction) window[0]).getValue())) {
+			if (window[1] instanceof IF_ICMPEQ)
+				comparison = new IFEQ(target);
+			else if (window[1] instanceof IF_ICMPNE)
+				comparison = new IFNE(target);
+			else if (window[1] instanceof IF_ICMPLT)
+				comparison = new IFLT(target);
+			else if (window[1] instanceof IF_ICMPLE)
+				comparison = new IFLE(target);
+			else if (window[1] instanceof IF_ICMPGT)
+				comparison = new IFGT(target);
+			else if (window[1] instanceof IF_ICMPGE)
+				comparison = new IFGE(target);
+		}
+
+		return comparison == null ? null : new Instruction[] { comparison };
+	}
+}
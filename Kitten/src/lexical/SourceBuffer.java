@@ -0,0 +1,105 @@
+package lexical;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The characters of a source file, decoded at once into a single array.
+ * The file is mapped into memory and decoded in bulk, with the default
+ * character set of the platform, as an {@code InputStreamReader} would do,
+ * but without copying its content through a chain of small buffers.
+ * The lexical analyser scans the array in place.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class SourceBuffer {
+
+	/**
+	 * The characters of the source file. The array may be longer than the file.
+	 */
+
+	private final char[] chars;
+
+	/**
+	 * The number of characters of the source file.
+	 */
+
+	private final int length;
+
+	/**
+	 * Maps and decodes a source file.
+	 *
+	 * @param fileName the name of the source file
+	 * @throws java.io.FileNotFoundException if the source file cannot be found
+	 * @throws IOException if the source file cannot be read
+	 */
+
+	public SourceBuffer(String fileName) throws IOException {
+		try (FileInputStream input = new FileInputStream(fileName);
+			FileChannel channel = input.getChannel()) {
+
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+
+			// malformed input is replaced, as by an InputStreamReader
+			CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+			CharBuffer chars = CharBuffer.allocate((int) (bytes.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+			CoderResult result = decoder.decode(bytes, chars, true);
+			if (result.isUnderflow())
+				result = decoder.flush(chars);
+
+			if (!result.isUnderflow())
+				throw new CharacterCodingException();
+
+			this.chars = chars.array();
+			this.length = chars.position();
+		}
+	}
+
+	/**
+	 * Yields the array that holds the characters of the source file, from index 0.
+	 *
+	 * @return the array. It is shared, not copied
+	 */
+
+	public char[] getChars() {
+		return chars;
+	}
+
+	/**
+	 * Yields the number of characters of the source file.
+	 *
+	 * @return the number of characters
+	 */
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Yields a 64-bit hash of the characters of the source file (FNV-1a).
+	 * It changes whenever the content of the file changes, but for very unlikely collisions.
+	 * It must be computed before the lexical analyser starts scanning the array.
+	 *
+	 * @return the hash
+	 */
+
+	public long hash() {
+		long hash = 0xcbf29ce484222325L;
+		for (int pos = 0; pos < length; pos++)
+			hash = (hash ^ chars[pos]) * 0x100000001b3L;
+
+		return hash;
+	}
+}
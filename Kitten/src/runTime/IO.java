@@ -0,0 +1,135 @@
+package runTime;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.NoSuchElementException;
+
+/**
+ * The input and output of the Kitten runtime, shared by all strings. The output
+ * goes into a large buffer, that is flushed before reading from the keyboard and
+ * when the program terminates, also because of an exception. The standard output
+ * of Java is redirected into the same buffer, so that what is printed through
+ * {@code System.out}, for instance by the classes running the tests, keeps its
+ * order with respect to the output of the strings.
+ */
+
+public final class IO {
+
+	/* the buffer of the output. It is null until install() is called */
+	private static volatile PrintStream out;
+
+	/* created at the first read only, since most programs never read */
+	private static BufferedReader in;
+
+	private IO() {}
+
+	/* redirects the standard output of Java into the buffer, flushes the buffer when the
+	   program terminates or an uncaught exception gets reported. Only the first call
+	   does something: the next ones find the buffer already installed.
+	   It is called at the first output of the strings, and must be called before by
+	   Java code that prints through System.out, such as the classes running the tests */
+	public static synchronized void install() {
+		if (out != null)
+			return;
+
+		PrintStream original = System.out;
+		original.flush();
+		final PrintStream buffer = new PrintStream(new BufferedOutputStream(original, 1 << 16), false);
+		System.setOut(buffer);
+
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+
+			@Override
+			public void run() {
+				buffer.flush();
+			}
+		});
+
+		// the output must come before the report of an uncaught exception
+		final Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+
+			@Override
+			public void uncaughtException(Thread thread, Throwable throwable) {
+				buffer.flush();
+
+				if (previous != null)
+					previous.uncaughtException(thread, throwable);
+				else {
+					System.err.print("Exception in thread \"" + thread.getName() + "\" ");
+					throwable.printStackTrace(System.err);
+				}
+			}
+		});
+
+		out = buffer;
+	}
+
+	/* yields the buffer of the output, installing it if needed */
+	private static PrintStream out() {
+		PrintStream result = out;
+		if (result == null) {
+			install();
+			result = out;
+		}
+
+		return result;
+	}
+
+	/* prints a string */
+	static void print(java.lang.String s) {
+		out().print(s);
+	}
+
+	/* the chunk used to print the content of a Java builder, without building a Java string for it */
+	private final static char[] chunk = new char[8192];
+
+	/* prints the characters of builder from start (inclusive) to end (exclusive) */
+	static synchronized void print(java.lang.StringBuilder builder, int start, int end) {
+		PrintStream out = out();
+
+		for (; end - start >= chunk.length; start += chunk.length) {
+			builder.getChars(start, start + chunk.length, chunk, 0);
+			out.print(chunk);
+		}
+
+		// the last piece is shorter than a chunk
+		if (start < end)
+			out.print(builder.substring(start, end));
+	}
+
+	/* prints a string and then a newline */
+	static void println(java.lang.String s) {
+		out().println(s);
+	}
+
+	/* reads a line from the keyboard, after flushing the output, so that the user
+	   sees any prompt printed before */
+	static synchronized java.lang.String readLine() {
+		flush();
+
+		try {
+			if (in == null)
+				in = new BufferedReader(new InputStreamReader(System.in));
+
+			java.lang.String line = in.readLine();
+			if (line == null)
+				throw new NoSuchElementException("No line found");
+
+			return line;
+		}
+		catch (IOException e) {
+			throw new NoSuchElementException(e.getMessage());
+		}
+	}
+
+	/* sends the buffered output to the screen, if any */
+	public static void flush() {
+		PrintStream result = out;
+		if (result != null)
+			result.flush();
+	}
+}
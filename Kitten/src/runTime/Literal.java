@@ -0,0 +1,19 @@
+package runTime;
+
+/**
+ * A string literal of a Kitten program. The same literal is shared by all
+ * its occurrences in the program, hence it cannot be modified.
+ */
+
+final class Literal extends String {
+
+	Literal(java.lang.String value) {
+		super(value);
+	}
+
+	/* the compiler never shares a literal that might be read into */
+	@Override
+	public void input() {
+		throw new UnsupportedOperationException("cannot read into the string literal \"" + flat() + "\"");
+	}
+}
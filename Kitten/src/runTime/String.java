@@ -1,15 +1,30 @@
 package runTime;
 
-import java.util.Scanner;
-
 /**
  * The class the implements Kitten strings. When we refer to Java's {@code java.lang.String},
  * we must use its fully qualified name.
+ * <br><br>
+ * The result of a concatenation is not copied into a new Java string. Instead, it is kept
+ * in a buffer, that is shared with the strings obtained by concatenating something to it:
+ * each string is the prefix of the buffer of the given length, and only the string that spans
+ * the whole buffer can append to it in place. Hence {@code s := s.concat(...)} in a loop
+ * runs in linear time. A Java string is built, and cached, only when it is needed,
+ * such as for {@code equals()} or {@code toInt()}, and {@code output()} prints the buffer
+ * without building it.
  */
 
 public class String {
+
+	/* the characters of this string, if it is not a prefix of a buffer or it has been
+	   already built from that prefix. Otherwise null */
 	private java.lang.String value;
 
+	/* the buffer whose prefix holds the characters of this string, or null */
+	private java.lang.StringBuilder buffer;
+
+	/* the length of this string, if it is a prefix of buffer */
+	private int length;
+
 	/* creates the empty string */
 	public String() {
 		value = new java.lang.String();
@@ -18,6 +33,8 @@ public class String {
 	/* clones a string */
 	public String(String other) {
 		value = other.value;
+		buffer = other.buffer;
+		length = other.length;
 	}
 	
 	/* clones a Java string */
@@ -25,18 +42,69 @@ public class String {
 		value = other;
 	}
 
+	/* creates the string held in the first length characters of buffer */
+	String(java.lang.StringBuilder buffer, int length) {
+		this.buffer = buffer;
+		this.length = length;
+	}
+
+	private final static java.util.Map<java.lang.String, String> literals = new java.util.HashMap<>();
+
+	/* yields the shared string for a literal of the program. Equal literals yield
+	   the same string, that cannot be modified through input() */
+	public static String literal(java.lang.String value) {
+		synchronized (literals) {
+			String literal = literals.get(value);
+			if (literal == null)
+				literals.put(value, literal = new Literal(value));
+
+			return literal;
+		}
+	}
+
+	/* yields the Java string with the characters of this string, building it if needed */
+	java.lang.String flat() {
+		if (value == null)
+			value = buffer.substring(0, length);
+
+		return value;
+	}
+
+	/* appends this string to the given Java builder */
+	void appendTo(java.lang.StringBuilder builder) {
+		if (value != null)
+			builder.append(value);
+		else if (builder != buffer)
+			builder.append(buffer, 0, length);
+		else
+			// a buffer cannot be appended to itself in place
+			builder.append(flat());
+	}
+
+	/* yields a buffer that holds this string and where something can be appended.
+	   It is the buffer of this string if this string spans all of it */
+	java.lang.StringBuilder extensibleBuffer() {
+		if (buffer != null && buffer.length() == length)
+			return buffer;
+
+		java.lang.StringBuilder result = new java.lang.StringBuilder(length() + 16);
+		appendTo(result);
+
+		return result;
+	}
+
 	/* yields the length of a string */
 	public int length() {
-		return value.length();
+		return value != null ? value.length() : length;
 	}
 
 	/* converts a string into integer */
 	public int toInt() {
 		try {
-			return Integer.parseInt(value);
+			return Integer.parseInt(flat());
 		}
 		catch (NumberFormatException e) {
-			System.out.println("illegal integer format");
+			IO.println("illegal integer format");
 			return 0;
 		}
 	}
@@ -44,53 +112,60 @@ public class String {
 	/* converts a string into float */
 	public float toFloat() {
 		try {
-			return Float.parseFloat(value);
+			return Float.parseFloat(flat());
 		}
 		catch (NumberFormatException e) {
-			System.out.println("illegal float format");
+			IO.println("illegal float format");
 			return 0;
 		}
 	}
 
 	/* checks that two strings are equal */
 	public boolean equals(String other) {
-		return value.equals(other.value);
+		return flat().equals(other.flat());
 	}
 
 	/* prints the string to the screen */
 	public void output() {
-		System.out.print(value);
+		if (value != null)
+			IO.print(value);
+		else
+			IO.print(buffer, 0, length);
 	}
 
-	private final Scanner keyboard = new Scanner(System.in);
-
 	/* reads from the keyboard a sequence of character until the first newline and
 	   stores it into the string */
 	public void input() {
-		value = keyboard.nextLine();
+		value = IO.readLine();
+		buffer = null;
 	}
 
 	/* yields the concatenation of "this" and then "s" */
 	public String concat(String s) {
-		return new String(value + s.value);
+		java.lang.StringBuilder buffer = extensibleBuffer();
+		s.appendTo(buffer);
+		return new String(buffer, buffer.length());
 	}
 
 	/* yields the concatenation of "this" and then "f" */
 	public String concat(float f) {
-		return new String(value + f);
+		java.lang.StringBuilder buffer = extensibleBuffer().append(f);
+		return new String(buffer, buffer.length());
 	}
 
 	/* yields the concatenation of "this" and then "i" */
 	public String concat(int i) {
-		return new String(value + i);
+		java.lang.StringBuilder buffer = extensibleBuffer().append(i);
+		return new String(buffer, buffer.length());
 	}
 
 	/* yields the concatenation of "this" and then "b" */
 	public String concat(boolean b) {
-		return new String(value + b);
+		java.lang.StringBuilder buffer = extensibleBuffer().append(b);
+		return new String(buffer, buffer.length());
 	}
 	
 	public String substring(int start, int end) {
-		return new String(value.substring(start, end));
+		return new String(flat().substring(start, end));
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package runTime;
+
+/**
+ * A builder of Kitten strings. The compiler translates a chain of calls to
+ * {@code concat} into a single builder, instead of a new {@code runTime.String}
+ * for each call. When we refer to Java's {@code java.lang.StringBuilder},
+ * we must use its fully qualified name.
+ */
+
+public class StringBuilder {
+	private java.lang.StringBuilder value;
+
+	/* the receiver of the chain, until it gets appended */
+	private String first;
+
+	/* creates a builder for a chain of concatenations to "first". As in a call
+	   to concat, "first" is dereferenced only after the first argument has been computed */
+	public StringBuilder(String first) {
+		this.first = first;
+	}
+
+	/* the buffer of the receiver is extended in place, if possible */
+	private java.lang.StringBuilder start() {
+		if (value == null) {
+			value = first.extensibleBuffer();
+			first = null;
+		}
+
+		return value;
+	}
+
+	/* appends "s" to this builder */
+	public StringBuilder append(String s) {
+		s.appendTo(start());
+		return this;
+	}
+
+	/* appends "f" to this builder */
+	public StringBuilder append(float f) {
+		start().append(f);
+		return this;
+	}
+
+	/* appends "i" to this builder */
+	public StringBuilder append(int i) {
+		start().append(i);
+		return this;
+	}
+
+	/* appends "b" to this builder */
+	public StringBuilder append(boolean b) {
+		start().append(b);
+		return this;
+	}
+
+	/* yields the string built so far */
+	public String build() {
+		java.lang.StringBuilder value = start();
+		return new String(value, value.length());
+	}
+
+	/* prints the string built so far to the screen, without building it */
+	public void output() {
+		java.lang.StringBuilder value = start();
+		IO.print(value, 0, value.length());
+	}
+}
@@ -3,6 +3,7 @@ package semantical;
 import java.io.IOException;
 
 import types.ClassType;
+import types.CompilationContext;
 import errorMsg.ErrorMsg;
 
 public class Main {
@@ -14,13 +15,14 @@ public class Main {
 
 		// we build the class type for the file name passed as a parameter.
 		// This triggers type-checking of that class and all those referenced from it
-		ErrorMsg errorMsg = ClassType.mkFromFileName(args[0]).getErrorMsg();
+		CompilationContext context = new CompilationContext();
+		ErrorMsg errorMsg = ClassType.mkFromFileName(context, args[0]).getErrorMsg();
 
 		System.out.println("End of the semantical analysis");
 
 		// we dump the set of classes that have been created
 		if (errorMsg != null && !errorMsg.anyErrors())
-			for (ClassType clazz: ClassType.getAll())
+			for (ClassType clazz: context.getClasses())
 				try {
 					clazz.dumpDot();
 					System.out.println("Dumped " + clazz + ".dot");
@@ -1,6 +1,7 @@
 package semantical;
 
 import tables.Table;
+import types.CompilationContext;
 import types.Type;
 import errorMsg.ErrorMsg;
 
@@ -37,6 +38,12 @@ public class TypeChecker {
 	 */
 
 	private final ErrorMsg errorMsg;
+
+	/**
+	 * The context of the compilation, where the semantical types are created.
+	 */
+
+	private final CompilationContext context;
 	
 	private final boolean inTest;
 
@@ -47,14 +54,16 @@ public class TypeChecker {
 	 * @param env the environment of the type-checker
 	 * @param varNum the number of local variables seen by the type-checker
 	 * @param errorMsg the error reporting utility of the type-checker
+	 * @param context the context of the compilation
 	 * @param inTest the environment check
 	 */
 
-	private TypeChecker(Type returnType, Table<TypeAndNumber> env, int varNum, ErrorMsg errorMsg, boolean inTest) {
+	private TypeChecker(Type returnType, Table<TypeAndNumber> env, int varNum, ErrorMsg errorMsg, CompilationContext context, boolean inTest) {
 		this.returnType = returnType;
 		this.env = env;
 		this.varNum = varNum;
 		this.errorMsg = errorMsg;
+		this.context = context;
 		this.inTest = inTest;
 	}
 
@@ -65,13 +74,15 @@ public class TypeChecker {
 	 *
 	 * @param returnType the expected return type
 	 * @param errorMsg the error reporting utility used to signal errors
+	 * @param context the context of the compilation, where the semantical types are created
 	 */
 
-	public TypeChecker(Type returnType, ErrorMsg errorMsg) {
+	public TypeChecker(Type returnType, ErrorMsg errorMsg, CompilationContext context) {
 		this.returnType = returnType;
 		this.env = Table.empty();
 		this.varNum = 0;
 		this.errorMsg = errorMsg;
+		this.context = context;
 		this.inTest = false;
 	}
 
@@ -82,14 +93,16 @@ public class TypeChecker {
 	 *
 	 * @param returnType the expected return type
 	 * @param errorMsg the error reporting utility used to signal errors
+	 * @param context the context of the compilation, where the semantical types are created
 	 * @param inTest
 	 */
 
-	public TypeChecker(Type returnType, ErrorMsg errorMsg, boolean inTest) {
+	public TypeChecker(Type returnType, ErrorMsg errorMsg, CompilationContext context, boolean inTest) {
 		this.returnType = returnType;
 		this.env = Table.empty();
 		this.varNum = 0;
 		this.errorMsg = errorMsg;
+		this.context = context;
 		this.inTest = inTest;
 	}
 	
@@ -103,6 +116,16 @@ public class TypeChecker {
 		return returnType;
 	}
 
+	/**
+	 * Yields the context of the compilation where this type-checker creates the semantical types.
+	 *
+	 * @return the context
+	 */
+
+	public CompilationContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Yields a new type-checker identical to this but where a given variable
 	 * has been bound to a given type.
@@ -116,7 +139,7 @@ public class TypeChecker {
 		// note that in the new type-checker the number of local
 		// variables is one more than in this type-checker
 		return new TypeChecker(returnType,
-			env.put(var, new TypeAndNumber(type, varNum)), varNum + 1, errorMsg, inTest);
+			env.put(var, new TypeAndNumber(type, varNum)), varNum + 1, errorMsg, context, inTest);
 	}
 
 	/**
@@ -16,8 +16,18 @@ final class EmptyTable<E> extends Table<E> {
 	}
 
 	@Override
-	public Table<E> put(String key, E value) {
-		// builds a non-empty symbol table with empty subtrees
+	Table<E> insert(String key, E value) {
+		// builds a red non-empty symbol table with empty subtrees
 		return new NonEmptyTable<E>(key, value);
 	}
-}
\ No newline at end of file
+
+	@Override
+	Table<E> blacken() {
+		return this;
+	}
+
+	@Override
+	boolean isRed() {
+		return false;  // empty trees are black
+	}
+}
@@ -1,7 +1,8 @@
 package tables;
 
 /**
- * A non-empty symbol table. It is organized as a binary search tree.
+ * A non-empty symbol table. It is organized as a red-black binary search tree,
+ * balanced at insertion time as in Okasaki's functional red-black trees.
  *
  * @author  <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
@@ -32,16 +33,24 @@ final class NonEmptyTable<E> extends Table<E> {
 
 	private final Table<E> right;
 
+	/**
+	 * true if the root of this tree is red, false if it is black.
+	 */
+
+	private final boolean red;
+
 	/**
 	 * Builds a non-empty table.
 	 *
+	 * @param red true if the root of the tree is red, false if it is black
 	 * @param key the key in the root of the tree
 	 * @param value the value bound to <tt>key</tt>
 	 * @param left the left subtree
 	 * @param right the right subtree
 	 */
 
-	private NonEmptyTable(String key, E value, Table<E> left, Table<E> right) {
+	private NonEmptyTable(boolean red, String key, E value, Table<E> left, Table<E> right) {
+		this.red = red;
 		this.key = key;
 		this.value = value;
 		this.left = left;
@@ -49,53 +58,123 @@ final class NonEmptyTable<E> extends Table<E> {
 	}
 
 	/**
-	 * Builds a non-empty table having empty subtrees.
+	 * Builds a non-empty table having empty subtrees and a red root.
 	 *
 	 * @param key the key in the root of the tree
 	 * @param value the value bound to {@code key}
 	 */
 
 	NonEmptyTable(String key, E value) {
-		this.key = key;
-		this.value = value;
-		this.left = Table.empty();
-		this.right = Table.empty();
+		this(true, key, value, Table.<E>empty(), Table.<E>empty());
 	}
 
 	@Override
 	public E get(String key) {
-		int comp = this.key.compareTo(key);
+		// we descend the tree iteratively
+		Table<E> cursor = this;
 
-		if (comp < 0)
-			return left.get(key);
-		else if (comp == 0)
-			return value;
-		else
-			return right.get(key);
+		while (cursor instanceof NonEmptyTable) {
+			NonEmptyTable<E> node = (NonEmptyTable<E>) cursor;
+			int comp = node.key.compareTo(key);
+
+			if (comp < 0)
+				cursor = node.left;
+			else if (comp == 0)
+				return node.value;
+			else
+				cursor = node.right;
+		}
+
+		return null;
 	}
 
 	@Override
-	public Table<E> put(String key, E value) {
+	Table<E> insert(String key, E value) {
 		int comp = this.key.compareTo(key);
 
 		if (comp < 0) {
-			Table<E> temp = left.put(key,value);
+			Table<E> temp = left.insert(key,value);
 			if (temp == left)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, this.value, temp, right);
+				return balance(red, this.key, this.value, temp, right);
 		}
 		else if (comp == 0)
 			if (value == this.value)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, value, left, right);
+				return new NonEmptyTable<E>(red, this.key, value, left, right);
 		else {
-			Table<E> temp = right.put(key,value);
+			Table<E> temp = right.insert(key,value);
 			if (temp == right)
 				return this;
 			else
-				return new NonEmptyTable<E>(this.key, this.value, left, temp);
+				return balance(red, this.key, this.value, left, temp);
+		}
+	}
+
+	@Override
+	Table<E> blacken() {
+		return red ? new NonEmptyTable<E>(false, key, value, left, right) : this;
+	}
+
+	@Override
+	boolean isRed() {
+		return red;
+	}
+
+	/**
+	 * Builds a tree with the given root and subtrees, rebalancing it if
+	 * the root is black and one of its subtrees has a red root with a red child.
+	 * In that case, the result is a red root with two black children.
+	 *
+	 * @param red the color of the root
+	 * @param key the key in the root of the tree
+	 * @param value the value bound to {@code key}
+	 * @param left the left subtree
+	 * @param right the right subtree
+	 * @return the resulting, possibly rebalanced, tree
+	 */
+
+	private static <E> Table<E> balance(boolean red, String key, E value, Table<E> left, Table<E> right) {
+		if (!red) {
+			if (left.isRed()) {
+				NonEmptyTable<E> l = (NonEmptyTable<E>) left;
+
+				if (l.left.isRed()) {
+					NonEmptyTable<E> ll = (NonEmptyTable<E>) l.left;
+					return new NonEmptyTable<E>(true, l.key, l.value,
+						ll.blacken(),
+						new NonEmptyTable<E>(false, key, value, l.right, right));
+				}
+
+				if (l.right.isRed()) {
+					NonEmptyTable<E> lr = (NonEmptyTable<E>) l.right;
+					return new NonEmptyTable<E>(true, lr.key, lr.value,
+						new NonEmptyTable<E>(false, l.key, l.value, l.left, lr.left),
+						new NonEmptyTable<E>(false, key, value, lr.right, right));
+				}
+			}
+
+			if (right.isRed()) {
+				NonEmptyTable<E> r = (NonEmptyTable<E>) right;
+
+				if (r.left.isRed()) {
+					NonEmptyTable<E> rl = (NonEmptyTable<E>) r.left;
+					return new NonEmptyTable<E>(true, rl.key, rl.value,
+						new NonEmptyTable<E>(false, key, value, left, rl.left),
+						new NonEmptyTable<E>(false, r.key, r.value, rl.right, r.right));
+				}
+
+				if (r.right.isRed()) {
+					NonEmptyTable<E> rr = (NonEmptyTable<E>) r.right;
+					return new NonEmptyTable<E>(true, r.key, r.value,
+						new NonEmptyTable<E>(false, key, value, left, r.left),
+						rr.blacken());
+				}
+			}
 		}
+
+		return new NonEmptyTable<E>(red, key, value, left, right);
 	}
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package tables;
 
 /**
- * A table mapping symbols to objects.
+ * A table mapping symbols to objects. Tables are immutable: adding a binding
+ * yields a new table that shares most of its structure with the original one.
+ * They are organized as red-black trees, so that lookup and insertion
+ * cost logarithmic time in the number of bindings, whatever the order of insertion.
  *
  * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
  */
@@ -47,5 +50,38 @@ public abstract class Table<E> {
      *         is bound to {@code value}
      */
 
-    public abstract Table<E> put(String key, E value);
-}
\ No newline at end of file
+    public final Table<E> put(String key, E value) {
+    	// the root of a red-black tree is always black
+    	return insert(key, value).blacken();
+    }
+
+    /**
+     * Auxiliary method that binds a symbol to a value in this table, seen as
+     * a subtree of a red-black tree. The result might have a red root
+     * with a red child, that is later fixed by the parent of this subtree.
+     *
+     * @param key the symbol to be bound to the given value
+     * @param value to value to be bound to the symbol
+     * @return a table identical to this except for {@code key}, that
+     *         is bound to {@code value}. Yields this same table if
+     *         {@code key} was already bound to {@code value}
+     */
+
+    abstract Table<E> insert(String key, E value);
+
+    /**
+     * Yields a table identical to this, but whose root is black.
+     *
+     * @return the table
+     */
+
+    abstract Table<E> blacken();
+
+    /**
+     * Determines if the root of this table is red.
+     *
+     * @return true if and only if the root of this table is red
+     */
+
+    abstract boolean isRed();
+}
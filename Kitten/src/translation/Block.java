@@ -1,9 +1,8 @@
 package translation;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 
 import types.CodeSignature;
@@ -39,22 +38,24 @@ public class Block {
 	private BytecodeList bytecode;
 
 	/**
-	 * The unique identifier of this block.
+	 * True if this block can be merged when prefixed with another block.
 	 */
 
-	private final int id;
+	private boolean mergeable;
 
 	/**
-	 * True if this block can be merged when prefixed with another block.
+	 * The dense identifier of this block inside the code of its method or constructor,
+	 * fixed by the last numbering of that code (see {@link BlockGraph#number(Block)}).
 	 */
 
-	private boolean mergeable;
+	private int id;
 
 	/**
-	 * The number of blocks created so far.
+	 * The last numbering of the blocks that reached this block. It lets that
+	 * numbering check, without hashing, whether this block has been already numbered.
 	 */
 
-	private static int counter = 0;
+	private int numbering;
 
 	/**
 	 * Builds a block of code with no predecessors and with the given bytecode and successors.
@@ -63,13 +64,10 @@ public class Block {
 	 * @param follows the list of successors of this block
 	 */
 
-	private Block(BytecodeList bytecode, List<Block> follows) {
+	Block(BytecodeList bytecode, List<Block> follows) {
 		this.bytecode = bytecode;
 		this.follows = follows;
 		this.mergeable = true;
-
-		// we assign a unique identifier to this block
-		this.id = counter++;
 	}
 
 	/**
@@ -143,15 +141,37 @@ public class Block {
 	}
 
 	/**
-	 * Yields the unique identifier of this block.
+	 * Yields the dense identifier of this block inside the code of its method or constructor.
 	 *
-	 * @return the unique identifier of this block
+	 * @return the identifier
 	 */
 
 	int getId() {
 		return id;
 	}
 
+	/**
+	 * Yields the last numbering of the blocks that reached this block.
+	 *
+	 * @return the numbering, or 0 if this block has never been numbered
+	 */
+
+	int getNumbering() {
+		return numbering;
+	}
+
+	/**
+	 * Takes note that the given numbering of the blocks reached this block.
+	 *
+	 * @param numbering the numbering
+	 * @param id the identifier that {@code numbering} gives to this block
+	 */
+
+	void setId(int numbering, int id) {
+		this.numbering = numbering;
+		this.id = id;
+	}
+
 	/**
 	 * Yields the successors of this block.
 	 *
@@ -162,6 +182,16 @@ public class Block {
 		return follows;
 	}
 
+	/**
+	 * Replaces the successors of this block.
+	 *
+	 * @param follows the new successors of this block. This should not be {@code null}
+	 */
+
+	void setFollows(List<Block> follows) {
+		this.follows = follows;
+	}
+
 	/**
 	 * Adds a successor to this block.
 	 *
@@ -191,6 +221,16 @@ public class Block {
 		return bytecode;
 	}
 
+	/**
+	 * Replaces the bytecode inside this block.
+	 *
+	 * @param bytecode the new bytecode inside this block
+	 */
+
+	void setBytecode(BytecodeList bytecode) {
+		this.bytecode = bytecode;
+	}
+
 	/**
 	 * Adds a bytecode before this block. This results in the same
 	 * block being modified or in a new block linked to {@code this}.
@@ -203,7 +243,7 @@ public class Block {
 		// we can expand our code if we have no predecessors,
 		// or otherwise we will also affect the view that our predecessors have of us
 		if (mergeable) {
-			this.bytecode = new BytecodeList(bytecode).append(this.bytecode);
+			this.bytecode.prepend(bytecode);
 			return this;
 		}
 		else
@@ -211,73 +251,62 @@ public class Block {
 	}
 
 	/**
-	 * Yields a string identifying this node in a dot file.
+	 * Yields a string identifying this node in a dot file. Blocks are identified
+	 * by their dense identifier inside the code being dumped, so that the names
+	 * do not depend on the blocks created by other compilations.
 	 *
+	 * @param graph the visit of the graph of the code being dumped. It must have visited this block
 	 * @return a string identifying this node in a dot file
 	 */
 
-	public String dotNodeName() {
-		return "codeblock_" + id;
+	public String dotNodeName(BlockGraph graph) {
+		return "codeblock_" + graph.idOf(this);
 	}
 
 	/**
-	 * Cleans-up this block and all those reachable from it, also in the
-	 * methods called from this block. It removes useless {@code nop}'s and merges a block, with only
-	 * one successor which has only one predecessor, with that successor.
+	 * Cleans-up this block and all those reachable from it. It removes useless
+	 * {@code nop}'s and takes note, inside the program, of the bytecodes in the blocks.
+	 * The blocks are visited iteratively, so that arbitrarily large graphs of blocks
+	 * can be cleaned-up. At the end, the blocks that are left are numbered again.
 	 *
 	 * @param program the program which is being cleaned-up
+	 * @param callees the collection where the dynamic targets of the calls
+	 *                found in the blocks are added, so that they can be cleaned-up later
 	 */
 
-	
-	void cleanUp(Program program) {
-		// the start method of the program is definitely called
-		program.getSigs().add(program.getStart());
-		cleanUp(new HashSet<Block>(), program);
-	}
-	
-	/**
-	 * Auxiliary method that cleans-up this block and all those reachable
-	 * from it. It removes useless {@code nop}'s and merges a block, with only
-	 * one successor which has only one predecessor, with that successor.
-	 *
-	 * @param done the set of blocks which have been already cleaned-up
-	 * @param program the program which is being cleaned-up
-	 */
-
-	private void cleanUp(Set<Block> done, Program program) {
-		if (!done.contains(this)) {
-			done.add(this);
+	void cleanUp(Program program, Collection<CodeSignature> callees) {
+		BlockGraph graph = new BlockGraph(this);
 
+		for (Block block = graph.next(); block != null; block = graph.next()) {
 			List<Block> newFollows = new ArrayList<>();
 
 			// we consider each successor and remove isolated nop's
-			for (Block follow: follows)
-				if (follow != this && follow.bytecode.getHead() instanceof NOP &&
-				follow.bytecode.getTail() == null)
+			for (Block follow: block.follows)
+				if (follow != block && follow.bytecode.getHead() instanceof NOP &&
+				follow.bytecode.size() == 1)
 					newFollows.addAll(follow.follows);
 				else
 					newFollows.add(follow);
 
-			follows = newFollows;
+			block.follows = newFollows;
 
 			// we continue with the successors
-			for (Block follow: follows)
-				follow.cleanUp(done,program);
+			graph.pushFollows(block);
 
 			// if the bytecode contains a reference to a field or to a
 			// constructor or to a method, we add it to the signatures
 			// for the program and update its statistics
-			for (BytecodeList bs = bytecode; bs != null; bs = bs.getTail()) {
-				Bytecode bytecode = bs.getHead();
-
+			for (Bytecode bytecode: block.bytecode) {
 				// we take note that the program contains the bytecodes in the block
 				program.storeBytecode(bytecode);
 
 				if (bytecode instanceof CALL)
-					// we continue by cleaning the dynamic targets
-					for (CodeSignature target: ((CALL) bytecode).getDynamicTargets())
-						target.getCode().cleanUp(done,program);
+					// the dynamic targets must be cleaned as well
+					callees.addAll(((CALL) bytecode).getDynamicTargets());
 			}
 		}
+
+		// the nop's removed have left holes in the numbering of the blocks
+		BlockGraph.number(this);
 	}
 }
\ No newline at end of file
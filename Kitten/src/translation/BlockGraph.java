@@ -0,0 +1,219 @@
+package translation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A visit of the graph of blocks reachable from a given entry block, that is,
+ * of the control-flow graph of a method or constructor. The visit is
+ * iterative: it uses an explicit worklist, so that it does not consume
+ * the Java stack, whatever the size of the graph.
+ * <br><br>
+ * Each block has a dense identifier inside the code of its method or constructor,
+ * fixed by {@link #number(Block)} whenever that code is built or rewritten. The
+ * identifiers follow the order of a complete visit from the entry of the code,
+ * so that, after {@link #visitAll()}, the visited blocks are identified by the
+ * integers between 0 and {@link #size()}. These identifiers are used to index
+ * arrays instead of hashing blocks, also by the visit itself, that keeps the
+ * blocks visited so far in a bit set. Since the visit does not write into the
+ * blocks, distinct visits, also of the same blocks, can be interleaved or
+ * nested without interfering with each other.
+ * <br><br>
+ * The blocks are visited in depth-first pre-order, provided the successors
+ * of each block are scheduled, through {@link #push(Block)} or
+ * {@link #pushFollows(Block)}, after the block is returned by {@link #next()}.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class BlockGraph {
+
+	/**
+	 * The number of numberings of blocks performed so far (see {@link #number(Block)}).
+	 */
+
+	private final static AtomicInteger numberings = new AtomicInteger();
+
+	/**
+	 * The blocks that must still be visited. The last pushed is the next to be visited.
+	 */
+
+	private final Deque<Block> worklist = new ArrayDeque<>();
+
+	/**
+	 * The dense identifiers of the blocks visited so far.
+	 */
+
+	private final BitSet visited = new BitSet();
+
+	/**
+	 * The blocks visited so far, indexed by their dense identifier.
+	 */
+
+	private Block[] blocks = new Block[16];
+
+	/**
+	 * The number of blocks visited so far.
+	 */
+
+	private int size;
+
+	/**
+	 * Starts a visit of the blocks reachable from the given entry block.
+	 *
+	 * @param entry the block where the visit starts. If it is the entry of the
+	 *              code of a method or constructor, its identifier is 0
+	 */
+
+	public BlockGraph(Block entry) {
+		worklist.push(entry);
+	}
+
+	/**
+	 * Yields the next block of the visit, that is, the most recently pushed
+	 * block that has not been visited yet.
+	 *
+	 * @return the next block of the visit. Yields {@code null} if the visit is over
+	 * @throws IllegalStateException if the visit meets two blocks with the same
+	 *                               identifier, since the code has been rewritten
+	 *                               without being numbered again
+	 */
+
+	public Block next() {
+		while (!worklist.isEmpty()) {
+			Block block = worklist.pop();
+			int id = block.getId();
+
+			// we skip the blocks already visited by this same visit
+			if (!visited.get(id)) {
+				if (id >= blocks.length)
+					blocks = Arrays.copyOf(blocks, Math.max(id + 1, blocks.length * 2));
+
+				visited.set(id);
+				size++;
+				return blocks[id] = block;
+			}
+			else if (blocks[id] != block)
+				throw new IllegalStateException("block " + id + " has been numbered twice");
+		}
+
+		return null;
+	}
+
+	/**
+	 * Schedules the given block for the visit. Nothing happens
+	 * if it has been already visited.
+	 *
+	 * @param block the block
+	 */
+
+	public void push(Block block) {
+		if (!visited.get(block.getId()))
+			worklist.push(block);
+	}
+
+	/**
+	 * Schedules all successors of the given block for the visit,
+	 * in such a way that they are visited in the order in which they occur
+	 * in {@link Block#getFollows()}.
+	 *
+	 * @param block the block whose successors must be scheduled
+	 */
+
+	public void pushFollows(Block block) {
+		List<Block> follows = block.getFollows();
+
+		for (int pos = follows.size() - 1; pos >= 0; pos--)
+			push(follows.get(pos));
+	}
+
+	/**
+	 * Yields the number of blocks visited so far.
+	 *
+	 * @return the number of blocks visited so far
+	 */
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Yields the visited block with the given dense identifier.
+	 *
+	 * @param id the identifier
+	 * @return the block with identifier {@code id}
+	 * @throws IndexOutOfBoundsException if no block with that identifier has been visited
+	 */
+
+	public Block get(int id) {
+		if (id < 0 || !visited.get(id))
+			throw new IndexOutOfBoundsException("block " + id + " has not been visited");
+
+		return blocks[id];
+	}
+
+	/**
+	 * Yields the dense identifier of a block visited by this visit.
+	 *
+	 * @param block the block
+	 * @return the identifier of {@code block}. Yields -1 if {@code block}
+	 *         has not been visited yet
+	 */
+
+	public int idOf(Block block) {
+		int id = block.getId();
+		return visited.get(id) && blocks[id] == block ? id : -1;
+	}
+
+	/**
+	 * Visits all the blocks that are reachable from the entry block,
+	 * by following the successors of each block in their order.
+	 *
+	 * @return this same graph, whose blocks are now all visited
+	 */
+
+	public BlockGraph visitAll() {
+		for (Block block = next(); block != null; block = next())
+			pushFollows(block);
+
+		return this;
+	}
+
+	/**
+	 * Gives a dense identifier to the blocks reachable from the given entry block,
+	 * in the order of a complete visit from that block. This must be called
+	 * whenever the code of a method or constructor is built or rewritten, before
+	 * it gets visited again. Distinct codes can be numbered concurrently, but a code
+	 * cannot be numbered while it is being visited.
+	 *
+	 * @param entry the entry of the code. It receives identifier 0
+	 * @return the number of blocks reachable from {@code entry}
+	 */
+
+	public static int number(Block entry) {
+		int numbering = numberings.incrementAndGet();
+		Deque<Block> worklist = new ArrayDeque<>();
+		worklist.push(entry);
+		int size = 0;
+
+		while (!worklist.isEmpty()) {
+			Block block = worklist.pop();
+
+			// the blocks already numbered are stamped with this same numbering
+			if (block.getNumbering() != numbering) {
+				block.setId(numbering, size++);
+
+				List<Block> follows = block.getFollows();
+				for (int pos = follows.size() - 1; pos >= 0; pos--)
+					if (follows.get(pos).getNumbering() != numbering)
+						worklist.push(follows.get(pos));
+			}
+		}
+
+		return size;
+	}
+}
@@ -0,0 +1,261 @@
+package translation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import types.ClassType;
+import types.CodeSignature;
+import types.MethodSignature;
+import types.Type;
+import types.TypeList;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.LOAD;
+import bytecode.NONNULL;
+import bytecode.NOP;
+import bytecode.RETURN;
+import bytecode.STORE;
+import bytecode.VIRTUALCALL;
+
+/**
+ * An inliner of method calls in the Kitten intermediate code. A call is inlined
+ * if it has a single dynamic target whose code is not larger than a given budget.
+ * The block containing the call is split: its code up to the call stores the receiver
+ * and the actual parameters into fresh local variables, and continues with a copy of
+ * the code of the target, where local variables are renumbered after those of the caller.
+ * The {@code return} bytecodes of the copy become jumps to a new block holding the code
+ * that followed the call. Only the calls in the original code of each caller are inlined,
+ * so that recursive methods do not get expanded forever.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+class Inliner {
+
+	/**
+	 * The maximal number of bytecodes of an inlined method.
+	 */
+
+	private final int budget;
+
+	/**
+	 * The number of call sites inlined so far for each method, indexed by the name of the method.
+	 */
+
+	private final Map<String, Integer> inlined = new TreeMap<>();
+
+	/**
+	 * Builds an inliner.
+	 *
+	 * @param budget the maximal number of bytecodes of an inlined method
+	 */
+
+	Inliner(int budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Yields the number of call sites inlined so far for each method.
+	 *
+	 * @return a map from the name of each inlined method to the number of
+	 *         its call sites that have been inlined, in alphabetical order
+	 */
+
+	Map<String, Integer> getInlined() {
+		return inlined;
+	}
+
+	/**
+	 * Inlines the calls in the code of the given method or constructor, where possible.
+	 *
+	 * @param caller the method or constructor
+	 */
+
+	void inlineInto(CodeSignature caller) {
+		BlockGraph graph = new BlockGraph(caller.getCode()).visitAll();
+
+		// we take a snapshot of the original blocks, since inlining adds new ones
+		List<Block> blocks = new ArrayList<>();
+		for (int id = 0; id < graph.size(); id++)
+			blocks.add(graph.get(id));
+
+		int locals = countLocals(caller);
+
+		for (Block block: blocks)
+			for (int pos = 0; pos < block.getBytecode().size(); pos++) {
+				MethodSignature callee = inlinable(caller, block.getBytecode().get(pos));
+
+				if (callee != null) {
+					// the code after the call is moved into a new block, that we keep scanning
+					block = inline(block, pos, callee, locals);
+					pos = -1;
+					locals += countLocals(callee);
+
+					Integer count = inlined.get(callee.toString());
+					inlined.put(callee.toString(), count == null ? 1 : count + 1);
+				}
+			}
+
+		// the blocks of the caller have changed
+		BlockGraph.number(caller.getCode());
+	}
+
+	/**
+	 * Determines if the given bytecode is a call that can be inlined.
+	 *
+	 * @param caller the method or constructor containing the bytecode
+	 * @param bytecode the bytecode
+	 * @return the only target of the call, if it can be inlined. Yields {@code null} otherwise
+	 */
+
+	private MethodSignature inlinable(CodeSignature caller, Bytecode bytecode) {
+		if (!(bytecode instanceof VIRTUALCALL) || ((VIRTUALCALL) bytecode).getDynamicTargets().size() != 1)
+			return null;
+
+		CodeSignature target = ((VIRTUALCALL) bytecode).getDynamicTargets().iterator().next();
+
+		// the methods of String are implemented natively, in runTime.String
+		if (target == caller || !(target instanceof MethodSignature) || target.getCode() == null
+				|| target.getName().equals("main") || target.getDefiningClass().getName().equals("String"))
+			return null;
+
+		return size(target.getCode()) <= budget ? (MethodSignature) target : null;
+	}
+
+	/**
+	 * Yields the number of bytecodes in the code starting at the given block.
+	 * It stops counting as soon as the budget is exceeded.
+	 *
+	 * @param entry the first block of the code
+	 * @return the number of bytecodes, or a number larger than the budget
+	 */
+
+	private int size(Block entry) {
+		BlockGraph graph = new BlockGraph(entry);
+		int size = 0;
+
+		for (Block block = graph.next(); block != null && size <= budget; block = graph.next()) {
+			size += block.getBytecode().size();
+			graph.pushFollows(block);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Yields the number of local variables used by the given method or constructor,
+	 * including its receiver and its parameters.
+	 *
+	 * @param sig the method or constructor
+	 * @return the number of local variables
+	 */
+
+	private static int countLocals(CodeSignature sig) {
+		int locals = sig.getParameters().getSize() + 1;
+		BlockGraph graph = new BlockGraph(sig.getCode());
+
+		for (Block block = graph.next(); block != null; block = graph.next()) {
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof LOAD)
+					locals = Math.max(locals, ((LOAD) bytecode).getVarNum() + 1);
+				else if (bytecode instanceof STORE)
+					locals = Math.max(locals, ((STORE) bytecode).getVarNum() + 1);
+
+			graph.pushFollows(block);
+		}
+
+		return locals;
+	}
+
+	/**
+	 * Inlines a call.
+	 *
+	 * @param block the block containing the call
+	 * @param pos the position of the call inside the code of {@code block}
+	 * @param callee the only target of the call
+	 * @param base the first local variable that can be used for the inlined code
+	 * @return the new block holding the code that followed the call
+	 */
+
+	private Block inline(Block block, int pos, MethodSignature callee, int base) {
+		BytecodeList code = block.getBytecode();
+		BytecodeList before = new BytecodeList(), after = new BytecodeList();
+
+		for (int cursor = 0; cursor < pos; cursor++)
+			before.append(code.get(cursor));
+
+		for (int cursor = pos + 1; cursor < code.size(); cursor++)
+			after.append(code.get(cursor));
+
+		if (after.isEmpty())
+			after.append(new NOP());
+
+		// the actual parameters are on top of the stack, the last on top
+		List<Type> parameters = new ArrayList<>();
+		for (TypeList cursor = callee.getParameters(); cursor != TypeList.EMPTY; cursor = cursor.getTail())
+			parameters.add(cursor.getHead());
+
+		for (int cursor = parameters.size() - 1; cursor >= 0; cursor--)
+			before.append(new STORE(base + 1 + cursor, parameters.get(cursor)));
+
+		// then we find the receiver, that cannot be nil
+		VIRTUALCALL call = (VIRTUALCALL) code.get(pos);
+		before.append(new NONNULL((ClassType) call.getReceiverType()));
+		before.append(new STORE(base, callee.getDefiningClass()));
+
+		Block continuation = new Block(after, block.getFollows());
+		List<Block> follows = new ArrayList<>();
+		follows.add(copy(callee.getCode(), base, continuation));
+
+		block.setBytecode(before);
+		block.setFollows(follows);
+
+		return continuation;
+	}
+
+	/**
+	 * Copies the code of a method, renumbering its local variables and
+	 * replacing its {@code return} bytecodes with jumps to a continuation.
+	 *
+	 * @param entry the first block of the code of the method
+	 * @param base the number that must be added to the local variables of the method
+	 * @param continuation the block where the copy continues instead of returning
+	 * @return the first block of the copy
+	 */
+
+	private static Block copy(Block entry, int base, Block continuation) {
+		BlockGraph graph = new BlockGraph(entry).visitAll();
+		Block[] copies = new Block[graph.size()];
+
+		for (int id = 0; id < copies.length; id++) {
+			BytecodeList code = new BytecodeList();
+			for (Bytecode bytecode: graph.get(id).getBytecode())
+				if (bytecode instanceof LOAD)
+					code.append(new LOAD(((LOAD) bytecode).getVarNum() + base, ((LOAD) bytecode).getType()));
+				else if (bytecode instanceof STORE)
+					code.append(new STORE(((STORE) bytecode).getVarNum() + base, ((STORE) bytecode).getType()));
+				else if (!(bytecode instanceof RETURN))
+					// the returned value, if any, is left on the stack for the continuation
+					code.append(bytecode);
+
+			if (code.isEmpty())
+				code.append(new NOP());
+
+			copies[id] = new Block(code, new ArrayList<Block>());
+		}
+
+		for (int id = 0; id < copies.length; id++) {
+			Block original = graph.get(id);
+
+			if (original.getBytecode().getLast() instanceof RETURN)
+				copies[id].linkTo(continuation);
+			else
+				for (Block follow: original.getFollows())
+					copies[id].linkTo(copies[graph.idOf(follow)]);
+		}
+
+		return copies[0];
+	}
+}
@@ -2,6 +2,7 @@ package translation;
 
 import errorMsg.ErrorMsg;
 import types.ClassType;
+import types.CompilationContext;
 import translation.Program;
 
 public class Main {
@@ -16,7 +17,7 @@ public class Main {
 		// we build the class type for the file name passed as a parameter.
 		// This triggers type-checking of that class and of all classes referenced from it
 		long time = System.currentTimeMillis();
-		ClassType clazz = ClassType.mkFromFileName(args[0]);
+		ClassType clazz = ClassType.mkFromFileName(new CompilationContext(), args[0]);
 		ErrorMsg errorMsg = clazz.getErrorMsg();
 		System.out.println("Parsing and type-checking completed     \t[" + (System.currentTimeMillis() - time) + "ms]");
 
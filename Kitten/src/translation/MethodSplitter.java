@@ -0,0 +1,1167 @@
+package translation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import types.ArrayType;
+import types.BooleanType;
+import types.CodeSignature;
+import types.ConstructorSignature;
+import types.HelperSignature;
+import types.Type;
+import types.TypeList;
+import types.VoidType;
+import bytecode.ARRAYLOAD;
+import bytecode.ARRAYSTORE;
+import bytecode.BranchingBytecode;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CONST;
+import bytecode.ComparisonBinOpBytecode;
+import bytecode.IF_TRUE;
+import bytecode.LOAD;
+import bytecode.NEG;
+import bytecode.NEWARRAY;
+import bytecode.NEWBUILDER;
+import bytecode.NEWSTRING;
+import bytecode.NONNULL;
+import bytecode.NOP;
+import bytecode.RETURN;
+import bytecode.STATICCALL;
+import bytecode.STORE;
+
+/**
+ * A splitter of the methods whose Java bytecode would be too large. The Java virtual
+ * machine rejects the methods whose code is longer than 64 kilobytes, and HotSpot never
+ * compiles into machine code those longer than 8000 bytes, that hence run interpreted.
+ * Programs generated by other programs easily contain such methods, typically their
+ * {@code main} or their tests. The splitter estimates the size of the Java bytecode of
+ * a method or test and, if it exceeds a limit, outlines single-entry/single-exit regions
+ * of its graph of blocks into static helper methods (see {@link HelperSignature}),
+ * called through a {@link STATICCALL} bytecode.
+ * <br><br>
+ * A region starts at an entry block and contains the blocks reachable from the entry
+ * without passing through an exit block, that postdominates the entry. No other block
+ * jumps inside the region, nor back to its entry. The stack must be empty at the entry,
+ * after its leading condition, if any, and at the exit. The local variables read or
+ * modified by the region are passed to the helper as parameters. The local variables
+ * modified by the region and still live at its exit are yielded by the helper: if there
+ * is only one, as its returned value; otherwise, the caller passes the helper a small
+ * holder array for each of their types, that the helper fills and the caller unpacks
+ * into the variables. A region can also contain side exits, that is, blocks that return
+ * nothing or a constant, such as the failed assertions of a test, if they all return the
+ * same constant: its helper tells the caller whether it must return, and its modified
+ * variables are always yielded through holder arrays. The entries are
+ * considered in depth-first order and, from each, the largest region is outlined that
+ * fits into a helper and does not overlap the regions already outlined. This is repeated
+ * until the method fits the limit or no more regions can be outlined. Later rounds can
+ * outline the calls to the helpers of the previous rounds, so that the helpers of a
+ * method form a tree. Long blocks are first cut into chains of shorter blocks.
+ * <br><br>
+ * Constructors are never split, since their receiver cannot be passed to a helper
+ * before the call to the constructor of the superclass. The splitter must run before
+ * the allocation of the local variables to slots, that lets distinct variables share
+ * the same number. The type-checker already gives the same number to variables declared
+ * in disjoint scopes, also with distinct types: they are never passed to a helper.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+class MethodSplitter {
+
+	/**
+	 * The maximal number of parameters of a helper. The Java virtual machine
+	 * allows at most 255 slots of parameters.
+	 */
+
+	private final static int MAX_PARAMETERS = 200;
+
+	/**
+	 * The maximal number of rounds of outlining for each method.
+	 */
+
+	private final static int MAX_ROUNDS = 8;
+
+	/**
+	 * The estimated size of the Java bytecode of a method, above which the method is split.
+	 */
+
+	private final int limit;
+
+	/**
+	 * The number of helpers created so far. It makes the names of the helpers unique.
+	 */
+
+	private int helpers;
+
+	/**
+	 * The number of helpers outlined from each method that has been split, indexed by the name of the method.
+	 */
+
+	private final Map<String, Integer> split = new TreeMap<>();
+
+	/**
+	 * The estimated size of the Java bytecode of the methods that are still larger
+	 * than the limit after the splitting, indexed by the name of the method.
+	 */
+
+	private final Map<String, Integer> huge = new TreeMap<>();
+
+	/**
+	 * Builds a splitter.
+	 *
+	 * @param limit the estimated size of the Java bytecode of a method, in bytes,
+	 *              above which the method is split
+	 */
+
+	MethodSplitter(int limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * Yields the number of helpers outlined from each method split so far.
+	 *
+	 * @return a map from the name of each split method to the number of
+	 *         its helpers, in alphabetical order
+	 */
+
+	Map<String, Integer> getSplit() {
+		return split;
+	}
+
+	/**
+	 * Yields the methods that are still too large after their splitting.
+	 *
+	 * @return a map from the name of each such method to the estimated
+	 *         size of its Java bytecode, in alphabetical order
+	 */
+
+	Map<String, Integer> getHuge() {
+		return huge;
+	}
+
+	/**
+	 * Splits the given method or test if its Java bytecode would be larger than the limit.
+	 * The helpers are added to the method or test, that calls them.
+	 *
+	 * @param sig the method or test
+	 * @return the helpers outlined from {@code sig}, possibly none
+	 */
+
+	List<HelperSignature> split(CodeSignature sig) {
+		if (sig instanceof ConstructorSignature)
+			return Collections.emptyList();
+
+		List<HelperSignature> result = new ArrayList<>();
+		int size = size(sig);
+		if (size > limit)
+			cut(sig);
+
+		for (int round = 0; round < MAX_ROUNDS && size > limit && new Splitting(sig).outline(result); round++)
+			size = size(sig);
+
+		if (!result.isEmpty())
+			split.put(sig.toString(), result.size());
+
+		if (size > limit)
+			huge.put(sig.toString(), size);
+
+		return result;
+	}
+
+	/**
+	 * Cuts the long blocks of a method or test into a chain of shorter blocks,
+	 * wherever the stack has the same height as at their beginning, after their
+	 * leading condition, if any. Otherwise straight-line code could not be outlined.
+	 * The leading conditions are cut away as well, since a region cannot exit
+	 * into a block that starts with a condition, but for the blocks that end the
+	 * method: otherwise a short side exit would not be recognised as such.
+	 *
+	 * @param sig the method or test
+	 */
+
+	private void cut(CodeSignature sig) {
+		BlockGraph graph = new BlockGraph(sig.getCode()).visitAll();
+		int length = limit / 16;
+
+		for (int id = 0; id < graph.size(); id++) {
+			Block block = graph.get(id);
+			BytecodeList code = block.getBytecode();
+			boolean ends = block.getFollows().isEmpty();
+			List<BytecodeList> pieces = new ArrayList<>();
+			BytecodeList piece = new BytecodeList();
+			int height = 0, size = 0;
+
+			for (int pos = 0; pos < code.size(); pos++) {
+				Bytecode bytecode = code.get(pos);
+				piece.append(bytecode);
+				size += size(bytecode);
+				if (pos > 0 || !(bytecode instanceof BranchingBytecode))
+					height += bytecode.getProducedStack() - bytecode.getConsumedStack();
+
+				if (pos < code.size() - 1 && (height == 0 && size >= length || pos == 0 && !ends && bytecode instanceof BranchingBytecode)) {
+					pieces.add(piece);
+					piece = new BytecodeList();
+					size = 0;
+				}
+			}
+
+			if (!pieces.isEmpty()) {
+				// the last piece inherits the successors of the block
+				Block next = new Block(piece, block.getFollows());
+				for (int pos = pieces.size() - 1; pos > 0; pos--) {
+					List<Block> follows = new ArrayList<>();
+					follows.add(next);
+					next = new Block(pieces.get(pos), follows);
+				}
+
+				List<Block> follows = new ArrayList<>();
+				follows.add(next);
+				block.setBytecode(pieces.get(0));
+				block.setFollows(follows);
+			}
+		}
+
+		BlockGraph.number(sig.getCode());
+	}
+
+	/**
+	 * Yields an estimate of the size of the Java bytecode generated for a method or test.
+	 *
+	 * @param sig the method or test
+	 * @return the estimated size, in bytes
+	 */
+
+	private static int size(CodeSignature sig) {
+		BlockGraph graph = new BlockGraph(sig.getCode());
+		int size = 0;
+
+		for (Block block = graph.next(); block != null; block = graph.next()) {
+			size += size(block);
+			graph.pushFollows(block);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Yields an estimate of the size of the Java bytecode generated for a block.
+	 * It is never smaller than the actual size.
+	 *
+	 * @param block the block
+	 * @return the estimated size, in bytes, including the jump at its end, if any
+	 */
+
+	private static int size(Block block) {
+		int size = 3;
+		for (Bytecode bytecode: block.getBytecode())
+			size += size(bytecode);
+
+		return size;
+	}
+
+	/**
+	 * Yields an estimate of the size of the Java bytecode generated for a Kitten bytecode.
+	 *
+	 * @param bytecode the Kitten bytecode
+	 * @return the estimated size, in bytes
+	 */
+
+	private static int size(Bytecode bytecode) {
+		if (bytecode instanceof NOP)
+			return 0;
+		else if (bytecode instanceof LOAD)
+			return ((LOAD) bytecode).getVarNum() < 256 ? 2 : 4;
+		else if (bytecode instanceof STORE)
+			return ((STORE) bytecode).getVarNum() < 256 ? 2 : 4;
+		else if (bytecode instanceof NEWSTRING || bytecode instanceof NEWBUILDER)
+			return 10;
+		else if (bytecode instanceof ComparisonBinOpBytecode || bytecode instanceof NEG)
+			return 8;
+		else if (bytecode instanceof NONNULL)
+			return 5;
+		else
+			return 3;
+	}
+
+	/**
+	 * Yields the number of the local variable accessed by the given bytecode.
+	 *
+	 * @param bytecode the bytecode
+	 * @return the number of the variable, or -1 if {@code bytecode} is neither a {@code load} nor a {@code store}
+	 */
+
+	private static int varNum(Bytecode bytecode) {
+		if (bytecode instanceof LOAD)
+			return ((LOAD) bytecode).getVarNum();
+		else if (bytecode instanceof STORE)
+			return ((STORE) bytecode).getVarNum();
+		else
+			return -1;
+	}
+
+	/**
+	 * A region that can be outlined into a helper.
+	 */
+
+	private static class Region {
+		private final int entry;
+		private final int exit;
+
+		private Region(int entry, int exit) {
+			this.entry = entry;
+			this.exit = exit;
+		}
+	}
+
+	/**
+	 * A round of outlining of the regions of a method or test. It holds
+	 * the analyses of the current graph of blocks of the method.
+	 */
+
+	private class Splitting {
+
+		/**
+		 * The method or test being split.
+		 */
+
+		private final CodeSignature sig;
+
+		/**
+		 * The blocks of the method. Their identifiers index the following arrays.
+		 */
+
+		private final BlockGraph graph;
+
+		/**
+		 * The number of blocks of the method. It is also the identifier of
+		 * a virtual block that follows all the blocks that end the method.
+		 */
+
+		private final int blocks;
+
+		/**
+		 * The successors and the predecessors of each block.
+		 */
+
+		private final int[][] follows, preds;
+
+		/**
+		 * The estimated size of the Java bytecode of each block.
+		 */
+
+		private final int[] sizes;
+
+		/**
+		 * The height of the stack at the beginning of each block, after its leading condition, if any.
+		 */
+
+		private final int[] heights;
+
+		/**
+		 * The immediate postdominator of each block, or -1 if the block never reaches the end of the method.
+		 */
+
+		private final int[] postdominators;
+
+		/**
+		 * The side exits of the method, that is, the blocks that return nothing or a constant.
+		 * They are mapped into their {@code return} bytecode, or are {@code null} otherwise.
+		 * A region can contain side exits, if all return the same constant: its helper
+		 * yields a Boolean that tells the caller if it must return that constant.
+		 */
+
+		private final RETURN[] exits;
+
+		/**
+		 * The constant returned by each side exit, or {@code null} if it returns nothing.
+		 */
+
+		private final CONST[] returned;
+
+		/**
+		 * The local variables live at the beginning of each block.
+		 */
+
+		private final BitSet[] live;
+
+		/**
+		 * The local variables read and written by each block.
+		 */
+
+		private final BitSet[] reads, writes;
+
+		/**
+		 * The type of each local variable.
+		 */
+
+		private final Map<Integer, Type> types = new HashMap<>();
+
+		/**
+		 * The local variables used with distinct types. They cannot be passed to a helper.
+		 */
+
+		private final BitSet conflicts = new BitSet();
+
+		/**
+		 * The number of local variables of the method. The holder arrays of
+		 * the helpers get new local variables, starting from this number.
+		 */
+
+		private int locals;
+
+		/**
+		 * The region whose blocks have been marked with each stamp, see {@link #stamps}.
+		 */
+
+		private final int[] stamps;
+
+		/**
+		 * The last stamp used to mark the blocks of a region.
+		 */
+
+		private int stamp;
+
+		/**
+		 * The blocks of the regions outlined so far.
+		 */
+
+		private final boolean[] outlined;
+
+		/**
+		 * The estimated size of the region being built, the number of jumps into it
+		 * from outside, except into its entry, and the number of jumps back to its entry.
+		 */
+
+		private int regionSize, jumpsIn, jumpsBack;
+
+		/**
+		 * The local variables read and written by the region being built.
+		 */
+
+		private BitSet regionReads, regionWrites;
+
+		/**
+		 * The constant returned by the side exits of the region being built, if any.
+		 */
+
+		private CONST regionReturned;
+
+		/**
+		 * True if and only if the region being built contains side exits, and if they
+		 * do not return the same constant.
+		 */
+
+		private boolean exiting, mixed;
+
+		private Splitting(CodeSignature sig) {
+			this.sig = sig;
+			this.graph = new BlockGraph(sig.getCode()).visitAll();
+			this.blocks = graph.size();
+			this.follows = new int[blocks][];
+			this.sizes = new int[blocks];
+			this.reads = new BitSet[blocks];
+			this.writes = new BitSet[blocks];
+			this.stamps = new int[blocks];
+			this.outlined = new boolean[blocks];
+			this.exits = new RETURN[blocks];
+			this.returned = new CONST[blocks];
+			this.locals = sig.getParameters().getSize() + (sig.hasReceiver() ? 1 : 0);
+
+			int[] counts = new int[blocks];
+
+			for (int id = 0; id < blocks; id++) {
+				Block block = graph.get(id);
+				List<Block> successors = block.getFollows();
+				follows[id] = new int[successors.size()];
+				for (int pos = 0; pos < follows[id].length; pos++)
+					counts[follows[id][pos] = graph.idOf(successors.get(pos))]++;
+
+				sizes[id] = size(block);
+
+				BytecodeList code = block.getBytecode();
+				if (follows[id].length == 0 && code.getLast() instanceof RETURN) {
+					RETURN last = (RETURN) code.getLast();
+					if (last.getType() == VoidType.INSTANCE)
+						exits[id] = last;
+					else if (code.size() > 1 && code.get(code.size() - 2) instanceof CONST) {
+						exits[id] = last;
+						returned[id] = (CONST) code.get(code.size() - 2);
+					}
+				}
+				reads[id] = new BitSet();
+				writes[id] = new BitSet();
+
+				for (Bytecode bytecode: block.getBytecode()) {
+					int varNum = varNum(bytecode);
+					if (varNum >= 0) {
+						Type type = bytecode instanceof LOAD ? ((LOAD) bytecode).getType() : ((STORE) bytecode).getType();
+						Type old = types.put(varNum, type);
+						if (old != null && old != type)
+							conflicts.set(varNum);
+
+						(bytecode instanceof LOAD ? reads : writes)[id].set(varNum);
+						locals = Math.max(locals, varNum + 1);
+					}
+				}
+			}
+
+			this.preds = new int[blocks][];
+			for (int id = 0; id < blocks; id++)
+				preds[id] = new int[counts[id]];
+
+			for (int id = 0; id < blocks; id++)
+				for (int follow: follows[id])
+					preds[follow][--counts[follow]] = id;
+
+			this.heights = heights();
+			this.live = liveness();
+			this.postdominators = postdominators();
+		}
+
+		/**
+		 * Computes the height of the stack at the beginning of each block,
+		 * after its leading condition, if any.
+		 *
+		 * @return the heights, indexed by block
+		 */
+
+		private int[] heights() {
+			// first we compute the heights before the leading conditions
+			int[] heights = new int[blocks];
+			Arrays.fill(heights, -1);
+			heights[0] = 0;
+			Deque<Integer> worklist = new ArrayDeque<>();
+			worklist.push(0);
+
+			while (!worklist.isEmpty()) {
+				int id = worklist.pop();
+				BytecodeList code = graph.get(id).getBytecode();
+				int height = heights[id];
+
+				for (Bytecode bytecode: code)
+					height += bytecode.getProducedStack() - bytecode.getConsumedStack();
+
+				for (int follow: follows[id])
+					if (heights[follow] < 0) {
+						heights[follow] = height;
+						worklist.push(follow);
+					}
+			}
+
+			for (int id = 0; id < blocks; id++) {
+				Bytecode head = graph.get(id).getBytecode().getHead();
+				if (head instanceof BranchingBytecode)
+					heights[id] -= head.getConsumedStack();
+			}
+
+			return heights;
+		}
+
+		/**
+		 * Computes the local variables live at the beginning of each block.
+		 *
+		 * @return the live variables, indexed by block
+		 */
+
+		private BitSet[] liveness() {
+			BitSet[] gen = new BitSet[blocks], kill = new BitSet[blocks], live = new BitSet[blocks];
+
+			for (int id = 0; id < blocks; id++) {
+				gen[id] = new BitSet();
+				kill[id] = new BitSet();
+				live[id] = new BitSet();
+
+				BytecodeList code = graph.get(id).getBytecode();
+				for (int pos = code.size() - 1; pos >= 0; pos--) {
+					Bytecode bytecode = code.get(pos);
+					if (bytecode instanceof LOAD)
+						gen[id].set(((LOAD) bytecode).getVarNum());
+					else if (bytecode instanceof STORE) {
+						gen[id].clear(((STORE) bytecode).getVarNum());
+						kill[id].set(((STORE) bytecode).getVarNum());
+					}
+				}
+			}
+
+			for (boolean changed = true; changed; ) {
+				changed = false;
+
+				for (int id = blocks - 1; id >= 0; id--) {
+					BitSet in = new BitSet();
+					for (int follow: follows[id])
+						in.or(live[follow]);
+
+					in.andNot(kill[id]);
+					in.or(gen[id]);
+
+					if (!in.equals(live[id])) {
+						live[id] = in;
+						changed = true;
+					}
+				}
+			}
+
+			return live;
+		}
+
+		/**
+		 * Computes the immediate postdominator of each block, by the algorithm of
+		 * Cooper, Harvey and Kennedy applied to the reversed graph of blocks.
+		 * The blocks that end the method are postdominated by the virtual block {@link #blocks}.
+		 * The side exits (see {@link #exits}) are ignored, so that the code before
+		 * and after an early {@code return} or a failed assertion is still connected,
+		 * unless a block reaches the end only through side exits.
+		 *
+		 * @return the immediate postdominators, indexed by block. The value is -1
+		 *         for the blocks that never reach the end of the method
+		 */
+
+		private int[] postdominators() {
+			// we number the blocks in postorder of a visit of the reversed graph
+			int[] postorder = new int[blocks + 1];
+			Arrays.fill(postorder, -1);
+			int[] order = new int[blocks + 1];
+			int numbered = 0;
+
+			int[] ends = ends();
+			boolean[] seen = new boolean[blocks + 1];
+			Deque<int[]> stack = new ArrayDeque<>();
+			seen[blocks] = true;
+			stack.push(new int[] { blocks, 0 });
+
+			while (!stack.isEmpty()) {
+				int[] top = stack.peek();
+				int[] next = top[0] == blocks ? ends : preds[top[0]];
+
+				if (top[1] < next.length) {
+					int pred = next[top[1]++];
+					if (!seen[pred]) {
+						seen[pred] = true;
+						stack.push(new int[] { pred, 0 });
+					}
+				}
+				else {
+					stack.pop();
+					order[numbered] = top[0];
+					postorder[top[0]] = numbered++;
+				}
+			}
+
+			int[] postdominators = new int[blocks + 1];
+			Arrays.fill(postdominators, -1);
+			postdominators[blocks] = blocks;
+
+			for (boolean changed = true; changed; ) {
+				changed = false;
+
+				// the virtual block is the last in postorder
+				for (int pos = numbered - 2; pos >= 0; pos--) {
+					int id = order[pos], postdominator = -1;
+					boolean anyExit = follows[id].length == 0;
+
+					for (int follow: follows[id])
+						if (exits[follow] != null)
+							anyExit = true;
+						else if (postdominators[follow] >= 0)
+							postdominator = postdominator < 0 ? follow : intersect(follow, postdominator, postdominators, postorder);
+
+					// the side exits are followed only if there is no other way
+					// to the end, such as for a loop just before the end of the method
+					if (postdominator < 0 && anyExit)
+						postdominator = blocks;
+
+					if (postdominators[id] != postdominator) {
+						postdominators[id] = postdominator;
+						changed = true;
+					}
+				}
+			}
+
+			return postdominators;
+		}
+
+		/**
+		 * Yields the blocks that end the method.
+		 *
+		 * @return the identifiers of the blocks without successors
+		 */
+
+		private int[] ends() {
+			int count = 0;
+			for (int id = 0; id < blocks; id++)
+				if (follows[id].length == 0)
+					count++;
+
+			int[] ends = new int[count];
+			for (int id = 0; id < blocks; id++)
+				if (follows[id].length == 0)
+					ends[--count] = id;
+
+			return ends;
+		}
+
+		private int intersect(int first, int second, int[] postdominators, int[] postorder) {
+			while (first != second) {
+				while (postorder[first] < postorder[second])
+					first = postdominators[first];
+				while (postorder[second] < postorder[first])
+					second = postdominators[second];
+			}
+
+			return first;
+		}
+
+		/**
+		 * Outlines disjoint regions of the method into helpers.
+		 *
+		 * @param helpers the list where the new helpers get added
+		 * @return true if and only if at least a region has been outlined
+		 */
+
+		private boolean outline(List<HelperSignature> helpers) {
+			boolean any = false;
+
+			// the entries are considered in depth-first order, so that
+			// consecutive regions tile the code of the method
+			for (int entry = 0; entry < blocks; entry++)
+				if (!outlined[entry]) {
+					Region region = largestRegionAt(entry);
+					if (region != null) {
+						List<Integer> members = members(region);
+						for (int member: members)
+							outlined[member] = true;
+
+						helpers.add(outline(region, members));
+						any = true;
+					}
+				}
+
+			// the blocks of the method have changed
+			if (any)
+				BlockGraph.number(sig.getCode());
+
+			return any;
+		}
+
+		/**
+		 * Yields the largest region that starts at the given block, fits into a helper and does
+		 * not overlap the regions already outlined. The exit of the region is looked for along
+		 * the chain of the postdominators of the entry.
+		 *
+		 * @param entry the entry of the region
+		 * @return the region, or {@code null} if there is none
+		 */
+
+		private Region largestRegionAt(int entry) {
+			if (heights[entry] != 0 || postdominators[entry] < 0 || postdominators[entry] == blocks)
+				return null;
+
+			int maxSize = limit * 3 / 4, minSize = limit / 16;
+			stamp++;
+			regionSize = jumpsIn = jumpsBack = 0;
+			regionReads = new BitSet();
+			regionWrites = new BitSet();
+			regionReturned = null;
+			exiting = mixed = false;
+
+			Region result = null;
+			Deque<Integer> worklist = new ArrayDeque<>();
+			add(entry, entry);
+			worklist.push(entry);
+
+			for (int exit = postdominators[entry]; ; ) {
+				while (!worklist.isEmpty() && regionSize <= maxSize) {
+					int id = worklist.pop();
+					if (follows[id].length == 0 && exits[id] == null)
+						return result;
+
+					for (int follow: follows[id])
+						if (follow != exit && stamps[follow] != stamp) {
+							if (outlined[follow])
+								return result;
+
+							add(follow, entry);
+							worklist.push(follow);
+						}
+				}
+
+				// jumps back to the entry and distinct side exits never disappear by enlarging the region
+				if (regionSize > maxSize || jumpsBack > 0 || mixed)
+					return result;
+
+				if (regionSize >= minSize && jumpsIn == 0 && canExitAt(exit, entry))
+					result = new Region(entry, exit);
+
+				int next = postdominators[exit];
+				if (next < 0 || next == blocks || stamps[next] == stamp || outlined[exit])
+					return result;
+
+				add(exit, entry);
+				worklist.push(exit);
+				exit = next;
+			}
+		}
+
+		/**
+		 * Adds a block to the region being built.
+		 *
+		 * @param id the block
+		 * @param entry the entry of the region
+		 */
+
+		private void add(int id, int entry) {
+			stamps[id] = stamp;
+			regionSize += sizes[id];
+			regionReads.or(reads[id]);
+			regionWrites.or(writes[id]);
+
+			if (exits[id] != null) {
+				if (exiting)
+					mixed |= !sameConstant(regionReturned, returned[id]);
+				else {
+					exiting = true;
+					regionReturned = returned[id];
+				}
+			}
+
+			if (id != entry) {
+				for (int pred: preds[id])
+					if (stamps[pred] != stamp)
+						jumpsIn++;
+
+				// the beginning of the method is a jump from outside
+				if (id == 0)
+					jumpsIn++;
+			}
+
+			for (int follow: follows[id])
+				if (follow == entry)
+					jumpsBack++;
+				else if (follow != id && stamps[follow] == stamp)
+					jumpsIn--;
+		}
+
+		/**
+		 * Determines if two side exits return the same constant.
+		 *
+		 * @param first the constant returned by the first, or {@code null} if it returns nothing
+		 * @param second the constant returned by the second, or {@code null} if it returns nothing
+		 * @return true if and only if they return the same constant, or both nothing
+		 */
+
+		private boolean sameConstant(CONST first, CONST second) {
+			if (first == null || second == null)
+				return first == second;
+
+			Object constant = first.getConstant();
+			return constant == null ? second.getConstant() == null : constant.equals(second.getConstant());
+		}
+
+		/**
+		 * Determines if the region being built can end at the given exit block.
+		 *
+		 * @param exit the exit block
+		 * @param entry the entry block of the region
+		 * @return true if and only if the stack is empty at {@code exit} and the
+		 *         helper needs acceptable parameters, including its holder arrays
+		 */
+
+		private boolean canExitAt(int exit, int entry) {
+			if (heights[exit] != 0 || graph.get(exit).getBytecode().getHead() instanceof BranchingBytecode)
+				return false;
+
+			BitSet parameters = parameters(entry, regionReads, regionWrites), results = results(exit, regionWrites);
+
+			return parameters.cardinality() + holders(results, exiting).size() <= MAX_PARAMETERS
+				&& !parameters.intersects(conflicts) && !results.intersects(conflicts);
+		}
+
+		/**
+		 * Yields the types of the holder arrays that a helper needs to yield its results.
+		 *
+		 * @param results the local variables yielded by the helper
+		 * @param exiting true if and only if the helper has side exits, so that it returns a Boolean
+		 * @return the distinct types of {@code results}, in order of variable. It is empty
+		 *         if the helper returns its only result, if any, as its returned value
+		 */
+
+		private List<Type> holders(BitSet results, boolean exiting) {
+			List<Type> holders = new ArrayList<>();
+			if (exiting || results.cardinality() > 1)
+				for (int varNum = results.nextSetBit(0); varNum >= 0; varNum = results.nextSetBit(varNum + 1))
+					if (!holders.contains(types.get(varNum)))
+						holders.add(types.get(varNum));
+
+			return holders;
+		}
+
+		private BitSet parameters(int entry, BitSet reads, BitSet writes) {
+			BitSet parameters = new BitSet();
+			parameters.or(reads);
+			parameters.or(writes);
+			parameters.and(live[entry]);
+
+			return parameters;
+		}
+
+		private BitSet results(int exit, BitSet writes) {
+			BitSet results = new BitSet();
+			results.or(writes);
+			results.and(live[exit]);
+
+			return results;
+		}
+
+		/**
+		 * Yields the blocks of a region.
+		 *
+		 * @param region the region
+		 * @return the identifiers of its blocks, starting with its entry
+		 */
+
+		private List<Integer> members(Region region) {
+			stamp++;
+			List<Integer> members = new ArrayList<>();
+			members.add(region.entry);
+			stamps[region.entry] = stamp;
+
+			for (int pos = 0; pos < members.size(); pos++)
+				for (int follow: follows[members.get(pos)])
+					if (follow != region.exit && stamps[follow] != stamp) {
+						stamps[follow] = stamp;
+						members.add(follow);
+					}
+
+			return members;
+		}
+
+		/**
+		 * Outlines a region into a helper. The entry of the region keeps its leading
+		 * condition, if any, calls the helper and continues at the exit of the region.
+		 * If the region contains side exits, the entry returns instead, if the helper says so.
+		 *
+		 * @param region the region
+		 * @param members the blocks of the region, starting with its entry
+		 * @return the helper
+		 */
+
+		private HelperSignature outline(Region region, List<Integer> members) {
+			BitSet reads = new BitSet(), writes = new BitSet();
+			int sideExit = -1;
+			for (int member: members) {
+				reads.or(this.reads[member]);
+				writes.or(this.writes[member]);
+				if (exits[member] != null)
+					sideExit = member;
+			}
+
+			List<Integer> parameters = new ArrayList<>();
+			BitSet set = parameters(region.entry, reads, writes);
+			for (int varNum = set.nextSetBit(0); varNum >= 0; varNum = set.nextSetBit(varNum + 1))
+				parameters.add(varNum);
+
+			BitSet results = results(region.exit, writes);
+			List<Type> holders = holders(results, sideExit >= 0);
+			int result = holders.isEmpty() ? results.nextSetBit(0) : -1;
+			Type returnType = sideExit >= 0 ? BooleanType.INSTANCE : result < 0 ? VoidType.INSTANCE : types.get(result);
+
+			// the holder arrays are passed after the local variables
+			TypeList parameterTypes = TypeList.EMPTY;
+			for (int pos = holders.size() - 1; pos >= 0; pos--)
+				parameterTypes = parameterTypes.push(holderType(holders.get(pos)));
+			for (int pos = parameters.size() - 1; pos >= 0; pos--)
+				parameterTypes = parameterTypes.push(types.get(parameters.get(pos)));
+
+			HelperSignature helper = new HelperSignature(sig.getDefiningClass(), returnType,
+				parameterTypes, sig.getName() + "$" + MethodSplitter.this.helpers++);
+
+			// the parameters of the helper are its first local variables. The
+			// holder arrays are renamed as if they were variables with negative number
+			Map<Integer, Integer> renaming = new HashMap<>();
+			for (int varNum: parameters)
+				renaming.put(varNum, renaming.size());
+			for (int holder = 0; holder < holders.size(); holder++)
+				renaming.put(-1 - holder, renaming.size());
+
+			// the helper fills the holder arrays before returning
+			BytecodeList returned = new BytecodeList();
+			if (!holders.isEmpty())
+				for (int varNum = results.nextSetBit(0); varNum >= 0; varNum = results.nextSetBit(varNum + 1)) {
+					Type type = types.get(varNum);
+					returned.append(new LOAD(renaming.get(-1 - holders.indexOf(type)), holderType(type)));
+					returned.append(new CONST(positionInHolder(varNum, results)));
+					returned.append(new LOAD(renaming(varNum, renaming), type));
+					returned.append(new ARRAYSTORE(type));
+				}
+
+			if (sideExit >= 0)
+				returned.append(new CONST(false));
+			else if (result >= 0)
+				returned.append(new LOAD(renaming(result, renaming), returnType));
+			returned.append(new RETURN(returnType));
+			Block end = new Block(returned, new ArrayList<Block>());
+
+			Block[] copies = new Block[blocks];
+			for (int member: members) {
+				BytecodeList original = graph.get(member).getBytecode(), code = new BytecodeList();
+				// the side exits return true instead of their constant
+				int length = exits[member] == null ? original.size() : this.returned[member] == null ? original.size() - 1 : original.size() - 2;
+
+				for (int pos = 0; pos < length; pos++) {
+					Bytecode bytecode = original.get(pos);
+					if (bytecode instanceof LOAD)
+						code.append(new LOAD(renaming(((LOAD) bytecode).getVarNum(), renaming), ((LOAD) bytecode).getType()));
+					else if (bytecode instanceof STORE)
+						code.append(new STORE(renaming(((STORE) bytecode).getVarNum(), renaming), ((STORE) bytecode).getType()));
+					else if (!(member == region.entry && pos == 0 && bytecode instanceof BranchingBytecode))
+						code.append(bytecode);
+				}
+
+				if (exits[member] != null) {
+					code.append(new CONST(true));
+					code.append(new RETURN(BooleanType.INSTANCE));
+				}
+				else if (code.isEmpty())
+					code.append(new NOP());
+
+				copies[member] = new Block(code, new ArrayList<Block>());
+			}
+
+			for (int member: members)
+				for (int follow: follows[member])
+					copies[member].linkTo(follow == region.exit ? end : copies[follow]);
+
+			helper.setCode(copies[region.entry]);
+
+			// the entry of the region calls the helper instead
+			Block entry = graph.get(region.entry);
+			BytecodeList call = new BytecodeList();
+			if (entry.getBytecode().getHead() instanceof BranchingBytecode)
+				call.append(entry.getBytecode().getHead());
+
+			// the caller creates the holder arrays into new local variables
+			int[] holderLocals = new int[holders.size()];
+			for (int holder = 0; holder < holderLocals.length; holder++) {
+				holderLocals[holder] = locals++;
+				call.append(new CONST(holderSize(holders.get(holder), results)));
+				call.append(new NEWARRAY(holders.get(holder)));
+				call.append(new STORE(holderLocals[holder], holderType(holders.get(holder))));
+			}
+
+			for (int varNum: parameters)
+				call.append(new LOAD(varNum, types.get(varNum)));
+			for (int holder = 0; holder < holderLocals.length; holder++)
+				call.append(new LOAD(holderLocals[holder], holderType(holders.get(holder))));
+
+			call.append(new STATICCALL(helper));
+			if (sideExit < 0 && result >= 0)
+				call.append(new STORE(result, returnType));
+
+			// and unpacks them into the variables, unless it returns
+			BytecodeList unpack = new BytecodeList();
+			if (!holders.isEmpty())
+				for (int varNum = results.nextSetBit(0); varNum >= 0; varNum = results.nextSetBit(varNum + 1)) {
+					Type type = types.get(varNum);
+					unpack.append(new LOAD(holderLocals[holders.indexOf(type)], holderType(type)));
+					unpack.append(new CONST(positionInHolder(varNum, results)));
+					unpack.append(new ARRAYLOAD(type));
+					unpack.append(new STORE(varNum, type));
+				}
+
+			List<Block> follows = new ArrayList<>();
+			if (sideExit >= 0) {
+				// the entry becomes a pivot: it returns if the helper yields true
+				BranchingBytecode condition = new IF_TRUE();
+				BytecodeList exit = new BytecodeList(condition);
+				if (this.returned[sideExit] != null)
+					exit.append(this.returned[sideExit]);
+				exit.append(exits[sideExit]);
+
+				List<Block> next = new ArrayList<>();
+				next.add(graph.get(region.exit));
+				follows.add(new Block(new BytecodeList(condition.negate()).append(unpack), next));
+				follows.add(new Block(exit, new ArrayList<Block>()));
+			}
+			else {
+				call.append(unpack);
+				follows.add(graph.get(region.exit));
+			}
+
+			entry.setBytecode(call);
+			entry.setFollows(follows);
+			sig.addHelper(helper);
+
+			return helper;
+		}
+
+		/**
+		 * Yields the type of a holder array.
+		 *
+		 * @param type the type of the elements of the holder array
+		 * @return the array type of {@code type}
+		 */
+
+		private ArrayType holderType(Type type) {
+			return ArrayType.mk(sig.getDefiningClass().getContext(), type);
+		}
+
+		/**
+		 * Yields the number of elements of a holder array.
+		 *
+		 * @param type the type of the elements of the holder array
+		 * @param results the local variables yielded by the helper
+		 * @return the number of variables of type {@code type} in {@code results}
+		 */
+
+		private int holderSize(Type type, BitSet results) {
+			int size = 0;
+			for (int varNum = results.nextSetBit(0); varNum >= 0; varNum = results.nextSetBit(varNum + 1))
+				if (types.get(varNum) == type)
+					size++;
+
+			return size;
+		}
+
+		/**
+		 * Yields the position of a local variable inside its holder array.
+		 *
+		 * @param varNum the local variable
+		 * @param results the local variables yielded by the helper, including {@code varNum}
+		 * @return the number of variables in {@code results} before {@code varNum}, with its same type
+		 */
+
+		private int positionInHolder(int varNum, BitSet results) {
+			int position = 0;
+			for (int other = results.nextSetBit(0); other < varNum; other = results.nextSetBit(other + 1))
+				if (types.get(other) == types.get(varNum))
+					position++;
+
+			return position;
+		}
+
+		/**
+		 * Yields the number of a local variable of a helper.
+		 *
+		 * @param varNum the number of the variable in the outlined code
+		 * @param renaming the numbers given so far to the variables of the helper
+		 * @return the number of the variable in the helper
+		 */
+
+		private int renaming(int varNum, Map<Integer, Integer> renaming) {
+			Integer renamed = renaming.get(varNum);
+			if (renamed == null)
+				renaming.put(varNum, renamed = renaming.size());
+
+			return renamed;
+		}
+	}
+}
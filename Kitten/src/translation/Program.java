@@ -1,16 +1,33 @@
 package translation;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
-
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javaBytecodeGenerator.JavaClassGenerator;
 import javaBytecodeGenerator.NormalClassGenerator;
 import javaBytecodeGenerator.TestClassGenerator;
 import types.ClassMemberSignature;
 import types.ClassType;
 import types.CodeSignature;
+import types.CompilationContext;
 
 
 
@@ -41,22 +58,127 @@ public class Program {
 
 	private final CodeSignature start;
 
+	/**
+	 * The classes compiled separately by this program, or {@code null} if this program
+	 * is the whole program reachable from its start. In the latter case, the Java bytecode
+	 * is generated for all the classes of {@link #context}.
+	 */
+
+	private final Set<ClassType> classes;
+
+	/**
+	 * The context of the compilation of the classes of this program.
+	 */
+
+	private final CompilationContext context;
+
+	/**
+	 * The number of virtual call sites in the Java bytecode generated for this program.
+	 */
+
+	private int virtualCallSites;
+
+	/**
+	 * The number of virtual call sites in the Java bytecode generated for this program
+	 * that have been compiled into direct calls.
+	 */
+
+	private int devirtualizedCallSites;
+
+	/**
+	 * The number of times each peephole rule has been applied to the Java bytecode
+	 * generated for this program, indexed by the name of the rule.
+	 */
+
+	private final Map<String, Integer> peepholeHits = new LinkedHashMap<>();
+
+	/**
+	 * The maximal number of threads used to generate the Java bytecode of the classes.
+	 */
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * True if and only if the classes are generated with stack map frames.
+	 */
+
+	private boolean stackMapFrames;
+
+	/**
+	 * The estimated size of the Java bytecode of a method or test, above which
+	 * it is split into helpers (see {@link MethodSplitter}). The default is the
+	 * size of the largest methods that HotSpot compiles. The value 0 means that
+	 * no method gets split.
+	 */
+
+	private int splitLimit = 8000;
+
+	/**
+	 * The number of helpers outlined from each method that has been split, and the
+	 * estimated size of the methods that are still too large after the splitting.
+	 */
+
+	private Map<String, Integer> splitMethods = Collections.emptyMap(), hugeMethods = Collections.emptyMap();
+
+	/**
+	 * True if and only if the code of this program has been already prepared for
+	 * the generation of the Java bytecode, through {@link #prepareForJavaBytecode()}.
+	 */
+
+	private boolean prepared;
+
+	/**
+	 * The number of local variable slots used by the code of this program,
+	 * before and after their allocation through {@link SlotAllocator}.
+	 */
+
+	private int slotsBefore, slotsAfter;
+
 	/**
 	 * Builds a program, that is, a set of class member signatures.
 	 *
+	 * @param context the context of the compilation of the classes of the program
 	 * @param sigs the set of signatures
 	 * @param start the code where the program starts
 	 */
 
-	public Program(Set<ClassMemberSignature> sigs, CodeSignature start) {
+	public Program(CompilationContext context, Set<ClassMemberSignature> sigs, CodeSignature start) {
+		this.context = context;
 		this.sigs = sigs;
 		this.start = start;
+		this.classes = null;
 
 		// we clean-up the code, in order to remove useless nop's and merge blocks whenever possible
 		if (start != null)
 			cleanUp();
 	}
 
+	/**
+	 * Builds a program that compiles the given classes separately from the other
+	 * classes of their context, whose class files are assumed to be up to date.
+	 * The program has no start and its signatures are restricted to the members
+	 * of the given classes. The Java bytecode is generated for the given classes only.
+	 *
+	 * @param context the context of the compilation of the classes of the program
+	 * @param sigs the set of signatures. They include all members of the given classes,
+	 *             already translated into Kitten code
+	 * @param classes the classes compiled by the program
+	 */
+
+	public Program(CompilationContext context, Set<ClassMemberSignature> sigs, Collection<ClassType> classes) {
+		this.context = context;
+		this.sigs = sigs;
+		this.start = null;
+		this.classes = new HashSet<>(classes);
+
+		cleanUp();
+
+		// the members of the other classes have been referenced but are not compiled
+		for (Iterator<ClassMemberSignature> it = sigs.iterator(); it.hasNext(); )
+			if (!this.classes.contains(it.next().getDefiningClass()))
+				it.remove();
+	}
+
 	/**
 	 * Yields the class signatures that make up this program.
 	 *
@@ -67,6 +189,16 @@ public class Program {
 		return sigs;
 	}
 
+	/**
+	 * Yields the context of the compilation of the classes of this program.
+	 *
+	 * @return the context
+	 */
+
+	public CompilationContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Yields the method from which the program starts.
 	 *
@@ -77,6 +209,17 @@ public class Program {
 		return start;
 	}
 
+	/**
+	 * Determines if this program is the whole program reachable from its start,
+	 * rather than a set of classes compiled separately.
+	 *
+	 * @return true if and only if this program is the whole program
+	 */
+
+	public boolean isWholeProgram() {
+		return classes == null;
+	}
+
 	/**
 	 * Yields the first block of code from which the program starts.
 	 *
@@ -89,16 +232,79 @@ public class Program {
 
 	/**
 	 * Cleans-up the code of this program. This amounts to removing useless
-	 * nop's or methods or constructors that are not called.
+	 * nop's or methods or constructors that are not called. Each method or
+	 * constructor is cleaned-up once, including those that are only
+	 * reachable as dynamic targets of some call. If the classes of this program are
+	 * compiled separately, the code of the other classes is not cleaned-up.
 	 */
 
 	public void cleanUp() {
-		//sigs.clear();
-		for(ClassMemberSignature sig : sigs){
-			if(sig instanceof CodeSignature)
-				((CodeSignature) sig).getCode().cleanUp(this);
+		// the start method of the program is definitely called
+		if (start != null)
+			sigs.add(start);
+
+		// the code that must still be cleaned-up
+		Deque<CodeSignature> worklist = new ArrayDeque<>();
+		for (ClassMemberSignature sig: sigs)
+			if (sig instanceof CodeSignature)
+				worklist.push((CodeSignature) sig);
+
+		Set<CodeSignature> done = new HashSet<>();
+		while (!worklist.isEmpty()) {
+			CodeSignature sig = worklist.pop();
+			if (done.add(sig) && (classes == null || classes.contains(sig.getDefiningClass())))
+				sig.getCode().cleanUp(this, worklist);
 		}
-		start.getCode().cleanUp(this);
+	}
+
+	/**
+	 * Restricts this program through a rapid type analysis. The dynamic targets of
+	 * the virtual calls are limited to the methods that might be called on
+	 * the classes instantiated by the program, and the signatures of the program
+	 * are limited to the methods and constructors that are still reachable from its
+	 * start or from its tests and to the fields that they access. It is assumed that
+	 * the code of this program has been already cleaned-up.
+	 *
+	 * @return the number of classes that might be instantiated by the program
+	 */
+
+	public int rapidTypeAnalysis() {
+		RapidTypeAnalysis analysis = new RapidTypeAnalysis(this);
+		analysis.restrict(this);
+
+		return analysis.getInstantiated().size();
+	}
+
+	/**
+	 * Inlines the calls of this program that have a single dynamic target, if the
+	 * code of that target is small enough. The methods and constructors of this
+	 * program are processed in alphabetical order, so that the result is deterministic.
+	 * It is assumed that the code of this program has been already cleaned-up.
+	 *
+	 * @param budget the maximal number of Kitten bytecodes of an inlined method
+	 * @return a map from the name of each inlined method to the number of
+	 *         its call sites that have been inlined, in alphabetical order
+	 */
+
+	public Map<String, Integer> inline(int budget) {
+		List<CodeSignature> callers = new ArrayList<>();
+		for (ClassMemberSignature sig: sigs)
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null)
+				callers.add((CodeSignature) sig);
+
+		Collections.sort(callers, new Comparator<CodeSignature>() {
+
+			@Override
+			public int compare(CodeSignature sig1, CodeSignature sig2) {
+				return sig1.toString().compareTo(sig2.toString());
+			}
+		});
+
+		Inliner inliner = new Inliner(budget);
+		for (CodeSignature caller: callers)
+			inliner.inlineInto(caller);
+
+		return inliner.getInlined();
 	}
 
 	/**
@@ -110,10 +316,10 @@ public class Program {
 		for (ClassMemberSignature sig: sigs)
 			if (sig instanceof CodeSignature)
 				try {
-					dumpCodeDot((CodeSignature) sig, "./");
+					dumpCodeDot((CodeSignature) sig, context.getDirectory().getPath() + File.separator);
 				}
 				catch (IOException e) {
-						System.out.println("Could not dump Kitten code for " + sig);
+						context.getOut().println("Could not dump Kitten code for " + sig);
 				}
 	}
 
@@ -134,7 +340,7 @@ public class Program {
 			// the size of a standard A4 sheet (in inches)
 			dot.write("size = \"11,7.5\";\n");
 
-			toDot(sig.getCode(), dot, new HashSet<Block>());
+			toDot(sig.getCode(), dot);
 
 			dot.write("}");
 			dot.flush();
@@ -142,26 +348,24 @@ public class Program {
 	}
 
 	/**
-	 * Auxiliary method which writes in the dot file a box standing for the
-	 * given block, linked to the following blocks, if any.
+	 * Auxiliary method which writes in the dot file a box for each block
+	 * reachable from the given one, linked to its following blocks, if any.
 	 *
-	 * @param block the block
+	 * @param entry the first block of the code
 	 * @param where the file where the dot representation must be written
-	 * @param done the set of blocks which have been processed up to now
-	 * @return the identifier of {@code block} in the dot file
 	 * @throws IOException if an input/output error occurs
 	 */
 
-	private String toDot(Block block, FileWriter where, Set<Block> done) throws IOException {
-		String name = block.dotNodeName();
+	private void toDot(Block entry, FileWriter where) throws IOException {
+		// every block gets numbered before the arcs towards it are written
+		BlockGraph graph = new BlockGraph(entry).visitAll();
 
-		// did we already dumped the given block in the file?
-		if (!done.contains(block)) {
-			// we never dumped the block before: we add it to the set of already dumped blocks
-			done.add(block);
+		for (int id = 0; id < graph.size(); id++) {
+			Block block = graph.get(id);
+			String name = block.dotNodeName(graph);
 
 			// we add a box to the dot file
-			where.write(name + " [ shape = box, label = \"block " + block.getId() + "\\n");
+			where.write(name + " [ shape = box, label = \"block " + id + "\\n");
 
 			// in the middle there is a dump of the bytecode inside the block
 			where.write(block.getBytecode().toString().replaceAll("\n","\\\\n"));
@@ -171,53 +375,284 @@ public class Program {
 
 			// we add a dot representation for the follows of the block
 			for (Block follow: block.getFollows())
-				where.write(name + "->" + toDot(follow, where, done) + " [color = blue label = \"\" fontsize = 8]\n");
+				where.write(name + "->" + follow.dotNodeName(graph) + " [color = blue label = \"\" fontsize = 8]\n");
 		}
-
-		// we return the unique identifier of the block in the dot file
-		return name;
 	}
 
 	/**
-	 * Generates the Java bytecode for all the class types and
-	 * dumps the relative {@code .class} files on the file system.
+	 * Generates the Java bytecode for all the class types, or for those compiled
+	 * separately by this program, and dumps the relative {@code .class} files on the
+	 * file system. The classes are generated in parallel (see {@link #setThreads(int)}).
 	 */
 
 	public void generateJavaBytecode() {
-		// we consider one class at the time and we generate its Java bytecode
-		for (ClassType clazz: ClassType.getAll())
-			try {
-				new NormalClassGenerator(clazz, sigs).getJavaClass().dump(clazz + ".class");
-				
-			}
-			catch (IOException e) {
-				System.out.println("Could not dump the Java bytecode for class " + clazz);
-			}
+		generateJavaBytecode(getGeneratedClasses(), false);
 	}
 
-	
 	/**
-	 * Generates the Java bytecode for all the class types and
-	 * dumps the relative {@code .class} files on the file system.
+	 * Generates the Java bytecode for the tests of all the class types, or of those
+	 * compiled separately by this program, and dumps the relative {@code .class} files
+	 * on the file system. The classes are generated in parallel (see {@link #setThreads(int)}).
 	 */
 
 	public void generateJavaBytecodeForTest() {
-		// we consider one class at the time and we generate its Java bytecode
-		for (ClassType clazz: ClassType.getAll()){
-			if(clazz.getTests().isEmpty()){
-				
-				continue;
-			}
-			try {
-				new TestClassGenerator(clazz, sigs).getJavaClass().dump(clazz + "Test.class");
-				
-			}
-			catch (IOException e) {
-				System.out.println("Could not dump the Java bytecode for class " + clazz);
+		List<ClassType> classes = new ArrayList<>();
+		for (ClassType clazz: getGeneratedClasses())
+			if (!clazz.getTests().isEmpty())
+				classes.add(clazz);
+
+		generateJavaBytecode(classes, true);
+	}
+
+	/**
+	 * Yields the classes whose Java bytecode is generated by this program.
+	 *
+	 * @return all the classes of the context, or those compiled separately by this program
+	 */
+
+	private Collection<ClassType> getGeneratedClasses() {
+		return classes == null ? context.getClasses() : classes;
+	}
+
+	/**
+	 * Sets the maximal number of threads used to generate the Java bytecode
+	 * of the classes. By default, this is the number of available processors.
+	 *
+	 * @param threads the number of threads. It must be positive
+	 */
+
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("the number of threads must be positive");
+
+		this.threads = threads;
+	}
+
+	/**
+	 * Determines if the classes are generated in the format of Java 7, with stack
+	 * map frames, or in the old format of BCEL, that is the default
+	 * (see {@link JavaClassGenerator#setStackMapFrames(boolean)}).
+	 *
+	 * @param stackMapFrames true if and only if the classes must be generated with stack map frames
+	 */
+
+	public void setStackMapFrames(boolean stackMapFrames) {
+		this.stackMapFrames = stackMapFrames;
+	}
+
+	/**
+	 * Sets the estimated size of the Java bytecode of a method or test, above which
+	 * it is split into helper methods, since HotSpot would not compile it.
+	 *
+	 * @param splitLimit the size, in bytes. The value 0 means that no method gets split
+	 */
+
+	public void setSplitLimit(int splitLimit) {
+		this.splitLimit = splitLimit;
+	}
+
+	/**
+	 * Generates the Java bytecode for the given classes, or for their tests, and
+	 * dumps the relative {@code .class} files on the file system. Each class is
+	 * generated and dumped by a task of a bounded pool of threads. This is possible
+	 * since each class generator has its own constant pool and the signatures of this
+	 * program are only read. The result does not depend on the scheduling of the tasks.
+	 * An error in the generation of a class is reported and does not stop the generation
+	 * of the others. Errors are reported and statistics are collected in alphabetical
+	 * order of the classes, after all tasks have completed.
+	 *
+	 * @param classes the classes whose Java bytecode must be generated
+	 * @param forTest true if and only if the tests of the classes must be generated,
+	 *                rather than the classes themselves
+	 */
+
+	private void generateJavaBytecode(Collection<ClassType> classes, final boolean forTest) {
+		List<ClassType> sorted = new ArrayList<>(classes);
+		Collections.sort(sorted, new Comparator<ClassType>() {
+
+			@Override
+			public int compare(ClassType class1, ClassType class2) {
+				return class1.getName().compareTo(class2.getName());
 			}
+		});
+
+		if (sorted.isEmpty())
+			return;
+
+		if (!prepared) {
+			prepared = true;
+			prepareForJavaBytecode();
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, sorted.size()));
+		List<Future<JavaClassGenerator>> generators = new ArrayList<>();
+
+		try {
+			for (final ClassType clazz: sorted)
+				generators.add(pool.submit(new Callable<JavaClassGenerator>() {
+
+					@Override
+					public JavaClassGenerator call() throws IOException {
+						JavaClassGenerator generator;
+
+						if (forTest) {
+							generator = new TestClassGenerator(clazz, sigs);
+							generator.setStackMapFrames(stackMapFrames);
+							generator.getJavaClass().dump(new File(context.getDirectory(), clazz + "Test.class"));
+						}
+						else {
+							generator = new NormalClassGenerator(clazz, sigs);
+							generator.setStackMapFrames(stackMapFrames);
+							generator.getJavaClass().dump(new File(context.getDirectory(), clazz + ".class"));
+						}
+
+						return generator;
+					}
+				}));
+
+			for (int pos = 0; pos < sorted.size(); pos++)
+				try {
+					collectStatistics(generators.get(pos).get());
+				}
+				catch (ExecutionException e) {
+					context.getOut().println("Could not dump the Java bytecode for class " + sorted.get(pos) + ": " + e.getCause());
+				}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			context.getOut().println("The generation of the Java bytecode has been interrupted");
+		}
+		finally {
+			pool.shutdownNow();
 		}
 	}
-	
+
+	/**
+	 * Adds the call sites generated by the given generator, and the applications
+	 * of its peephole rules, to those of this program.
+	 *
+	 * @param generator the generator
+	 */
+
+	private void collectStatistics(JavaClassGenerator generator) {
+		virtualCallSites += generator.getVirtualCallSites();
+		devirtualizedCallSites += generator.getDevirtualizedCallSites();
+
+		for (Map.Entry<String, Integer> hits: generator.getPeepholeOptimizer().getHits().entrySet()) {
+			Integer count = peepholeHits.get(hits.getKey());
+			peepholeHits.put(hits.getKey(), count == null ? hits.getValue() : count + hits.getValue());
+		}
+	}
+
+	/**
+	 * Transforms the code of this program before any class gets generated: the methods
+	 * and tests that are too large are split into helpers, the string literals are shared
+	 * where possible and the local variables are allocated to slots.
+	 */
+
+	private void prepareForJavaBytecode() {
+		SharedLiterals literals = new SharedLiterals(this);
+		SlotAllocator allocator = new SlotAllocator();
+		MethodSplitter splitter = new MethodSplitter(splitLimit);
+
+		for (ClassMemberSignature sig: sigs)
+			if (sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null) {
+				List<CodeSignature> code = new ArrayList<>();
+				code.add((CodeSignature) sig);
+				if (splitLimit > 0)
+					code.addAll(splitter.split((CodeSignature) sig));
+
+				for (CodeSignature cs: code) {
+					literals.share(cs);
+					allocator.allocate(cs);
+				}
+			}
+
+		splitMethods = splitter.getSplit();
+		hugeMethods = splitter.getHuge();
+		slotsBefore = allocator.getSlotsBefore();
+		slotsAfter = allocator.getSlotsAfter();
+	}
+
+	/**
+	 * Yields the methods and tests that have been split into helpers, since they were too large.
+	 *
+	 * @return a map from the name of each split method or test to the number of its
+	 *         helpers, in alphabetical order
+	 */
+
+	public Map<String, Integer> getSplitMethods() {
+		return splitMethods;
+	}
+
+	/**
+	 * Yields the methods and tests that are still too large, after their splitting.
+	 * They will not be compiled by HotSpot and might be rejected by the Java virtual
+	 * machine, if larger than 64 kilobytes.
+	 *
+	 * @return a map from the name of each such method or test to the estimated
+	 *         size of its Java bytecode, in alphabetical order
+	 */
+
+	public Map<String, Integer> getHugeMethods() {
+		return hugeMethods;
+	}
+
+	/**
+	 * Yields the number of local variable slots used by the code of this program,
+	 * before they were allocated on the basis of the liveness of the variables.
+	 *
+	 * @return the number of slots, summed over all methods and constructors
+	 */
+
+	public int getSlotsBefore() {
+		return slotsBefore;
+	}
+
+	/**
+	 * Yields the number of local variable slots used by the code of this program,
+	 * after they were allocated on the basis of the liveness of the variables.
+	 *
+	 * @return the number of slots, summed over all methods and constructors
+	 */
+
+	public int getSlotsAfter() {
+		return slotsAfter;
+	}
+
+	/**
+	 * Yields the number of virtual call sites in the Java bytecode generated so far for this program.
+	 *
+	 * @return the number of virtual call sites
+	 */
+
+	public int getVirtualCallSites() {
+		return virtualCallSites;
+	}
+
+	/**
+	 * Yields the number of virtual call sites in the Java bytecode generated so far
+	 * for this program that have been compiled into direct calls, since they have
+	 * a single dynamic target.
+	 *
+	 * @return the number of devirtualized call sites
+	 */
+
+	public int getDevirtualizedCallSites() {
+		return devirtualizedCallSites;
+	}
+
+	/**
+	 * Yields the number of times each peephole rule has been applied to the Java
+	 * bytecode generated so far for this program.
+	 *
+	 * @return a map from the name of each rule to the number of its applications
+	 */
+
+	public Map<String, Integer> getPeepholeHits() {
+		return peepholeHits;
+	}
+
 	/**
 	 * Takes note that this program contains the given bytecode. This amounts
 	 * to adding some signature to the set of signatures for the program.
@@ -0,0 +1,237 @@
+package translation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.CALL;
+import bytecode.FieldAccessBytecode;
+import bytecode.NEW;
+import bytecode.VIRTUALCALL;
+import types.ClassMemberSignature;
+import types.ClassType;
+import types.CodeSignature;
+import types.FixtureSignature;
+import types.MethodSignature;
+import types.TestSignature;
+import types.TypeList;
+
+/**
+ * A rapid type analysis of a program. It computes the set of classes that might
+ * be instantiated by the program and the methods and constructors that are reachable
+ * from the start of the program and from its tests and fixtures, by considering as
+ * dynamic targets of a virtual call only the methods that might be called on
+ * the instantiated classes. Since each new instantiated class might make new
+ * targets reachable, the analysis is iterated up to a fixpoint. The result
+ * is used to restrict the dynamic targets of the virtual calls and the
+ * signatures of the program.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+class RapidTypeAnalysis {
+
+	/**
+	 * The classes that might be instantiated by the program.
+	 */
+
+	private final Set<ClassType> instantiated = new HashSet<>();
+
+	/**
+	 * The methods and constructors that might be executed by the program.
+	 */
+
+	private final Set<CodeSignature> reachable = new HashSet<>();
+
+	/**
+	 * The fields that might be accessed by the program.
+	 */
+
+	private final Set<ClassMemberSignature> fields = new HashSet<>();
+
+	/**
+	 * The reachable methods and constructors whose code has not been analysed yet.
+	 */
+
+	private final Deque<CodeSignature> worklist = new ArrayDeque<>();
+
+	/**
+	 * The static targets of the virtual calls met so far, indexed by the static type of
+	 * their receiver. When a subclass of that type gets instantiated, the
+	 * redefinitions of those targets in the subclass become reachable.
+	 */
+
+	private final Map<ClassType, List<MethodSignature>> virtualCalls = new HashMap<>();
+
+	/**
+	 * Performs the rapid type analysis of the given program.
+	 *
+	 * @param program the program. Its code must have been already cleaned-up
+	 */
+
+	RapidTypeAnalysis(Program program) {
+		// strings are created by the runtime also, for instance by concatenation
+		for (ClassType clazz: program.getContext().getClasses())
+			if (clazz.getName().equals("String"))
+				instantiate(clazz);
+
+		reach(program.getStart());
+
+		// tests and fixtures are called on a new object of their class
+		// built through its empty constructor
+		for (ClassMemberSignature sig: program.getSigs())
+			if (sig instanceof TestSignature || sig instanceof FixtureSignature) {
+				ClassType clazz = sig.getDefiningClass();
+				instantiate(clazz);
+				reach(clazz.constructorLookup(TypeList.EMPTY));
+				reach((CodeSignature) sig);
+			}
+
+		while (!worklist.isEmpty())
+			analyse(worklist.pop().getCode());
+	}
+
+	/**
+	 * Yields the classes that might be instantiated by the program.
+	 *
+	 * @return the instantiated classes
+	 */
+
+	Set<ClassType> getInstantiated() {
+		return instantiated;
+	}
+
+	/**
+	 * Yields the methods and constructors that might be executed by the program.
+	 *
+	 * @return the reachable methods and constructors
+	 */
+
+	Set<CodeSignature> getReachable() {
+		return reachable;
+	}
+
+	/**
+	 * Takes note that the given method or constructor might be executed.
+	 *
+	 * @param sig the method or constructor. It might be {@code null}, in which case nothing happens
+	 */
+
+	private void reach(CodeSignature sig) {
+		if (sig != null && sig.getCode() != null && reachable.add(sig))
+			worklist.push(sig);
+	}
+
+	/**
+	 * Takes note that the given class might be instantiated. This makes reachable
+	 * the redefinitions, in that class, of the static targets of the virtual calls met so far.
+	 *
+	 * @param clazz the class
+	 */
+
+	private void instantiate(ClassType clazz) {
+		if (instantiated.add(clazz))
+			for (ClassType cursor = clazz; cursor != null; cursor = cursor.getSuperclass()) {
+				List<MethodSignature> targets = virtualCalls.get(cursor);
+				if (targets != null)
+					for (MethodSignature target: targets)
+						reach(clazz.methodLookup(target.getName(), target.getParameters()));
+			}
+	}
+
+	/**
+	 * Analyses the code starting at the given block.
+	 *
+	 * @param entry the first block of the code
+	 */
+
+	private void analyse(Block entry) {
+		BlockGraph graph = new BlockGraph(entry);
+
+		for (Block block = graph.next(); block != null; block = graph.next()) {
+			for (Bytecode bytecode: block.getBytecode())
+				if (bytecode instanceof NEW)
+					instantiate(((NEW) bytecode).getType());
+				else if (bytecode instanceof FieldAccessBytecode)
+					fields.add(((FieldAccessBytecode) bytecode).getField());
+				else if (bytecode instanceof VIRTUALCALL)
+					analyse((VIRTUALCALL) bytecode);
+				else if (bytecode instanceof CALL)
+					for (CodeSignature target: ((CALL) bytecode).getDynamicTargets())
+						reach(target);
+
+			graph.pushFollows(block);
+		}
+	}
+
+	/**
+	 * Analyses a virtual call. Its dynamic targets are the redefinitions of its static
+	 * target in the instantiated subclasses of the static type of its receiver.
+	 * If no such subclass has been instantiated yet, the static target is considered
+	 * reachable anyway, so that the call can still be linked by the Java virtual machine.
+	 *
+	 * @param call the virtual call
+	 */
+
+	private void analyse(VIRTUALCALL call) {
+		ClassType receiverType = (ClassType) call.getReceiverType();
+		MethodSignature staticTarget = (MethodSignature) call.getStaticTarget();
+
+		List<MethodSignature> targets = virtualCalls.get(receiverType);
+		if (targets == null)
+			virtualCalls.put(receiverType, targets = new ArrayList<>());
+
+		if (!targets.contains(staticTarget))
+			targets.add(staticTarget);
+
+		boolean found = false;
+		for (ClassType clazz: receiverType.getInstances())
+			if (instantiated.contains(clazz)) {
+				reach(clazz.methodLookup(staticTarget.getName(), staticTarget.getParameters()));
+				found = true;
+			}
+
+		if (!found)
+			reach(staticTarget);
+	}
+
+	/**
+	 * Restricts the given program to the result of this analysis. The dynamic targets of
+	 * its virtual calls are recomputed by considering only the instantiated classes, and its
+	 * signatures are restricted to the reachable methods and constructors and to the
+	 * fields that they access.
+	 *
+	 * @param program the program that has been analysed
+	 */
+
+	void restrict(Program program) {
+		for (CodeSignature sig: reachable) {
+			BlockGraph graph = new BlockGraph(sig.getCode());
+
+			for (Block block = graph.next(); block != null; block = graph.next()) {
+				for (BytecodeList.Cursor cursor = block.getBytecode().cursor(); cursor.hasNext(); ) {
+					Bytecode bytecode = cursor.next();
+
+					if (bytecode instanceof VIRTUALCALL) {
+						VIRTUALCALL call = (VIRTUALCALL) bytecode;
+						cursor.set(new VIRTUALCALL((ClassType) call.getReceiverType(),
+							(MethodSignature) call.getStaticTarget(), instantiated));
+					}
+				}
+
+				graph.pushFollows(block);
+			}
+		}
+
+		Set<ClassMemberSignature> kept = new HashSet<>(fields);
+		kept.addAll(reachable);
+		program.getSigs().retainAll(kept);
+	}
+}
@@ -0,0 +1,118 @@
+package translation;
+
+import types.ClassMemberSignature;
+import types.CodeSignature;
+import types.MethodSignature;
+import bytecode.APPEND;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.NEWBUILDER;
+import bytecode.NEWSTRING;
+import bytecode.VIRTUALCALL;
+
+/**
+ * A transformation that lets the string literals of a program be shared by all their
+ * evaluations, instead of being allocated at each evaluation. This is only possible
+ * for the literals that are never modified by a call to {@code input()}. If the program
+ * never calls {@code input()}, all its literals are shared. Otherwise, a literal is shared
+ * only if it is immediately consumed by a bytecode that only reads it.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+class SharedLiterals {
+
+	/**
+	 * True if and only if the program might call {@code input()} on a string.
+	 */
+
+	private final boolean input;
+
+	/**
+	 * Builds the transformation for the given program.
+	 *
+	 * @param program the program
+	 */
+
+	SharedLiterals(Program program) {
+		// the classes compiled separately might be used by code that calls input(),
+		// that is not visible here
+		boolean input = !program.isWholeProgram();
+
+		for (ClassMemberSignature sig: program.getSigs())
+			if (!input && sig instanceof CodeSignature && ((CodeSignature) sig).getCode() != null) {
+				BlockGraph graph = new BlockGraph(((CodeSignature) sig).getCode());
+
+				for (Block block = graph.next(); block != null && !input; block = graph.next()) {
+					for (Bytecode bytecode: block.getBytecode())
+						if (bytecode instanceof VIRTUALCALL)
+							for (CodeSignature target: ((VIRTUALCALL) bytecode).getDynamicTargets())
+								if (isStringMethod(target) && target.getName().equals("input"))
+									input = true;
+
+					graph.pushFollows(block);
+				}
+			}
+
+		this.input = input;
+	}
+
+	/**
+	 * Replaces the literals in the code of the given method or constructor
+	 * with shared literals, wherever possible.
+	 *
+	 * @param sig the method or constructor
+	 */
+
+	void share(CodeSignature sig) {
+		BlockGraph graph = new BlockGraph(sig.getCode());
+
+		for (Block block = graph.next(); block != null; block = graph.next()) {
+			BytecodeList code = block.getBytecode();
+			int pos = 0;
+
+			for (BytecodeList.Cursor cursor = code.cursor(); cursor.hasNext(); pos++) {
+				Bytecode bytecode = cursor.next();
+
+				if (bytecode instanceof NEWSTRING && !((NEWSTRING) bytecode).isShared()
+						&& (!input || (pos + 1 < code.size() && onlyReads(code.get(pos + 1)))))
+					cursor.set(new NEWSTRING(((NEWSTRING) bytecode).getValue(), true));
+			}
+
+			graph.pushFollows(block);
+		}
+	}
+
+	/**
+	 * Determines if the given bytecode only reads the string on top of the stack.
+	 *
+	 * @param bytecode the bytecode that follows the creation of the string
+	 * @return true if that is the case
+	 */
+
+	private static boolean onlyReads(Bytecode bytecode) {
+		if (bytecode instanceof APPEND || bytecode instanceof NEWBUILDER)
+			return true;
+
+		if (!(bytecode instanceof VIRTUALCALL))
+			return false;
+
+		// the string is either the last actual parameter or, if there are
+		// no parameters, the receiver of the call
+		MethodSignature target = (MethodSignature) ((VIRTUALCALL) bytecode).getStaticTarget();
+
+		return isStringMethod(target) && !target.isOverridden()
+			&& (target.getParameters().getSize() > 0 || !target.getName().equals("input"));
+	}
+
+	/**
+	 * Determines if the given method or constructor is defined in class {@code String}.
+	 *
+	 * @param sig the method or constructor
+	 * @return true if and only if that is the case
+	 */
+
+	private static boolean isStringMethod(CodeSignature sig) {
+		return sig.getDefiningClass().getName().equals("String");
+	}
+}
@@ -0,0 +1,303 @@
+package translation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import types.CodeSignature;
+import types.FloatType;
+import types.ReferenceType;
+import types.Type;
+import bytecode.Bytecode;
+import bytecode.BytecodeList;
+import bytecode.LOAD;
+import bytecode.STORE;
+
+/**
+ * An allocator of the local variables of the Kitten code to the slots of the
+ * Java virtual machine. The type-checker numbers the local variables of a method
+ * or constructor in order of declaration, so that variables declared in disjoint
+ * scopes might get the same number, also with distinct types, while variables
+ * declared one after the other in the same scope never do. This allocator splits
+ * each number into a live range for each kind of values for the Java virtual machine
+ * (integers, floats or references) that it holds, computes the liveness of the
+ * live ranges and lets two of them share the same slot if they are never live at
+ * the same time and if they hold values of the same kind. The receiver and the
+ * parameters keep their slots.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+class SlotAllocator {
+
+	/**
+	 * The kind of the integer and Boolean values.
+	 */
+
+	private final static int INT = 0;
+
+	/**
+	 * The kind of the floating-point values.
+	 */
+
+	private final static int FLOAT = 1;
+
+	/**
+	 * The kind of the references.
+	 */
+
+	private final static int REFERENCE = 2;
+
+	/**
+	 * The number of kinds.
+	 */
+
+	private final static int KINDS = 3;
+
+	/**
+	 * The number of slots used by the code processed so far, before and after the allocation.
+	 */
+
+	private int before, after;
+
+	/**
+	 * Yields the number of slots used by the code processed so far, before the allocation.
+	 *
+	 * @return the number of slots
+	 */
+
+	int getSlotsBefore() {
+		return before;
+	}
+
+	/**
+	 * Yields the number of slots used by the code processed so far, after the allocation.
+	 *
+	 * @return the number of slots
+	 */
+
+	int getSlotsAfter() {
+		return after;
+	}
+
+	/**
+	 * Allocates the local variables of the given method or constructor to slots,
+	 * by renumbering its {@code load} and {@code store} bytecodes.
+	 *
+	 * @param sig the method or constructor
+	 */
+
+	void allocate(CodeSignature sig) {
+		BlockGraph graph = new BlockGraph(sig.getCode()).visitAll();
+		int blocks = graph.size();
+
+		// the receiver, if any, and the parameters are not reallocated
+		int fixed = sig.getParameters().getSize() + (sig.hasReceiver() ? 1 : 0);
+
+		// the live ranges, numbered in order of first occurrence, and their kinds.
+		// A load only reads the values stored with its same kind, or the code would
+		// not be verifiable, hence the kinds of a variable number are independent
+		Map<Integer, Integer> variables = new HashMap<>();
+		List<Integer> kinds = new ArrayList<>();
+		int slots = fixed;
+
+		for (int id = 0; id < blocks; id++)
+			for (Bytecode bytecode: graph.get(id).getBytecode()) {
+				int varNum = varNum(bytecode);
+
+				if (varNum >= fixed) {
+					slots = Math.max(slots, varNum + 1);
+					int range = range(bytecode);
+
+					if (!variables.containsKey(range)) {
+						variables.put(range, kinds.size());
+						kinds.add(range % KINDS);
+					}
+				}
+			}
+
+		before += slots;
+
+		if (variables.isEmpty()) {
+			after += slots;
+			return;
+		}
+
+		BitSet[] interference = interference(graph, fixed, variables);
+
+		// we give each variable the first slot of its kind that is not
+		// used by any variable that interferes with it
+		int size = kinds.size();
+		int[] slotOf = new int[size];
+		List<Integer> kindOfSlot = new ArrayList<>();
+
+		for (int variable = 0; variable < size; variable++) {
+			BitSet forbidden = new BitSet();
+			for (int other = interference[variable].nextSetBit(0); other >= 0 && other < variable; other = interference[variable].nextSetBit(other + 1))
+				forbidden.set(slotOf[other]);
+
+			int slot = 0;
+			while (slot < kindOfSlot.size() && (forbidden.get(slot) || kindOfSlot.get(slot) != kinds.get(variable)))
+				slot++;
+
+			if (slot == kindOfSlot.size())
+				kindOfSlot.add(kinds.get(variable));
+
+			slotOf[variable] = slot;
+		}
+
+		after += fixed + kindOfSlot.size();
+
+		for (int id = 0; id < blocks; id++)
+			for (BytecodeList.Cursor cursor = graph.get(id).getBytecode().cursor(); cursor.hasNext(); ) {
+				Bytecode bytecode = cursor.next();
+				int varNum = varNum(bytecode);
+
+				if (varNum >= fixed) {
+					int slot = fixed + slotOf[variables.get(range(bytecode))];
+
+					if (bytecode instanceof LOAD)
+						cursor.set(new LOAD(slot, ((LOAD) bytecode).getType()));
+					else
+						cursor.set(new STORE(slot, ((STORE) bytecode).getType()));
+				}
+			}
+	}
+
+	/**
+	 * Computes the interference between the live ranges of a piece of code. Two
+	 * live ranges interfere if one is assigned where the other is live.
+	 *
+	 * @param graph the blocks of the code
+	 * @param fixed the number of slots of the receiver and of the parameters
+	 * @param variables the live ranges of the other variables, bound to their progressive number
+	 * @return the set of live ranges that interfere with each live range
+	 */
+
+	private static BitSet[] interference(BlockGraph graph, int fixed, Map<Integer, Integer> variables) {
+		int blocks = graph.size();
+		BitSet[] liveIn = new BitSet[blocks];
+		BitSet[] liveOut = new BitSet[blocks];
+
+		for (int id = 0; id < blocks; id++) {
+			liveIn[id] = new BitSet();
+			liveOut[id] = new BitSet();
+		}
+
+		// a backward dataflow analysis, iterated up to a fixpoint. Since the blocks
+		// are numbered in depth-first order, they are processed in reverse order
+		boolean changed;
+		do {
+			changed = false;
+
+			for (int id = blocks - 1; id >= 0; id--) {
+				Block block = graph.get(id);
+				for (Block follow: block.getFollows())
+					liveOut[id].or(liveIn[graph.idOf(follow)]);
+
+				BitSet live = (BitSet) liveOut[id].clone();
+				transfer(block, fixed, variables, live, null);
+
+				if (!live.equals(liveIn[id])) {
+					liveIn[id] = live;
+					changed = true;
+				}
+			}
+		}
+		while (changed);
+
+		BitSet[] interference = new BitSet[variables.size()];
+		for (int variable = 0; variable < interference.length; variable++)
+			interference[variable] = new BitSet();
+
+		for (int id = 0; id < blocks; id++)
+			transfer(graph.get(id), fixed, variables, (BitSet) liveOut[id].clone(), interference);
+
+		return interference;
+	}
+
+	/**
+	 * Computes the live ranges live at the beginning of a block, from those live at its end.
+	 *
+	 * @param block the block
+	 * @param fixed the number of slots of the receiver and of the parameters
+	 * @param variables the live ranges of the other variables, bound to their progressive number
+	 * @param live the live ranges live at the end of the block. It gets modified into
+	 *             those live at its beginning
+	 * @param interference if not {@code null}, the interference found in the block
+	 *                     is added here
+	 */
+
+	private static void transfer(Block block, int fixed, Map<Integer, Integer> variables, BitSet live, BitSet[] interference) {
+		BytecodeList code = block.getBytecode();
+
+		for (int pos = code.size() - 1; pos >= 0; pos--) {
+			Bytecode bytecode = code.get(pos);
+			int varNum = varNum(bytecode);
+
+			if (varNum >= fixed) {
+				int variable = variables.get(range(bytecode));
+
+				if (bytecode instanceof STORE) {
+					live.clear(variable);
+
+					if (interference != null)
+						for (int other = live.nextSetBit(0); other >= 0; other = live.nextSetBit(other + 1)) {
+							interference[variable].set(other);
+							interference[other].set(variable);
+						}
+				}
+				else
+					live.set(variable);
+			}
+		}
+	}
+
+	/**
+	 * Yields the number of the local variable accessed by the given bytecode.
+	 *
+	 * @param bytecode the bytecode
+	 * @return the number of the variable, or -1 if the bytecode is neither a {@code load} nor a {@code store}
+	 */
+
+	private static int varNum(Bytecode bytecode) {
+		if (bytecode instanceof LOAD)
+			return ((LOAD) bytecode).getVarNum();
+		else if (bytecode instanceof STORE)
+			return ((STORE) bytecode).getVarNum();
+		else
+			return -1;
+	}
+
+	/**
+	 * Yields the live range accessed by the given {@code load} or {@code store} bytecode.
+	 *
+	 * @param bytecode the bytecode
+	 * @return the live range, that combines the number of the variable with the kind of its values
+	 */
+
+	private static int range(Bytecode bytecode) {
+		if (bytecode instanceof LOAD)
+			return ((LOAD) bytecode).getVarNum() * KINDS + kind(((LOAD) bytecode).getType());
+		else
+			return ((STORE) bytecode).getVarNum() * KINDS + kind(((STORE) bytecode).getType());
+	}
+
+	/**
+	 * Yields the kind of the values of the given type, for the Java virtual machine.
+	 *
+	 * @param type the type
+	 * @return the kind
+	 */
+
+	private static int kind(Type type) {
+		if (type instanceof ReferenceType)
+			return REFERENCE;
+		else if (type instanceof FloatType)
+			return FLOAT;
+		else
+			return INT;
+	}
+}
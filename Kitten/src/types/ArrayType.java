@@ -1,8 +1,5 @@
 package types;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * A (mono-dimensional) array type of the Kitten language.
  *
@@ -12,13 +9,10 @@ import java.util.Map;
 public class ArrayType extends ReferenceType {
 
 	/**
-	 * A map from elements type to the unique array type for that elements type.
-	 * It is used in order to avoid duplication of array types for
-	 * the same elements type. In this way, comparison of array types
-	 * can be performed through simple == tests.
+	 * The context of the compilation where this array type has been created.
 	 */
 
-	private final static Map<Type, ArrayType> memory = new HashMap<>();
+	private final CompilationContext context;
 
 	/**
 	 * The type of the elements of the array.
@@ -29,43 +23,54 @@ public class ArrayType extends ReferenceType {
 	/**
 	 * Builds an array type for the given type of elements.
 	 *
+	 * @param context the context of the compilation
 	 * @param elementsType the type of the elements of the array
 	 */
 
-	private ArrayType(Type elementsType) {
+	private ArrayType(CompilationContext context, Type elementsType) {
+		this.context = context;
 		this.elementsType = elementsType;
 	}
 
 	/**
-	 * Returns the unique {@code ArrayType} object with the given elements type.
+	 * Returns the unique {@code ArrayType} object with the given elements type
+	 * in the given context. The array types of a context are kept in a map from
+	 * elements type, so that comparison of array types can be performed through
+	 * simple == tests.
 	 *
+	 * @param context the context of the compilation
 	 * @param elementsType the type of the elements of the array
 	 * @return the unique type
 	 */
 
-	public static ArrayType mk(Type elementsType) {
-		ArrayType result = memory.get(elementsType);
-		if (result == null)
-			memory.put(elementsType, result = new ArrayType(elementsType));
+	public static ArrayType mk(CompilationContext context, Type elementsType) {
+		ArrayType result = context.arrays.get(elementsType);
+		if (result == null) {
+			// two threads might race to create the same array type: only one wins
+			ArrayType fresh = new ArrayType(context, elementsType);
+			if ((result = context.arrays.putIfAbsent(elementsType, fresh)) == null)
+				result = fresh;
+		}
 
 		return result;
 	}
 
 	/**
 	 * Returns the unique {@code ArrayType} object for the given elements
-	 * type and dimensions.
+	 * type and dimensions in the given context.
 	 *
+	 * @param context the context of the compilation
 	 * @param elementsType the type of the elements of the array
 	 * @param dimensions the number of dimensions
 	 * @return the unique {@code ArrayType} with elements of type
 	 *         {@code elementsType} and dimensions {@code dimensions}
 	 */
 
-	public static ArrayType mk(Type elementsType, int dimensions) {
+	public static ArrayType mk(CompilationContext context, Type elementsType, int dimensions) {
 		if (dimensions == 1)
-			return mk(elementsType);
+			return mk(context, elementsType);
 		else
-			return ArrayType.mk(ArrayType.mk(elementsType,dimensions - 1));
+			return ArrayType.mk(context, ArrayType.mk(context, elementsType, dimensions - 1));
 	}
 
 	/**
@@ -97,10 +102,20 @@ public class ArrayType extends ReferenceType {
 
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		if (other instanceof ArrayType)
-			return elementsType.canBeAssignedToSpecial(((ArrayType) other).elementsType);
+		if (other instanceof ArrayType) {
+			Type elements = elementsType, otherElements = ((ArrayType) other).elementsType;
+
+			// we strip the dimensions that both types have, so that
+			// class elements are compared through a single subclass test
+			while (elements instanceof ArrayType && otherElements instanceof ArrayType) {
+				elements = ((ArrayType) elements).elementsType;
+				otherElements = ((ArrayType) otherElements).elementsType;
+			}
+
+			return elements.canBeAssignedToSpecial(otherElements);
+		}
 		else
-			return other == getObjectType();
+			return other == context.getObjectType();
 	}
 
 	/**
@@ -130,16 +145,16 @@ public class ArrayType extends ReferenceType {
 	public Type leastCommonSupertype(Type other) {
 		// between array and class, the least common supertype is Object
 		if (other instanceof ClassType)
-			return getObjectType();
+			return context.getObjectType();
 		else if (other instanceof ArrayType)
 			// an array of primitive types can only be compared with itself.
 			// Otherwise, the least common supertype is Object
 			if (elementsType instanceof PrimitiveType)
-				return this == other ? this : getObjectType();
+				return this == other ? this : context.getObjectType();
 			else {
 				Type lcs = elementsType.leastCommonSupertype(((ArrayType) other).elementsType);
 
-				return lcs == null ? getObjectType() : mk(lcs);
+				return lcs == null ? context.getObjectType() : mk(context, lcs);
 			}
 
 		// the least common supertype of an array and null or an UnusedType is the array
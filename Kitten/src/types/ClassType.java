@@ -1,17 +1,23 @@
 package types;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import lexical.Lexer;
-import syntactical.Parser;
 import translation.Program;
 import absyn.ClassDefinition;
 import errorMsg.ErrorMsg;
@@ -43,10 +49,21 @@ public final class ClassType extends ReferenceType {
 	private final List<ClassType> subclasses;
 
 	/**
-	 * The set of instances of this class. This is a cache for {@link #getInstances()}.
+	 * The position of this class inside the hierarchy of the classes of its context
+	 * (see {@link CompilationContext#hierarchy}). It is -1 if this class has not been
+	 * numbered yet, since its construction is not complete.
 	 */
 
-	private List<ClassType> instances;
+	private int preOrder = -1;
+
+	/**
+	 * The position, inside the hierarchy of the classes of its context,
+	 * of the last instance of this class.
+	 * The instances of this class are those between {@link #preOrder}
+	 * and this position, inclusive.
+	 */
+
+	private int lastInstance;
 
 	/**
 	 * A map from field symbols to their signature.
@@ -79,6 +96,35 @@ public final class ClassType extends ReferenceType {
 
 	private final Map<String, Set<MethodSignature>> methods = new HashMap<>();
 
+	/**
+	 * The dispatch table of this class. It maps each method name to the
+	 * methods with that name that can be called on an instance of this class,
+	 * indexed by their parameters types. Methods inherited from the superclasses
+	 * are included, unless they are overridden. This is a cache for
+	 * {@link #getDispatchTable()}: it is {@code null} if it has not been built yet
+	 * or if members have been added to this class or to its superclasses since it was built.
+	 * It is volatile since the Java bytecode of the classes is generated in parallel: two
+	 * threads might build the same table, but each thread only sees complete tables.
+	 */
+
+	private volatile Map<String, Map<TypeList, MethodSignature>> dispatchTable;
+
+	/**
+	 * A cache for {@link #methodsLookup(String, TypeList)}. It maps a method name
+	 * and the types of the actual parameters to the resulting set of signatures.
+	 * It is concurrent since the classes are type-checked in parallel (see {@link FrontEnd}).
+	 */
+
+	private final ConcurrentMap<String, ConcurrentMap<TypeList, Set<MethodSignature>>> methodsLookups = new ConcurrentHashMap<>();
+
+	/**
+	 * A cache for {@link #constructorsLookup(TypeList)}. It maps the types of the
+	 * actual parameters to the resulting set of signatures.
+	 * It is concurrent since the classes are type-checked in parallel (see {@link FrontEnd}).
+	 */
+
+	private final Map<TypeList, Set<ConstructorSignature>> constructorsLookups = new ConcurrentHashMap<>();
+
 	/**
 	 * The utility for issuing errors about this class.
 	 */
@@ -92,41 +138,72 @@ public final class ClassType extends ReferenceType {
 	private final ClassDefinition abstractSyntax;
 
 	/**
-	 * True if and only if this class has been already type-checked.
+	 * True if and only if this class has been already type-checked, or is being type-checked,
+	 * or its type-checking is skipped.
 	 */
 	
-	private boolean typeChecked;
+	private final AtomicBoolean typeChecked = new AtomicBoolean();
+
+	/**
+	 * True if and only if {@link #typeChecked} has been set without type-checking this class
+	 * (see {@link #skipTypeChecking(boolean)}).
+	 */
+
+	private boolean typeCheckingSkipped;
+
+	/**
+	 * The context of the compilation where this class has been created.
+	 */
+
+	private final CompilationContext context;
+
+	/**
+	 * A hash of the content of the source file of this class, or 0 if it cannot be found.
+	 */
+
+	private final long sourceHash;
+
+	/**
+	 * The names of the classes referenced in the source file of this class.
+	 */
+
+	private final Set<String> references;
 
 	/**
 	 * Constructs a class type with the given name. If the class
 	 * cannot be found or contains a syntactical error, a fictitious class
 	 * with no fields, no constructors and no methods is created.
 	 *
+	 * @param context the context of the compilation where the class is created
 	 * @param name the name of the class
 	 */
 	
-	private ClassType(String name) {
+	private ClassType(CompilationContext context, String name) {
 		// we record its name
 		this.name = name;
+		this.context = context;
 	
 		// there are no subclasses at the moment
 		this.subclasses = new ArrayList<>();
 	
 		// we record this object for future lookup
-		memory.put(name, this);
-	
-		// we have not type-checked this class yet
-		this.typeChecked = false;
+		context.classes.put(name, this);
 	
 		ClassDefinition abstractSyntax;
 		ClassType superclass;
 	
-		// we perform lexical and syntactical analysis. The result is
-		// the abstract syntax of this class definition
+		// we take the result of the lexical and syntactical analysis, possibly performed
+		// in parallel by the front end. The result is the abstract syntax of this class definition
+		FrontEnd.Parsed parsed = FrontEnd.parse(context, name);
+		if (parsed.found)
+			errorMsg = parsed.errorMsg;
+
+		parsed.errorMsg.flush();
+		this.sourceHash = parsed.sourceHash;
+		this.references = parsed.references;
+
 		try {
-			Parser parser = new Parser(new Lexer(name));
-			errorMsg = parser.getErrorMsg();
-			abstractSyntax = (ClassDefinition) parser.parse().value;
+			abstractSyntax = parsed.abstractSyntax;
 			// we add the fields, constructors and methods of this class
 			abstractSyntax.addMembersTo(this);
 		}
@@ -143,15 +220,48 @@ public final class ClassType extends ReferenceType {
 		if (!name.equals("Object"))
 			// if this is not Object, we create its superclass also and take
 			// note that we are a direct subclass of our superclass
-			(superclass = mk(abstractSyntax.getSuperclassName())).subclasses.add(this);
+			(superclass = mk(context, abstractSyntax.getSuperclassName())).subclasses.add(this);
 		else {
 			// otherwise we take note of the top of the hierarchy of the reference types
-			setObjectType(this);
+			context.setObjectType(this);
 			superclass = null;
 		}
 
 		this.abstractSyntax = abstractSyntax;
 		this.superclass = superclass;
+
+		// the class hierarchy has changed
+		context.hierarchy = null;
+	}
+
+	/**
+	 * Yields the context of the compilation where this class has been created.
+	 *
+	 * @return the context
+	 */
+
+	public CompilationContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Yields a hash of the content of the source file of this class, as it was parsed.
+	 *
+	 * @return the hash, or 0 if the source file cannot be found
+	 */
+
+	public long getSourceHash() {
+		return sourceHash;
+	}
+
+	/**
+	 * Yields the names of the classes referenced in the source file of this class.
+	 *
+	 * @return the names of the classes
+	 */
+
+	public Set<String> getReferences() {
+		return references;
 	}
 
 	/**
@@ -174,6 +284,21 @@ public final class ClassType extends ReferenceType {
 		return subclasses;
 	}
 
+	/**
+	 * Removes this class type from its context and from the subclasses of its
+	 * superclass, so that a class with the same name gets created anew if
+	 * it is needed again (see {@link CompilationContext#evict(Collection)}).
+	 */
+
+	void evict() {
+		context.classes.remove(name);
+
+		if (superclass != null)
+			superclass.subclasses.remove(this);
+		else
+			context.setObjectType(null);
+	}
+
 	/**
 	 * Yields the name of this class.
 	 * 
@@ -205,6 +330,7 @@ public final class ClassType extends ReferenceType {
 
 	/**
 	 * Checks if this class is a (non-necessarily strict) subclass of another.
+	 * This is a constant-time test on the numbering of the class hierarchy.
 	 *
 	 * @param other the other class
 	 * @return true if this class is a (non-necessarily strict) subclass
@@ -212,7 +338,18 @@ public final class ClassType extends ReferenceType {
 	 */
 
 	public boolean subclass(ClassType other) {
-		return this == other || (superclass != null && superclass.subclass(other));
+		getHierarchy();
+
+		// the instances of other are numbered contiguously from other.preOrder
+		if (preOrder >= 0 && other.preOrder >= 0)
+			return other.preOrder <= preOrder && preOrder <= other.lastInstance;
+
+		// a class still under construction is not numbered: we walk its superclasses
+		for (ClassType cursor = this; cursor != null; cursor = cursor.superclass)
+			if (cursor == other)
+				return true;
+
+		return false;
 	}
 
 	/**
@@ -237,7 +374,7 @@ public final class ClassType extends ReferenceType {
 	public Type leastCommonSupertype(Type other) {
 		// between a class type and an array type, the least common supertype is Object
 		if (other instanceof ArrayType)
-			return getObjectType();
+			return context.getObjectType();
 		else if (other instanceof ClassType) {
 			// we look in our superclasses for a superclass of other
 			for (ClassType cursor = this; cursor != null; cursor = cursor.getSuperclass())
@@ -245,7 +382,7 @@ public final class ClassType extends ReferenceType {
 					return cursor;
 
 			// last chance, always valid
-			return getObjectType();
+			return context.getObjectType();
 		}
 		// the supertype of a class type and null or an unused type is the class itself
 		else if (other == NilType.INSTANCE || other == UnusedType.INSTANCE)
@@ -261,24 +398,95 @@ public final class ClassType extends ReferenceType {
 	 *
 	 * @return the set of strict and non-strict, direct and indirect
 	 *         subclasses of this class. This list is never empty
-	 *         since this class is always an instance of itself
+	 *         since this class is always an instance of itself.
+	 *         It cannot be modified
 	 */
 
 	public final List<ClassType> getInstances() {
-		// we first check to see if we already computed the set of instances of this class
-		if (instances != null)
-			return instances;
+		ClassType[] hierarchy = getHierarchy();
+
+		// the instances of this class are contiguous in the hierarchy
+		if (preOrder >= 0)
+			return Collections.unmodifiableList(Arrays.asList(hierarchy).subList(preOrder, lastInstance + 1));
 
-		// we add this class itself
+		// a class still under construction is not numbered: we collect its instances explicitly
 		List<ClassType> result = new ArrayList<>();
-		result.add(this);
+		Deque<ClassType> worklist = new ArrayDeque<>();
+		worklist.push(this);
 
-		// we add the instances of our subclasses
-		for (ClassType sub: subclasses)
-			result.addAll(sub.getInstances());
+		while (!worklist.isEmpty()) {
+			ClassType cursor = worklist.pop();
+			result.add(cursor);
 
-		// we take note of the set of instances, so that we do not recompute it next time
-		return instances = result;
+			for (int pos = cursor.subclasses.size() - 1; pos >= 0; pos--)
+				worklist.push(cursor.subclasses.get(pos));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the classes created so far in the context of this class,
+	 * in depth-first pre-order of the hierarchy
+	 * rooted at {@code Object}, so that the instances of each class are contiguous.
+	 * The hierarchy is computed again only if classes have been created since
+	 * the last time it was computed. In that case, every class in the hierarchy
+	 * is numbered again, through {@link #preOrder} and {@link #lastInstance}.
+	 *
+	 * @return the classes created so far, in pre-order. Classes whose construction
+	 *         is not complete are not included
+	 */
+
+	private ClassType[] getHierarchy() {
+		ClassType[] result = context.hierarchy;
+		if (result != null)
+			return result;
+
+		// the Java bytecode of the classes is generated in parallel
+		synchronized (context) {
+			return context.hierarchy != null ? context.hierarchy : computeHierarchy(context);
+		}
+	}
+
+	/**
+	 * Computes the hierarchy of the classes created so far in a context and numbers its classes.
+	 *
+	 * @param context the context
+	 * @return the classes created so far in {@code context}, in pre-order
+	 */
+
+	private static ClassType[] computeHierarchy(CompilationContext context) {
+		ClassType[] result = new ClassType[context.classes.size()];
+		int size = 0;
+
+		for (ClassType clazz: context.classes.values())
+			clazz.preOrder = -1;
+
+		// we visit the hierarchy from Object, iteratively, so that
+		// subclasses are numbered in the order in which they have been created
+		Deque<ClassType> worklist = new ArrayDeque<>();
+		if (context.getObjectType() != null)
+			worklist.push(context.getObjectType());
+
+		while (!worklist.isEmpty()) {
+			ClassType clazz = worklist.pop();
+			clazz.preOrder = size;
+			result[size++] = clazz;
+
+			for (int pos = clazz.subclasses.size() - 1; pos >= 0; pos--)
+				worklist.push(clazz.subclasses.get(pos));
+		}
+
+		// in reverse pre-order, subclasses are numbered before their superclass
+		for (int pos = size - 1; pos >= 0; pos--) {
+			ClassType clazz = result[pos];
+			clazz.lastInstance = pos;
+
+			for (ClassType sub: clazz.subclasses)
+				clazz.lastInstance = Math.max(clazz.lastInstance, sub.lastInstance);
+		}
+
+		return context.hierarchy = Arrays.copyOf(result, size);
 	}
 
 	/**
@@ -302,6 +510,9 @@ public final class ClassType extends ReferenceType {
 
 	public final void addConstructor(ConstructorSignature sig) {
 		constructors.add(sig);
+
+		// the constructors already looked up might not be the most specific anymore
+		constructorsLookups.clear();
 	}
 	
 	/**
@@ -342,6 +553,68 @@ public final class ClassType extends ReferenceType {
 
 		// we add this new method
 		set.add(sig);
+
+		// the dispatch tables of this class and of its subclasses are not valid anymore
+		invalidateDispatchTables();
+	}
+
+	/**
+	 * Discards the dispatch tables and the results of the method lookups
+	 * of this class and of all its subclasses, direct or indirect, since they
+	 * might inherit from this class.
+	 */
+
+	private void invalidateDispatchTables() {
+		Deque<ClassType> worklist = new ArrayDeque<>();
+		worklist.push(this);
+
+		while (!worklist.isEmpty()) {
+			ClassType cursor = worklist.pop();
+			cursor.dispatchTable = null;
+			cursor.methodsLookups.clear();
+
+			for (ClassType sub: cursor.subclasses)
+				worklist.push(sub);
+		}
+	}
+
+	/**
+	 * Yields the dispatch table of this class. It maps each method name to the
+	 * methods with that name that can be called on an instance of this class,
+	 * indexed by their parameters types. Hence it contains the methods defined
+	 * in this class and those inherited from its superclasses and not overridden.
+	 * It is built on first use, from the dispatch table of the superclass,
+	 * and it cannot be modified.
+	 *
+	 * @return the dispatch table of this class
+	 */
+
+	private Map<String, Map<TypeList, MethodSignature>> getDispatchTable() {
+		if (dispatchTable != null)
+			return dispatchTable;
+
+		Map<String, Map<TypeList, MethodSignature>> table = new HashMap<>();
+
+		// we start from the methods visible in the superclass, if any
+		if (superclass != null)
+			for (Map.Entry<String, Map<TypeList, MethodSignature>> entry: superclass.getDispatchTable().entrySet())
+				table.put(entry.getKey(), new HashMap<>(entry.getValue()));
+
+		// the methods of this class are added later, so that they override
+		// the inherited methods with the same name and parameters types
+		for (Map.Entry<String, Set<MethodSignature>> entry: methods.entrySet()) {
+			Map<TypeList, MethodSignature> overloads = table.get(entry.getKey());
+			if (overloads == null)
+				table.put(entry.getKey(), overloads = new HashMap<>());
+
+			for (MethodSignature method: entry.getValue())
+				overloads.put(method.getParameters(), method);
+		}
+
+		for (Map.Entry<String, Map<TypeList, MethodSignature>> entry: table.entrySet())
+			entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+
+		return dispatchTable = Collections.unmodifiableMap(table);
 	}
 	
 	/**
@@ -424,13 +697,20 @@ public final class ClassType extends ReferenceType {
 	 * @param formals the types the formal parameters of the constructors
 	 *                should be more general of
 	 * @return the signatures of the resulting constructors.
-	 *         Returns an empty set if no constructor has been found
+	 *         Returns an empty set if no constructor has been found.
+	 *         The result is cached until a constructor is added to this class,
+	 *         and it cannot be modified
 	 */
 
 	public final Set<ConstructorSignature> constructorsLookup(TypeList formals) {
-		// we return the most specific constructors amongst those available
-		// for this class and whose formal parameters are compatible with formals
-		return mostSpecific(constructors, formals);
+		// we first check to see if we already looked up for these parameters
+		Set<ConstructorSignature> result = constructorsLookups.get(formals);
+		if (result == null)
+			// we return the most specific constructors amongst those available
+			// for this class and whose formal parameters are compatible with formals
+			constructorsLookups.put(formals, result = Collections.unmodifiableSet(mostSpecific(constructors, formals)));
+
+		return result;
 	}
 	
 	/**
@@ -496,17 +776,10 @@ public final class ClassType extends ReferenceType {
 	 */
 
 	public final MethodSignature methodLookup(String name, TypeList formals) {
-		// we check all methods in this signature having the given name
-		Set<MethodSignature> candidates = methods.get(name);
-		if (candidates != null)
-			for (MethodSignature method: candidates)
-				// we check if they have the same parameters types
-				if (method.getParameters().equals(formals))
-					// found!
-					return method;
-
-		// otherwise, we look up in the superclass, if any
-		return superclass == null ? null : superclass.methodLookup(name, formals);
+		// the dispatch table already contains the inherited methods
+		Map<TypeList, MethodSignature> overloads = getDispatchTable().get(name);
+
+		return overloads == null ? null : overloads.get(formals);
 	}
 	
 	/**
@@ -520,60 +793,52 @@ public final class ClassType extends ReferenceType {
 	 * @param formals the types the formal parameters of the methods
 	 *                should be more general of
 	 * @return the signatures of the resulting methods.
-	 *         Returns an empty set if no method has been found
+	 *         Returns an empty set if no method has been found.
+	 *         The result is cached until a method is added to this class
+	 *         or to its superclasses, and it cannot be modified
 	 */
 
 	public final Set<MethodSignature> methodsLookup(String name, TypeList formals) {
-		// the set of candidates is initially the set of all methods
-		// called name and defined in this class
-		Set<MethodSignature> candidates = methods.get(name);
-		if (candidates == null) candidates = new HashSet<>();
-
-		if (superclass != null) {
-			// if this class extends another class, we consider all possible
-			// candidate targets in the superclass, so that we allow method inheritance
-			Set<MethodSignature> superCandidates = superclass.methodsLookup(name,formals);
-
-			// we remove from the inherited candidates those which are
-			// redefined in this class, in order to model method overriding
-			Set<MethodSignature> toBeRemoved = new HashSet<>();
-
-			TypeList sigFormals, sig2Formals;
-			for (MethodSignature sig: superCandidates) {
-				sigFormals = sig.getParameters();
-
-				for (MethodSignature sig2: candidates) {
-					sig2Formals = sig2.getParameters();
-
-					if (sigFormals.equals(sig2Formals))
-						toBeRemoved.add(sig);
-				}
-			}
+		// we first check to see if we already looked up for this name and parameters
+		ConcurrentMap<TypeList, Set<MethodSignature>> lookups = methodsLookups.get(name);
+		if (lookups == null) {
+			ConcurrentMap<TypeList, Set<MethodSignature>> fresh = new ConcurrentHashMap<>();
+			if ((lookups = methodsLookups.putIfAbsent(name, fresh)) == null)
+				lookups = fresh;
+		}
 
-			superCandidates.removeAll(toBeRemoved);
+		Set<MethodSignature> result = lookups.get(formals);
+		if (result == null) {
+			// the candidates are the methods called name that can be called on
+			// this class: the dispatch table already models inheritance and overriding
+			Map<TypeList, MethodSignature> overloads = getDispatchTable().get(name);
+			Collection<MethodSignature> candidates;
+			if (overloads == null)
+				candidates = Collections.emptySet();
+			else
+				candidates = overloads.values();
 
-			// we add the inherited and not overridden candidates
-			candidates.addAll(superCandidates);
+			// we keep the most specific methods amongst those called name
+			// and whose formal parameters are compatible with formals
+			lookups.put(formals, result = Collections.unmodifiableSet(mostSpecific(candidates, formals)));
 		}
 
-		// we return the most specific methods amongst those called name
-		// and whose formal parameters are compatible with formals
-		return mostSpecific(candidates, formals);
+		return result;
 	}
 
 	/**
-	 * Yields the subset of a set of code signatures whose parameters
+	 * Yields the subset of a collection of code signatures whose parameters
 	 * are compatible with those provided and such that no two signatures in
 	 * the subset are one more general than the other.
 	 *
-	 * @param sigs the original set of code signatures
+	 * @param sigs the original collection of code signatures
 	 * @param formals the parameters which are used to select the signatures
 	 * @return the subset of {@code sigs} whose parameters
 	 *         are compatible with {@code formals} and such that no two
 	 *         signatures in this subset are one more general than the other
 	 */
 
-	private static <T extends CodeSignature> Set<T> mostSpecific(Set<T> sigs, TypeList formals) {
+	private static <T extends CodeSignature> Set<T> mostSpecific(Collection<T> sigs, TypeList formals) {
 		Set<T> result = new HashSet<>();
 		Set<T> toBeRemoved = new HashSet<>();
 
@@ -611,69 +876,91 @@ public final class ClassType extends ReferenceType {
 			return new org.apache.bcel.generic.ObjectType(name.toString());
 	}
 	/**
-	 * A table which binds each symbol to its corresponding {@code KittenClassType}.
-	 * This lets us have a unique {@code KittenClassType} for a given name.
-	 */
-
-	private final static Map<String, ClassType> memory = new HashMap<>();
-
-	/**
-	 * Yields a class type with the given name. If a class type object named
-	 * <tt>name</tt> already exists, that object is returned. Otherwise, if a
-	 * Kitten class named <tt>name.kit</tt> exists and contains no error, a
+	 * Yields a class type with the given name in the given context. If a class type
+	 * object named <tt>name</tt> already exists in the context, that object is returned.
+	 * Otherwise, if a Kitten class named <tt>name.kit</tt> exists and contains no error, a
 	 * <tt>KittenClassType</tt> is returned. Otherwise, a fictitious
 	 * <tt>KittenClassType</tt> is returned, whose code has no fields nor
 	 * constructors nor methods.
 	 *
+	 * @param context the context of the compilation
 	 * @param name the name of the class
-	 * @return the unique class type object for the class with the given name
+	 * @return the unique class type object for the class with the given name in {@code context}
 	 */
 
-	public static ClassType mk(String name) {
+	public static ClassType mk(CompilationContext context, String name) {
 		ClassType result;
 
 		// we first check to see if we already built this class type
-		if ((result = memory.get(name)) != null)
+		if ((result = context.classes.get(name)) != null)
 			return result;
-		else
-			return new ClassType(name);
+
+		// classes are created by a thread at a time
+		synchronized (context.classes) {
+			return (result = context.classes.get(name)) != null ? result : new ClassType(context, name);
+		}
 	}
 
 	/**
-	 * Yields a class type with the given file name. If a class type object
-	 * with this name already exists, that object is returned. Otherwise, if a
+	 * Determines if a class type with the given name has been created already in the given context.
+	 *
+	 * @param context the context of the compilation
+	 * @param name the name of the class
+	 * @return true if and only if that class type exists
+	 */
+
+	static boolean exists(CompilationContext context, String name) {
+		return context.classes.containsKey(name);
+	}
+
+	/**
+	 * Yields a class type with the given file name in the given context.
+	 * If a class type object with this name already exists in the context,
+	 * that object is returned. Otherwise, if a
 	 * Kitten class named <tt>name</tt> exists and contains no syntax error, a
 	 * type-checked <tt>KittenClassType</tt> is returned. Otherwise, a
 	 * type-checked fictitious <tt>KittenClassType</tt> is returned, whose code
 	 * contains no fields, nor constructors nor methods.
 	 *
+	 * The classes are parsed and type-checked with as many threads as the available processors.
+	 *
+	 * @param context the context of the compilation
+	 * @param fileName the name of the file of the class, including the
+	 *                 <tt>.kit</tt> termination
+	 * @return the unique Kitten class type object for the (type-checked)
+	 *         class with the given name
+	 */
+
+	public static ClassType mkFromFileName(CompilationContext context, String fileName) {
+		return mkFromFileName(context, fileName, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Yields a class type with the given file name, as {@link #mkFromFileName(CompilationContext, String)},
+	 * parsing and type-checking the classes reachable from it with the given
+	 * maximal number of threads (see {@link FrontEnd}).
+	 *
+	 * @param context the context of the compilation
 	 * @param fileName the name of the file of the class, including the
 	 *                 <tt>.kit</tt> termination
+	 * @param threads the maximal number of threads. It must be positive
 	 * @return the unique Kitten class type object for the (type-checked)
 	 *         class with the given name
 	 */
 
-	public static ClassType mkFromFileName(String fileName) {
+	public static ClassType mkFromFileName(CompilationContext context, String fileName, int threads) {
 		if (fileName.endsWith(".kit"))
 			fileName = fileName.substring(0, fileName.length() - 4);
 
-		ClassType result = mk(fileName);
+		ClassType result = context.classes.get(fileName);
+		if (result == null)
+			return new FrontEnd(context, threads).process(fileName);
 
 		result.typeCheck();
 
 		return result;
 	}
 
-	/**
-	 * Yields {@code ClassType}'s that have been created so far.
-	 *
-	 * @return the types
-	 */
-
-	public final static Collection<ClassType> getAll() {
-		return memory.values();
-	}
-
 	/**
 	 * Yields the error reporting utility for this class.
 	 *
@@ -686,13 +973,15 @@ public final class ClassType extends ReferenceType {
 
 	/**
 	 * Type-checks this class type, <i>i.e.</i>, its abstract syntax.
+	 * Only the first thread that calls this method type-checks the class:
+	 * the others return immediately, as the same thread does if the class
+	 * is already being type-checked.
 	 */
 
 	public void typeCheck() {
 		// this check is just to avoid repeated error messages
-		if (!typeChecked) {
+		if (typeChecked.compareAndSet(false, true)) {
 			// we are going to type-check this class now
-			typeChecked = true;
 
 			// we type-check the abstract syntax of this class
 			abstractSyntax.typeCheck(this);
@@ -704,6 +993,26 @@ public final class ClassType extends ReferenceType {
 		}
 	}
 
+	/**
+	 * Determines if the type-checking of this class is skipped, since the class has been
+	 * compiled already and its class file is up to date. While it is skipped, {@link #typeCheck()}
+	 * does nothing on this class, nor follows the classes referenced from it. A class that
+	 * has been type-checked already is not affected.
+	 *
+	 * @param skip true if and only if the type-checking must be skipped
+	 */
+
+	public synchronized void skipTypeChecking(boolean skip) {
+		if (skip) {
+			if (typeChecked.compareAndSet(false, true))
+				typeCheckingSkipped = true;
+		}
+		else if (typeCheckingSkipped) {
+			typeCheckingSkipped = false;
+			typeChecked.set(false);
+		}
+	}
+
 	/**
 	 * Translates this class into intermediate Kitten code.
 	 * It is assumed that this class has been already type-checked.
@@ -716,8 +1025,63 @@ public final class ClassType extends ReferenceType {
 		return abstractSyntax.translate();
 	}
 
+	/**
+	 * Translates all members of the given classes into intermediate Kitten code, whether
+	 * reachable from some {@code main} or not, so that the classes can be compiled
+	 * separately from the others in their context. The members of the other classes
+	 * are assumed to be compiled already: they are not translated. It is assumed that
+	 * the given classes have been already type-checked.
+	 *
+	 * @param context the context of the classes
+	 * @param classes the classes to translate
+	 * @return the program made of the members of the given classes
+	 */
+
+	public static Program translate(CompilationContext context, Collection<ClassType> classes) {
+		Set<ClassType> compiled = new HashSet<>(classes);
+		Set<ClassMemberSignature> done = new HashSet<>();
+		for (ClassType clazz: context.getClasses())
+			if (!compiled.contains(clazz))
+				clazz.addMembersTo(done);
+
+		for (ClassType clazz: compiled) {
+			done.addAll(clazz.fields.values());
+
+			for (ConstructorSignature constructor: clazz.constructors)
+				constructor.getAbstractSyntax().translate(done);
+
+			for (Set<MethodSignature> s: clazz.methods.values())
+				for (MethodSignature method: s)
+					method.getAbstractSyntax().translate(done);
+
+			for (FixtureSignature fixture: clazz.fixtures)
+				fixture.getAbstractSyntax().translate(done);
+
+			for (TestSignature test: clazz.tests)
+				test.getAbstractSyntax().translate(done);
+		}
+
+		return new Program(context, done, classes);
+	}
+
+	/**
+	 * Adds the fields, constructors, methods, fixtures and tests of this class to the given set.
+	 *
+	 * @param sigs the set
+	 */
+
+	private void addMembersTo(Set<ClassMemberSignature> sigs) {
+		sigs.addAll(fields.values());
+		sigs.addAll(constructors);
+		for (Set<MethodSignature> s: methods.values())
+			sigs.addAll(s);
+
+		sigs.addAll(fixtures);
+		sigs.addAll(tests);
+	}
+
 	public void dumpDot() throws IOException {
-		try (FileWriter file = new FileWriter(name + ".dot")) {
+		try (FileWriter file = new FileWriter(new File(context.getDirectory(), name + ".dot"))) {
 			abstractSyntax.toDot(file);
 		}
 	}
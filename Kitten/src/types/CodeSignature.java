@@ -1,10 +1,14 @@
 package types;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javaBytecodeGenerator.JavaClassGenerator;
 
 import org.apache.bcel.generic.InvokeInstruction;
 
 import translation.Block;
+import translation.BlockGraph;
 import absyn.CodeDeclaration;
 
 /**
@@ -41,6 +45,13 @@ public abstract class CodeSignature extends ClassMemberSignature {
 
     private Block code;
 
+    /**
+     * The helper methods outlined from the code of this constructor or method,
+     * because it was too large. They are generated in the same class.
+     */
+
+    private final List<HelperSignature> helpers = new ArrayList<>();
+
     /**
      * Builds a signature for a code object.
      *
@@ -128,6 +139,17 @@ public abstract class CodeSignature extends ClassMemberSignature {
     	return (CodeDeclaration) super.getAbstractSyntax();
     }
 
+    /**
+     * Determines if the code of this constructor or method finds the receiver
+     * in local variable 0, before its parameters.
+     *
+     * @return true, unless this code has no receiver
+     */
+
+    public boolean hasReceiver() {
+    	return true;
+    }
+
     /**
      * Yields the types of the stack elements which must be on top of the
      * stack when one calls this method or constructor.
@@ -154,13 +176,37 @@ public abstract class CodeSignature extends ClassMemberSignature {
 
     /**
      * Sets the Kitten code of this constructor or method, adding
-     * automatically the prefix expected for it.
+     * automatically the prefix expected for it. The helpers outlined
+     * from the previous code, if any, are discarded. The blocks of the
+     * code are numbered (see {@link BlockGraph#number(Block)}).
      *
      * @param code the Kitten code
      */
 
     public void setCode(Block code) {
     	this.code = addPrefixToCode(code);
+    	BlockGraph.number(this.code);
+    	helpers.clear();
+    }
+
+    /**
+     * Yields the helper methods outlined from the code of this constructor or method.
+     *
+     * @return the helpers, in order of creation
+     */
+
+    public List<HelperSignature> getHelpers() {
+    	return helpers;
+    }
+
+    /**
+     * Adds a helper method outlined from the code of this constructor or method.
+     *
+     * @param helper the helper
+     */
+
+    public void addHelper(HelperSignature helper) {
+    	helpers.add(helper);
     }
 
     /**
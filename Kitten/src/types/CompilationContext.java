@@ -0,0 +1,236 @@
+package types;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import errorMsg.ErrorMsg;
+
+/**
+ * The state of a compilation: the class and array types created so far,
+ * the hierarchy of the classes, the source files parsed so far, the directory of the source files, where the class files
+ * are written also, and the streams where the messages about the source files
+ * are printed. Class and array types belong to the context where they have been
+ * created. Hence distinct compilations, with distinct contexts, can run in the
+ * same Java virtual machine, also concurrently, and the state of a compilation
+ * can be garbage-collected as a whole once its context is not used anymore.
+ * A context can also be reused for a later compilation of the same directory,
+ * after evicting the classes whose source files have been modified in the meanwhile
+ * (see {@link #evict(Collection)}).
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class CompilationContext {
+
+	/**
+	 * A table which binds each class name to its unique class type
+	 * (see {@link ClassType#mk(CompilationContext, String)}).
+	 * It is concurrent since the classes are type-checked in parallel
+	 * (see {@link FrontEnd}), but classes are created by a thread at a time.
+	 */
+
+	final Map<String, ClassType> classes = new ConcurrentHashMap<>();
+
+	/**
+	 * A table which binds each elements type to its unique array type
+	 * (see {@link ArrayType#mk(CompilationContext, Type)}).
+	 */
+
+	final ConcurrentMap<Type, ArrayType> arrays = new ConcurrentHashMap<>();
+
+	/**
+	 * The result of the parsing of the source files, indexed by class name.
+	 * It is kept after the creation of the class types, so that a class type
+	 * created again after its eviction reuses the abstract syntax of its
+	 * source file, if that file has not been modified since it was parsed
+	 * (see {@link FrontEnd#parse(CompilationContext, String)}).
+	 */
+
+	final Map<String, FrontEnd.Parsed> parsed = new ConcurrentHashMap<>();
+
+	/**
+	 * The hierarchy of the classes created so far, in pre-order. This is a cache
+	 * for {@link ClassType#getInstances()} and {@link ClassType#subclass(ClassType)}:
+	 * it is {@code null} if it has not been computed yet or if classes have been created
+	 * after it was computed.
+	 */
+
+	volatile ClassType[] hierarchy;
+
+	/**
+	 * The type of the {@code Object} class, top of the hierarchy of the reference types.
+	 * It is {@code null} until that class is created.
+	 */
+
+	private volatile ClassType objectType;
+
+	/**
+	 * The directory of the source files. The class files are written there also.
+	 */
+
+	private final File directory;
+
+	/**
+	 * The stream where the errors in the source files are printed.
+	 */
+
+	private final PrintStream out;
+
+	/**
+	 * The stream where the messages of the tools that process the source files are printed.
+	 */
+
+	private final PrintStream err;
+
+	/**
+	 * Builds the context of a compilation of the source files in the current
+	 * directory, that prints its messages on the standard output and standard error.
+	 */
+
+	public CompilationContext() {
+		this(new File("."), System.out, System.err);
+	}
+
+	/**
+	 * Builds the context of a compilation.
+	 *
+	 * @param directory the directory of the source files, where the class files are written also
+	 * @param out the stream where the errors in the source files are printed
+	 * @param err the stream where the messages of the tools that process
+	 *            the source files, such as the parser, are printed
+	 */
+
+	public CompilationContext(File directory, PrintStream out, PrintStream err) {
+		this.directory = directory;
+		this.out = out;
+		this.err = err;
+	}
+
+	/**
+	 * Yields the class types created so far in this context.
+	 *
+	 * @return the class types
+	 */
+
+	public Collection<ClassType> getClasses() {
+		return classes.values();
+	}
+
+	/**
+	 * Yields the class types of this context whose source file has been modified,
+	 * created or deleted since it was parsed.
+	 *
+	 * @return the class types
+	 */
+
+	public Set<ClassType> getModifiedClasses() {
+		Set<ClassType> modified = new HashSet<>();
+		for (ClassType clazz: classes.values()) {
+			FrontEnd.Parsed result = parsed.get(clazz.getName());
+			if (result == null || !result.isUpToDate())
+				modified.add(clazz);
+		}
+
+		return modified;
+	}
+
+	/**
+	 * Removes the given class types from this context, together with the array types
+	 * built over them. The classes with the same names get created anew, from the
+	 * current content of their source files, if they are needed again. The other
+	 * class types are kept, already type-checked, hence the caller must evict also
+	 * all classes that depend on the given ones. This cannot run concurrently
+	 * with a compilation in this context.
+	 *
+	 * @param evicted the class types to remove
+	 */
+
+	public void evict(Collection<ClassType> evicted) {
+		for (ClassType clazz: evicted)
+			clazz.evict();
+
+		Iterator<Type> elementsTypes = arrays.keySet().iterator();
+		while (elementsTypes.hasNext()) {
+			Type elementsType = elementsTypes.next();
+			while (elementsType instanceof ArrayType)
+				elementsType = ((ArrayType) elementsType).getElementsType();
+
+			if (evicted.contains(elementsType))
+				elementsTypes.remove();
+		}
+
+		// the class hierarchy has changed
+		hierarchy = null;
+	}
+
+	/**
+	 * Yields the directory of the source files of this context.
+	 * The class files are written there also.
+	 *
+	 * @return the directory
+	 */
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Yields the source file of the class with the given name.
+	 *
+	 * @param name the name of the class
+	 * @return the source file, that might not exist
+	 */
+
+	public File getSourceFile(String name) {
+		return new File(directory, name + ".kit");
+	}
+
+	/**
+	 * Yields the type of the {@code Object} class of this context.
+	 *
+	 * @return the type of {@code Object}, or {@code null} if it has not been created yet
+	 */
+
+	public ClassType getObjectType() {
+		return objectType;
+	}
+
+	/**
+	 * Takes note of the type of the {@code Object} class of this context.
+	 *
+	 * @param objectType the type of {@code Object}
+	 */
+
+	void setObjectType(ClassType objectType) {
+		this.objectType = objectType;
+	}
+
+	/**
+	 * Yields the stream where the errors of this compilation are printed.
+	 *
+	 * @return the stream
+	 */
+
+	public PrintStream getOut() {
+		return out;
+	}
+
+	/**
+	 * Builds an error reporting utility for a source file of this compilation,
+	 * that prints on the streams of this context.
+	 *
+	 * @param fileName the name of the source file
+	 * @return the error reporting utility
+	 */
+
+	public ErrorMsg mkErrorMsg(String fileName) {
+		return new ErrorMsg(fileName, out, err);
+	}
+}
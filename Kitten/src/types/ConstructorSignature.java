@@ -95,11 +95,13 @@ public class ConstructorSignature extends CodeSignature {
 			il, // bytecode of the constructor
 			classGen.getConstantPool()); // constant pool
 
-		// we must always call these methods before the <tt>getMethod()</tt>
-		// method below. They set the number of local variables and stack
-		// elements used by the code of the method
-		methodGen.setMaxStack();
-		methodGen.setMaxLocals();
+		// we must always set the number of local variables and stack elements
+		// used by the code of the method before the <tt>getMethod()</tt> method below.
+		// They have been computed when the code of the method was generated
+		classGen.setMaxStackAndLocals(methodGen);
+
+		// the call to the constructor of java.lang.Object needs the receiver on the stack
+		methodGen.setMaxStack(Math.max(methodGen.getMaxStack(), 1));
 
 		// we add a method (actually, constructor) to the class that we are generating
 		classGen.addMethod(methodGen.getMethod());
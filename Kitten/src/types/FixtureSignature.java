@@ -41,11 +41,10 @@ public class FixtureSignature extends CodeSignature {
 		classGen.getConstantPool()
 		); // constant pool
     
-		// we must always call these methods before the getMethod()
-		// method below. They set the number of local variables and stack
-		// elements used by the code of the method
-		methodGen.setMaxStack();
-		methodGen.setMaxLocals();
+		// we must always set the number of local variables and stack elements
+		// used by the code of the method before the getMethod() method below.
+		// They have been computed when the code of the method was generated
+		classGen.setMaxStackAndLocals(methodGen);
 		// we add a method to the class that we are generating
 		classGen.addMethod(methodGen.getMethod());
     }
@@ -0,0 +1,381 @@
+package types;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import lexical.Lexer;
+import syntactical.Parser;
+import absyn.ClassDefinition;
+import errorMsg.ErrorMsg;
+
+/**
+ * The front end of the compiler. It parses and type-checks a class and all
+ * classes reachable from it, in parallel, on a fork-join pool of threads.
+ * <ul>
+ * <li> First, the source files are parsed by concurrent tasks: the parsing of a
+ *      class discovers the classes that it references (see {@link Parser#getReferences()})
+ *      and forks the parsing of those that have not been discovered yet;
+ * <li> then the class types are created by the calling thread, in order of discovery,
+ *      from the abstract syntax already built. This builds the signatures of their
+ *      members, so that all signatures are ready before type-checking starts;
+ * <li> last, the bodies of the classes are type-checked by concurrent tasks, since each
+ *      class only reads the signatures of the others. A class is type-checked only once,
+ *      by the first thread that asks for it (see {@link ClassType#typeCheck()}).
+ * </ul>
+ * The error messages of each class are deferred and printed by the calling thread,
+ * so that they do not depend on the scheduling of the tasks: parsing errors when the
+ * class type is created, type-checking errors at the end, in order of discovery.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class FrontEnd {
+
+	/**
+	 * The context of the compilation. It holds the class types created so far
+	 * and the result of the parsing of the source files.
+	 */
+
+	private final CompilationContext context;
+
+	/**
+	 * The maximal number of threads used to parse and type-check the classes.
+	 */
+
+	private final int threads;
+
+	/**
+	 * The names of the classes discovered so far, including those being parsed.
+	 */
+
+	private final Set<String> discovered = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Builds a front end.
+	 *
+	 * @param context the context of the compilation
+	 * @param threads the maximal number of threads used to parse and type-check
+	 *                the classes. It must be positive
+	 */
+
+	public FrontEnd(CompilationContext context, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("the number of threads must be positive");
+
+		this.context = context;
+		this.threads = threads;
+	}
+
+	/**
+	 * Parses and type-checks the class with the given name and all classes
+	 * reachable from it, and yields its class type.
+	 *
+	 * @param name the name of the class, without the trailing {@code .kit}
+	 * @return the type-checked class type. If the class cannot be found or contains
+	 *         syntax errors, this is a fictitious class type
+	 *         (see {@link ClassType#mk(CompilationContext, String)})
+	 */
+
+	public ClassType process(String name) {
+		List<ClassType> classes = discover(name);
+		typeCheck(classes);
+
+		return classes.get(0);
+	}
+
+	/**
+	 * Parses the class with the given name and all classes reachable from it, and
+	 * creates their class types, without type-checking them. This lets the caller
+	 * inspect the signatures of the classes before they get type-checked.
+	 *
+	 * @param name the name of the class, without the trailing {@code .kit}
+	 * @return the class types of the classes reachable from the given one, in order
+	 *         of discovery. The first is that of the class with the given name.
+	 *         Those that exist already in the context are not created again
+	 */
+
+	public List<ClassType> discover(String name) {
+		if (!ClassType.exists(context, name)) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+
+			try {
+				discovered.add(name);
+				pool.invoke(new Parsing(name));
+			}
+			finally {
+				pool.shutdownNow();
+			}
+		}
+
+		List<ClassType> classes = new ArrayList<>();
+		for (String className: order(name))
+			classes.add(ClassType.mk(context, className));
+
+		return classes;
+	}
+
+	/**
+	 * Type-checks the given classes in parallel. Their error messages are printed
+	 * at the end, in the order of the classes. The classes already type-checked
+	 * are not type-checked again (see {@link ClassType#typeCheck()}).
+	 *
+	 * @param classes the classes
+	 */
+
+	public void typeCheck(List<ClassType> classes) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+			typeCheck(classes, pool);
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Yields the classes discovered from the given class, in breadth-first
+	 * order of their references in the source files. This order does not depend
+	 * on the scheduling of the parsing tasks.
+	 *
+	 * @param name the name of the class where the discovery started
+	 * @return the names of the classes
+	 */
+
+	private Set<String> order(String name) {
+		Set<String> order = new LinkedHashSet<>();
+		Deque<String> worklist = new ArrayDeque<>();
+		order.add(name);
+		worklist.add(name);
+
+		while (!worklist.isEmpty()) {
+			Parsed result = context.parsed.get(worklist.poll());
+			if (result != null)
+				for (String reference: result.references)
+					if (order.add(reference))
+						worklist.add(reference);
+		}
+
+		return order;
+	}
+
+	/**
+	 * Type-checks the given classes in parallel. Their error messages are printed
+	 * at the end, in the order of the classes.
+	 *
+	 * @param classes the classes
+	 * @param pool the pool of threads used to type-check the classes
+	 */
+
+	private static void typeCheck(List<ClassType> classes, ForkJoinPool pool) {
+		for (ClassType clazz: classes)
+			if (clazz.getErrorMsg() != null)
+				clazz.getErrorMsg().defer();
+
+		List<Future<?>> tasks = new ArrayList<>();
+		for (final ClassType clazz: classes)
+			tasks.add(pool.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					clazz.typeCheck();
+				}
+			}));
+
+		try {
+			for (Future<?> task: tasks)
+				try {
+					task.get();
+				}
+				catch (ExecutionException e) {
+					// the type-checker does not throw checked exceptions
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					else if (cause instanceof Error)
+						throw (Error) cause;
+					else
+						throw new IllegalStateException(cause);
+				}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("type-checking has been interrupted");
+		}
+		finally {
+			for (ClassType clazz: classes)
+				if (clazz.getErrorMsg() != null)
+					clazz.getErrorMsg().flush();
+		}
+	}
+
+	/**
+	 * Yields the result of the parsing of the source file of the given class.
+	 * If it has been parsed already in the given context and the file has not been
+	 * modified since then, the same result is reused. Otherwise the file gets parsed now.
+	 *
+	 * @param context the context of the compilation
+	 * @param name the name of the class
+	 * @return the result of the parsing
+	 */
+
+	static Parsed parse(CompilationContext context, String name) {
+		Parsed result = context.parsed.get(name);
+		if (result == null || !result.isUpToDate())
+			context.parsed.put(name, result = new Parsed(context, name));
+
+		return result;
+	}
+
+	/**
+	 * A task that parses the source file of a class and forks
+	 * the parsing of the classes that it references, if they have
+	 * not been discovered yet.
+	 */
+
+	private class Parsing extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final String name;
+
+		private Parsing(String name) {
+			this.name = name;
+		}
+
+		@Override
+		protected void compute() {
+			Parsed result = parse(context, name);
+
+			List<Parsing> subtasks = new ArrayList<>();
+			for (String reference: result.references)
+				if (!ClassType.exists(context, reference) && discovered.add(reference))
+					subtasks.add(new Parsing(reference));
+
+			invokeAll(subtasks);
+		}
+	}
+
+	/**
+	 * The result of the parsing of the source file of a class. Its error
+	 * messages are deferred until the class type gets created. It is
+	 * kept together with the last modification time and the length
+	 * of the file when it was parsed, so that it can be reused until
+	 * the file gets modified.
+	 */
+
+	static class Parsed {
+
+		/**
+		 * The error reporting utility of the source file.
+		 */
+
+		final ErrorMsg errorMsg;
+
+		/**
+		 * True if and only if the source file has been found.
+		 */
+
+		final boolean found;
+
+		/**
+		 * The abstract syntax of the class, or {@code null} if
+		 * the source file cannot be found or contains syntax errors.
+		 */
+
+		final ClassDefinition abstractSyntax;
+
+		/**
+		 * The names of the classes referenced in the source file.
+		 */
+
+		final Set<String> references;
+
+		/**
+		 * A hash of the content of the source file, or 0 if it cannot be found.
+		 */
+
+		final long sourceHash;
+
+		/**
+		 * The source file.
+		 */
+
+		private final File source;
+
+		/**
+		 * The last modification time of the source file when it was parsed,
+		 * or 0 if it cannot be found.
+		 */
+
+		private final long lastModified;
+
+		/**
+		 * The length of the source file when it was parsed, or 0 if it cannot be found.
+		 */
+
+		private final long length;
+
+		/**
+		 * Parses the source file of a class.
+		 *
+		 * @param context the context of the compilation, where the errors are reported
+		 * @param name the name of the class
+		 */
+
+		private Parsed(CompilationContext context, String name) {
+			ErrorMsg errorMsg = context.mkErrorMsg(name + ".kit");
+			errorMsg.defer();
+
+			// the file is stamped before being read, so that a later
+			// modification is noticed even if it happens during parsing
+			this.source = context.getSourceFile(name);
+			this.lastModified = source.lastModified();
+			this.length = source.length();
+
+			Lexer lexer = null;
+			ClassDefinition abstractSyntax = null;
+			Set<String> references = Collections.emptySet();
+			long sourceHash = 0L;
+
+			try {
+				lexer = new Lexer(errorMsg, source);
+				sourceHash = lexer.getSourceHash();
+				Parser parser = new Parser(lexer);
+				abstractSyntax = (ClassDefinition) parser.parse().value;
+				references = parser.getReferences();
+			}
+			catch (Exception e) {
+				// the class cannot be found or contains a syntax error
+				abstractSyntax = null;
+				references = Collections.emptySet();
+			}
+
+			this.errorMsg = errorMsg;
+			this.found = lexer != null;
+			this.abstractSyntax = abstractSyntax;
+			this.references = references;
+			this.sourceHash = sourceHash;
+		}
+
+		/**
+		 * Determines if the source file has not been modified, created or
+		 * deleted since it was parsed.
+		 *
+		 * @return true if and only if that is the case
+		 */
+
+		boolean isUpToDate() {
+			return source.lastModified() == lastModified && source.length() == length;
+		}
+	}
+}
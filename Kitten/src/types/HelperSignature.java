@@ -0,0 +1,126 @@
+package types;
+
+import javaBytecodeGenerator.JavaClassGenerator;
+
+import org.apache.bcel.Constants;
+import org.apache.bcel.generic.INVOKESTATIC;
+import org.apache.bcel.generic.MethodGen;
+
+import translation.Block;
+
+/**
+ * The signature of a helper method, outlined from the code of a method or test
+ * that was too large for the Java virtual machine. A helper is a private static
+ * method of the same Java class where its caller is generated. It receives as
+ * parameters the local variables that its code reads and yields the only local
+ * variable that its code modifies and that is used after its code, if any.
+ * Its local variables are numbered from 0, starting with its parameters.
+ *
+ * @author <A HREF="mailto:fausto.spoto@univr.it">Fausto Spoto</A>
+ */
+
+public class HelperSignature extends CodeSignature {
+
+	/**
+	 * Builds the signature of a helper method.
+	 *
+	 * @param clazz the class of the method or test whose code has been outlined
+	 * @param returnType the type of the value yielded by the helper, possibly {@code void}
+	 * @param parameters the types of the parameters of the helper
+	 * @param name the name of the helper. It must be unique in its class
+	 */
+
+	public HelperSignature(ClassType clazz, Type returnType, TypeList parameters, String name) {
+		super(clazz, returnType, parameters, name, null);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return getName().hashCode();
+	}
+
+	/**
+	 * Yields the types of the stack elements which must be on top of the
+	 * stack when one calls this helper. They are its parameters, since
+	 * a helper has no receiver.
+	 *
+	 * @return the types of the parameters of this helper
+	 */
+
+	@Override
+	public TypeList requiredStackTypes() {
+		return getParameters();
+	}
+
+	/**
+	 * Determines if the code of this helper finds the receiver in local variable 0.
+	 * It does not, since a helper is static: the receiver, if needed, is passed
+	 * as one of its parameters.
+	 *
+	 * @return false
+	 */
+
+	@Override
+	public boolean hasReceiver() {
+		return false;
+	}
+
+	/**
+	 * Adds a prefix to the Kitten bytecode of this helper.
+	 *
+	 * @param code the code outlined into this helper
+	 * @return {@code code} itself
+	 */
+
+	@Override
+	protected Block addPrefixToCode(Block code) {
+		return code;
+	}
+
+	/**
+	 * Generates an {@code invokestatic} Java bytecode that calls this helper,
+	 * inside the class being generated by the given class generator.
+	 *
+	 * @param classGen the generator of the class where the helper lives
+	 * @return an {@code invokestatic} Java bytecode that calls this helper
+	 */
+
+	public INVOKESTATIC createINVOKESTATIC(JavaClassGenerator classGen) {
+		return (INVOKESTATIC) classGen.getFactory().createInvoke
+			(classGen.getClassName(), // name of the class
+			getName(), // name of the helper
+			getReturnType().toBCEL(), // return type
+			getParameters().toBCEL(), // parameters types
+			Constants.INVOKESTATIC);
+	}
+
+	/**
+	 * Adds to the given class generator a Java bytecode method for this helper.
+	 *
+	 * @param classGen the generator of the class where the helper lives
+	 */
+
+	public void createHelper(JavaClassGenerator classGen) {
+		MethodGen methodGen = new MethodGen
+			(Constants.ACC_PRIVATE | Constants.ACC_STATIC, // private and static
+			getReturnType().toBCEL(), // return type
+			getParameters().toBCEL(), // parameters types, if any
+			null, // parameters names: we do not care
+			getName(), // helper's name
+			classGen.getClassName(), // defining class
+			classGen.generateJavaBytecode(getCode()), // bytecode of the helper
+			classGen.getConstantPool()); // constant pool
+
+		// we must always set the number of local variables and stack elements
+		// used by the code of the helper before the getMethod() method below
+		classGen.setMaxStackAndLocals(methodGen);
+
+		// we add a method to the class that we are generating
+		classGen.addMethod(methodGen.getMethod());
+	}
+}
@@ -105,6 +105,6 @@ public class IntType extends IntegralType {
 
 	@Override
 	public void neg(InstructionList il) {
-		il.insert(new org.apache.bcel.generic.INEG());
+		il.append(new org.apache.bcel.generic.INEG());
 	}
 }
\ No newline at end of file
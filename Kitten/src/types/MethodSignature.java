@@ -3,6 +3,7 @@ package types;
 import javaBytecodeGenerator.JavaClassGenerator;
 
 import org.apache.bcel.Constants;
+import org.apache.bcel.generic.INVOKESPECIAL;
 import org.apache.bcel.generic.INVOKEVIRTUAL;
 import org.apache.bcel.generic.MethodGen;
 
@@ -48,6 +49,51 @@ public class MethodSignature extends CodeSignature {
 		return (INVOKEVIRTUAL) createInvokeInstruction(classGen,Constants.INVOKEVIRTUAL);
 	}
 
+	/**
+	 * Generates an {@code invokespecial} Java bytecode that calls this
+	 * method. The Java {@code invokespecial} bytecode calls a method by using
+	 * a hard-wired class name to look up for the method's implementation,
+	 * without considering the run-time class of the receiver. Hence it can only
+	 * be used for calls that have this method as their only dynamic target.
+	 * Moreover, the Java virtual machine requires the receiver to be an instance
+	 * of the class being generated, which must be a subclass of the defining class
+	 * of this method.
+	 *
+	 * @param classGen the class generator to be used to generate
+	 *                 the {@code invokespecial} Java bytecode
+	 * @return an {@code invokespecial} Java bytecode that calls this method
+	 */
+
+	public INVOKESPECIAL createINVOKESPECIAL(JavaClassGenerator classGen) {
+		return (INVOKESPECIAL) createInvokeInstruction(classGen,Constants.INVOKESPECIAL);
+	}
+
+	/**
+	 * Determines if this method is overridden in some subclass of its defining class.
+	 *
+	 * @return true if and only if some subclass of the defining class of
+	 *         this method redefines a method with the same name and parameters types
+	 */
+
+	public boolean isOverridden() {
+		for (ClassType sub: getDefiningClass().getInstances())
+			if (sub.methodLookup(getName(), getParameters()) != this)
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Determines if the code of this method finds the receiver in local variable 0.
+	 *
+	 * @return true, unless this is the {@code main} method, that is static
+	 */
+
+	@Override
+	public boolean hasReceiver() {
+		return !getName().equals("main");
+	}
+
 	/**
 	 * Adds the the given class generator a Java bytecode method for this method.
 	 *
@@ -69,7 +115,9 @@ public class MethodSignature extends CodeSignature {
 				classGen.getConstantPool()); // constant pool
 		else
 			methodGen = new MethodGen
-				(Constants.ACC_PUBLIC, // public
+				// a method that is never overridden is final, so that
+				// the Java virtual machine can bind the calls to it statically
+				(isOverridden() ? Constants.ACC_PUBLIC : Constants.ACC_PUBLIC | Constants.ACC_FINAL, // public
 				getReturnType().toBCEL(), // return type
 				getParameters().toBCEL(), // parameters types, if any
 				null, // parameters names: we do not care
@@ -78,11 +126,10 @@ public class MethodSignature extends CodeSignature {
 				classGen.generateJavaBytecode(getCode()), // bytecode of the method
 				classGen.getConstantPool()); // constant pool
 
-		// we must always call these methods before the getMethod()
-		// method below. They set the number of local variables and stack
-		// elements used by the code of the method
-		methodGen.setMaxStack();
-		methodGen.setMaxLocals();
+		// we must always set the number of local variables and stack elements
+		// used by the code of the method before the getMethod() method below.
+		// They have been computed when the code of the method was generated
+		classGen.setMaxStackAndLocals(methodGen);
 
 		// we add a method to the class that we are generating
 		classGen.addMethod(methodGen.getMethod());
@@ -35,6 +35,18 @@ public class TestSignature extends CodeSignature {
     	return getDefiningClass() + "."
    			+ getName() + "=test";
     }
+
+	/**
+	 * Determines if the code of this test finds the receiver in local variable 0.
+	 * It does not, since a test is static and cannot refer to {@code this}.
+	 *
+	 * @return false
+	 */
+
+	@Override
+	public boolean hasReceiver() {
+		return false;
+	}
 	
 	public void createTest(TestClassGenerator classGen) {
 		MethodGen methodGen;
@@ -49,11 +61,10 @@ public class TestSignature extends CodeSignature {
 		classGen.getConstantPool()
 		); // constant pool
     
-		// we must always call these methods before the getMethod()
-		// method below. They set the number of local variables and stack
-		// elements used by the code of the method
-		methodGen.setMaxStack();
-		methodGen.setMaxLocals();
+		// we must always set the number of local variables and stack elements
+		// used by the code of the method before the getMethod() method below.
+		// They have been computed when the code of the method was generated
+		classGen.setMaxStackAndLocals(methodGen);
 		// we add a method to the class that we are generating
 		classGen.addMethod(methodGen.getMethod());
     }
@@ -8,36 +8,12 @@ package types;
 
 public abstract class Type {
 
-	/**
-	 * The top of the hierarchy of the reference types.
-	 */
-
-	private static ClassType objectType;
-
 	/**
 	 * Builds a type object.
 	 */
 
 	protected Type() {}
 
-	/**
-	 * Yields the top type of the hierarchy of the reference types.
-	 *
-	 * @return the top type
-	 */
-
-	public static final ClassType getObjectType() {
-		return objectType;
-	}
-
-	/**
-	 * Sets the top type of the hierarchy of the reference types.
-	 */
-
-	protected static final void setObjectType(ClassType objectType) {
-		Type.objectType = objectType;
-	}
-
 	/**
 	 * The number of stack elements used on the Kitten abstract machine
 	 * to hold a value of this type. This is always 1 for Kitten types that